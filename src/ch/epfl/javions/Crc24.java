@@ -1,5 +1,10 @@
 package ch.epfl.javions;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
 /**
  * This class evaluates the CRC24 of each received ADS-B message. The crc24 is an error detection algorithm that
  * will let us eliminate the corrupted messages from the feed.
@@ -10,6 +15,38 @@ public final class Crc24 {
     public final static int GENERATOR = 0xFFF409;
     private final int[] builtTable;
 
+    // number of slicing tables, the crc being computed 8 bytes at a time
+    private final static int SLICING_TABLES_COUNT = Long.BYTES;
+
+    // tables giving the remainder of a byte followed by 0 to 7 zero bytes, the first one being builtTable
+    private final int[][] slicingTables;
+
+    // mask of the 24 bits of the crc
+    private final static int CRC_MASK = (1 << 24) - 1;
+
+    // number of bytes of the last part of a 112 bit message packed in two longs, and mask of their bits
+    private final static int LOW_BYTES = 6;
+    private final static long LOW_BITS_MASK = (1L << (LOW_BYTES * Byte.SIZE)) - 1;
+
+    // view of a byte array as an array of big-endian longs
+    private final static VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    // number of bytes of the messages whose bit errors can be located, the length of ADS-B messages
+    public final static int CORRECTABLE_MESSAGE_LENGTH = 14;
+
+    // size of the open addressing table mapping syndromes to errors, a power of two well above the 6328 syndromes
+    private final static int SYNDROME_TABLE_SIZE = 1 << 14;
+
+    // marks a syndrome shared by several errors with the same number of bits, which cannot be corrected
+    private final static int AMBIGUOUS_ERROR = -1;
+
+    // syndromes of the one and two bit errors, 0 marking an empty slot
+    private final int[] syndromes;
+
+    // errors associated to the syndromes: positions of the flipped bits plus one, the first in the 8 weak bits and the
+    // second, or 0 if there is only one, in the 8 following bits
+    private final int[] errors;
+
     // main table size
     public static int MAIN_TABLE_SIZE = 256;
 
@@ -21,6 +58,103 @@ public final class Crc24 {
      */
     public Crc24(int generator) {
         builtTable = buildTable(generator);
+        slicingTables = buildSlicingTables(builtTable);
+        syndromes = new int[SYNDROME_TABLE_SIZE];
+        errors = new int[SYNDROME_TABLE_SIZE];
+        buildSyndromeTable();
+    }
+
+    /**
+     * method that computes the syndromes of all the one and two bit errors of a message of length
+     * CORRECTABLE_MESSAGE_LENGTH. Since the crc is linear, the crc of a corrupted message is the crc of its error, so a
+     * non-zero crc can be mapped back to the bits that were flipped
+     */
+    private void buildSyndromeTable() {
+        int bitCount = CORRECTABLE_MESSAGE_LENGTH * Byte.SIZE;
+        int[] singleBitSyndromes = new int[bitCount];
+        byte[] error = new byte[CORRECTABLE_MESSAGE_LENGTH];
+
+        for (int i = 0; i < bitCount; i++) {
+            error[i / Byte.SIZE] = (byte) (1 << (Byte.SIZE - 1 - i % Byte.SIZE));
+            singleBitSyndromes[i] = crc(error);
+            error[i / Byte.SIZE] = 0;
+            addSyndrome(singleBitSyndromes[i], i + 1);
+        }
+
+        for (int i = 0; i < bitCount; i++) {
+            for (int j = i + 1; j < bitCount; j++) {
+                addSyndrome(singleBitSyndromes[i] ^ singleBitSyndromes[j], (i + 1) | (j + 1) << Byte.SIZE);
+            }
+        }
+    }
+
+    /**
+     * adds a syndrome to the table, an error with fewer bits having priority over an error with more bits
+     *
+     * @param syndrome crc of the error
+     * @param error    encoded positions of the bits of the error
+     */
+    private void addSyndrome(int syndrome, int error) {
+        int i = syndromeSlot(syndrome);
+        if (syndromes[i] == 0) {
+            syndromes[i] = syndrome;
+            errors[i] = error;
+        } else if (errors[i] != AMBIGUOUS_ERROR && bitCount(errors[i]) == bitCount(error)) {
+            errors[i] = AMBIGUOUS_ERROR;
+        }
+    }
+
+    /**
+     * @param syndrome crc of the error
+     * @return index of the slot of the table holding the syndrome, or of the empty slot where it would be stored
+     */
+    private int syndromeSlot(int syndrome) {
+        int i = (syndrome * 0x9E3779B1) >>> (Integer.SIZE - Integer.numberOfTrailingZeros(SYNDROME_TABLE_SIZE));
+        while (syndromes[i] != 0 && syndromes[i] != syndrome) {
+            i = (i + 1) & (SYNDROME_TABLE_SIZE - 1);
+        }
+        return i;
+    }
+
+    /**
+     * @param error encoded positions of the bits of the error
+     * @return number of flipped bits of the error
+     */
+    private static int bitCount(int error) {
+        return (error >>> Byte.SIZE) == 0 ? 1 : 2;
+    }
+
+    /**
+     * this method tries to correct the bit errors of a message of length CORRECTABLE_MESSAGE_LENGTH whose crc is not 0,
+     * by looking up the bits that have been flipped in the table of syndromes
+     *
+     * @param bytes        message, corrected in place if possible
+     * @param maxBitErrors maximal number of flipped bits to correct, 1 or 2
+     * @return the number of corrected bits (0 if the crc of the message already was 0), or -1 if the message could not
+     * be corrected, in which case it is left untouched
+     * @throws IllegalArgumentException if maxBitErrors is neither 1 nor 2
+     */
+    public int correct(byte[] bytes, int maxBitErrors) {
+        Preconditions.checkArgument(maxBitErrors == 1 || maxBitErrors == 2);
+        int syndrome = crc(bytes);
+        if (syndrome == 0) return 0;
+        if (bytes.length != CORRECTABLE_MESSAGE_LENGTH) return -1;
+
+        int i = syndromeSlot(syndrome);
+        int error = errors[i];
+        if (syndromes[i] == 0 || error == AMBIGUOUS_ERROR || bitCount(error) > maxBitErrors) return -1;
+
+        flipBit(bytes, (error & 0xFF) - 1);
+        if (bitCount(error) == 2) flipBit(bytes, (error >>> Byte.SIZE) - 1);
+        return bitCount(error);
+    }
+
+    /**
+     * @param bytes message
+     * @param bit   index of the bit to flip, 0 being the strongest bit of the first byte
+     */
+    private static void flipBit(byte[] bytes, int bit) {
+        bytes[bit / Byte.SIZE] ^= (byte) (1 << (Byte.SIZE - 1 - bit % Byte.SIZE));
     }
 
     /**
@@ -41,6 +175,29 @@ public final class Crc24 {
         return mainTable;
     }
 
+    /**
+     * method that builds the slicing tables: the table of index k gives, for each byte, the crc24 of this byte followed
+     * by k zero bytes
+     *
+     * @param mainTable table containing the crc24 of each byte
+     * @return the slicing tables
+     */
+    private static int[][] buildSlicingTables(int[] mainTable) {
+        int[][] tables = new int[SLICING_TABLES_COUNT][];
+        tables[0] = mainTable;
+
+        for (int k = 1; k < SLICING_TABLES_COUNT; k++) {
+            tables[k] = new int[MAIN_TABLE_SIZE];
+            for (int i = 0; i < MAIN_TABLE_SIZE; i++) {
+                int previous = tables[k - 1][i];
+                tables[k][i] = ((previous << Byte.SIZE) & CRC_MASK)
+                        ^ mainTable[previous >>> (BITS_TO_EXTRACT - Byte.SIZE)];
+            }
+        }
+
+        return tables;
+    }
+
     /**
      * this method executes the cyclic redundancy check with any generator on any table containing bytes bit by bit
      *
@@ -72,31 +229,90 @@ public final class Crc24 {
     }
 
     /**
-     * this method executes the cyclic redundancy check with any generator on any table containing bytes, this time byte
-     * by byte
+     * this method executes the cyclic redundancy check with any generator on any table containing bytes
      *
      * @param bytes array of bytes that when put together form the message
      * @return the crc24 of the given array of bytes
      */
     public int crc(byte[] bytes) {
-        int crc = 0;
+        return crc(bytes, 0, bytes.length);
+    }
 
-        //will represent a byte of the augmented message
-        int o;
+    /**
+     * this method executes the cyclic redundancy check on a slice of an array of bytes, without copying it. The slice
+     * is processed eight bytes at a time, each of them indexing one of the slicing tables, and the remaining bytes one
+     * by one
+     *
+     * @param bytes  array of bytes containing the message
+     * @param offset index of the first byte of the message
+     * @param length number of bytes of the message
+     * @return the crc24 of the given slice
+     * @throws IndexOutOfBoundsException if the slice is not entirely contained in the array
+     */
+    public int crc(byte[] bytes, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        int crc = 0;
+        int i = offset;
+        int end = offset + length;
 
-        for (byte aByte : bytes) {
-            //now that we're working byte by byte there is a chance the corresponding integer will be negative since
-            // they are signed so if the first bit of a byte is negative we add 256 to it
-            o = Bits.extractUInt((aByte >= 0) ? aByte : aByte + MAIN_TABLE_SIZE, 0, Byte.SIZE);
-            crc = ((crc << Byte.SIZE) | o) ^ builtTable[Bits.extractUInt(crc, BITS_TO_EXTRACT - Byte.SIZE, Byte.SIZE)];
+        for (; i + Long.BYTES <= end; i += Long.BYTES) {
+            crc = crcOfWord(crc, (long) LONG_VIEW.get(bytes, i));
         }
-
-        for (int k = 0; k < BITS_TO_EXTRACT / Byte.SIZE; k++) {
-            crc = (crc << Byte.SIZE) ^ builtTable[Bits.extractUInt(crc, BITS_TO_EXTRACT - Byte.SIZE, Byte.SIZE)];
+        for (; i < end; i++) {
+            crc = crcOfByte(crc, bytes[i]);
         }
-
-        crc = Bits.extractUInt(crc, 0, BITS_TO_EXTRACT);
         return crc;
     }
 
-}
\ No newline at end of file
+    /**
+     * this method executes the cyclic redundancy check on a message of 112 bits packed in two longs, the length of
+     * ADS-B messages
+     *
+     * @param high first 8 bytes of the message, the first one being the strongest
+     * @param low  last 6 bytes of the message, stored in the 48 weak bits, the last one being the weakest
+     * @return the crc24 of the message
+     */
+    public int crc(long high, long low) {
+        int crc = crcOfWord(0, high);
+        // the 48 bits of the second part are wider than the crc, so they can be processed at once as well
+        long v = ((long) crc << (LOW_BYTES * Byte.SIZE - BITS_TO_EXTRACT)) ^ (low & LOW_BITS_MASK);
+        return slicingTables[5][(int) (v >>> 40) & 0xFF]
+                ^ slicingTables[4][(int) (v >>> 32) & 0xFF]
+                ^ slicingTables[3][(int) (v >>> 24) & 0xFF]
+                ^ slicingTables[2][(int) (v >>> 16) & 0xFF]
+                ^ slicingTables[1][(int) (v >>> 8) & 0xFF]
+                ^ slicingTables[0][(int) v & 0xFF];
+    }
+
+    /**
+     * updates the crc with the given 8 bytes: the crc of the message followed by the bytes is the remainder of the 64
+     * bits value (crc * x^40 + bytes) * x^24, which is the sum of the remainders of each of its bytes
+     *
+     * @param crc  crc of the previous bytes of the message
+     * @param word next 8 bytes of the message, the first one being the strongest
+     * @return the crc of the message including the 8 bytes
+     */
+    private int crcOfWord(int crc, long word) {
+        long v = ((long) crc << (Long.SIZE - BITS_TO_EXTRACT)) ^ word;
+        return slicingTables[7][(int) (v >>> 56)]
+                ^ slicingTables[6][(int) (v >>> 48) & 0xFF]
+                ^ slicingTables[5][(int) (v >>> 40) & 0xFF]
+                ^ slicingTables[4][(int) (v >>> 32) & 0xFF]
+                ^ slicingTables[3][(int) (v >>> 24) & 0xFF]
+                ^ slicingTables[2][(int) (v >>> 16) & 0xFF]
+                ^ slicingTables[1][(int) (v >>> 8) & 0xFF]
+                ^ slicingTables[0][(int) v & 0xFF];
+    }
+
+    /**
+     * updates the crc with the given byte
+     *
+     * @param crc crc of the previous bytes of the message
+     * @param b   next byte of the message
+     * @return the crc of the message including the byte
+     */
+    private int crcOfByte(int crc, byte b) {
+        return ((crc << Byte.SIZE) & CRC_MASK) ^ builtTable[((crc >>> (BITS_TO_EXTRACT - Byte.SIZE)) ^ b) & 0xFF];
+    }
+
+}
@@ -33,6 +33,9 @@ public record AirbornePositionMessage(long timeStampNs, IcaoAddress icaoAddress,
     static final int LON_CPR_SIZE = 17;
     static final int FORMAT_START = 34;
     static final int FORMAT_SIZE = 1;
+    static final int ALTITUDE_START = 36;
+    // altitude in meters of each value of the 12 bit altitude field, NaN if it is invalid
+    private static final double[] ALTITUDES = altitudes();
 
 
     public AirbornePositionMessage {
@@ -64,8 +67,60 @@ public record AirbornePositionMessage(long timeStampNs, IcaoAddress icaoAddress,
      * the altitude is invalid
      */
     public static AirbornePositionMessage of(RawMessage rawMessage) {
+        long payload = rawMessage.payload();
+        double altitude = altitude(payload);
+        if (Double.isNaN(altitude)) {
+            return null;
+        }
+        return new AirbornePositionMessage(rawMessage.timeStampNs(), rawMessage.icaoAddress(), altitude,
+                parity(payload), x(payload), y(payload));
+    }
+
+    /**
+     * Parses the given ME attribute of an airborne position message into the given sink, without allocating anything.
+     *
+     * @param timeStampNs timestamp of the message, in nanoseconds
+     * @param icaoAddress ICAO address of the aircraft, as a 24 bit integer
+     * @param payload     ME attribute of the message
+     * @param sink        sink receiving the fields of the message
+     * @return true if the message was handed over to the sink, false if the altitude is invalid
+     */
+    static boolean parse(long timeStampNs, int icaoAddress, long payload, MessageSink sink) {
+        double altitude = altitude(payload);
+        if (Double.isNaN(altitude)) {
+            return false;
+        }
+        sink.airbornePosition(timeStampNs, icaoAddress, altitude, parity(payload), x(payload), y(payload));
+        return true;
+    }
+
+    /**
+     * @param payload ME attribute of an airborne position message
+     * @return the altitude carried by the message, in meters, or NaN if it is invalid
+     */
+    static double altitude(long payload) {
+        return ALTITUDES[Bits.extractUInt(payload, ALTITUDE_START, BYTE_SIZE)];
+    }
+
+    /**
+     * Decodes every value of the altitude field once, so that the unscrambling of the Gray coded altitudes is not done
+     * for every message.
+     *
+     * @return the altitude in meters of each value of the altitude field, NaN if it is invalid
+     */
+    private static double[] altitudes() {
+        double[] altitudes = new double[1 << BYTE_SIZE];
+        for (int bitAltitude = 0; bitAltitude < altitudes.length; bitAltitude++) {
+            altitudes[bitAltitude] = decodeAltitude(bitAltitude);
+        }
+        return altitudes;
+    }
 
-        int bitAltitude = Bits.extractUInt(rawMessage.payload(), 36, 12);
+    /**
+     * @param bitAltitude 12 bit altitude field of an airborne position message
+     * @return the altitude, in meters, or NaN if it is invalid
+     */
+    private static double decodeAltitude(int bitAltitude) {
         int Q = Bits.extractUInt(bitAltitude, 4, 1);
         double altitude;
 
@@ -90,7 +145,7 @@ public record AirbornePositionMessage(long timeStampNs, IcaoAddress icaoAddress,
                     , STRONG_BITS_SIZE);
 
             if (weakBits == 0 || weakBits == 5 || weakBits == 6) {
-                return null;
+                return Double.NaN;
             } else if (weakBits == 7) {
                 weakBits = 5;
             }
@@ -102,15 +157,30 @@ public record AirbornePositionMessage(long timeStampNs, IcaoAddress icaoAddress,
         }
 
         altitude = Units.convert(altitude, Units.Length.FOOT, Units.Length.METER);
-        if (altitude < 0) {
-            return null;
-        }
-        return new AirbornePositionMessage(rawMessage.timeStampNs(), rawMessage.icaoAddress(), altitude,
-                Bits.extractUInt(rawMessage.payload(), FORMAT_START, FORMAT_SIZE),
-                Bits.extractUInt(rawMessage.payload(), LON_CPR_START, LON_CPR_SIZE)
-                        / (double)(1 << NORMALIZING_CONSTANT),
-                Bits.extractUInt(rawMessage.payload(), LAT_CPR_START, LAT_CPR_SIZE)
-                        / (double)(1 << NORMALIZING_CONSTANT));
+        return (altitude < 0) ? Double.NaN : altitude;
     }
-}
 
+    /**
+     * @param payload ME attribute of an airborne position message
+     * @return parity of the message
+     */
+    private static int parity(long payload) {
+        return Bits.extractUInt(payload, FORMAT_START, FORMAT_SIZE);
+    }
+
+    /**
+     * @param payload ME attribute of an airborne position message
+     * @return normalized local longitude
+     */
+    private static double x(long payload) {
+        return Bits.extractUInt(payload, LON_CPR_START, LON_CPR_SIZE) / (double)(1 << NORMALIZING_CONSTANT);
+    }
+
+    /**
+     * @param payload ME attribute of an airborne position message
+     * @return normalized local latitude
+     */
+    private static double y(long payload) {
+        return Bits.extractUInt(payload, LAT_CPR_START, LAT_CPR_SIZE) / (double)(1 << NORMALIZING_CONSTANT);
+    }
+}
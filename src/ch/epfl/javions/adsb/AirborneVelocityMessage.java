@@ -30,107 +30,89 @@ public record AirborneVelocityMessage(long timeStampNs, IcaoAddress icaoAddress,
      * @return instance of Velocity Message.
      */
     public static AirborneVelocityMessage of(RawMessage rawMessage) {
+        long payload = rawMessage.payload();
+        double velocity = speed(payload);
+        if (Double.isNaN(velocity)) {
+            return null;
+        }
+        return new AirborneVelocityMessage(rawMessage.timeStampNs(), rawMessage.icaoAddress(), velocity,
+                trackOrHeading(payload));
+    }
 
+    /**
+     * Parses the given ME attribute of an airborne velocity message into the given sink, without allocating anything.
+     *
+     * @param timeStampNs timestamp of the message, in nanoseconds
+     * @param icaoAddress ICAO address of the aircraft, as a 24 bit integer
+     * @param payload     ME attribute of the message
+     * @param sink        sink receiving the fields of the message
+     * @return true if the message was handed over to the sink, false if it does not carry the velocity
+     */
+    static boolean parse(long timeStampNs, int icaoAddress, long payload, MessageSink sink) {
+        double velocity = speed(payload);
+        if (Double.isNaN(velocity)) {
+            return false;
+        }
+        sink.airborneVelocity(timeStampNs, icaoAddress, velocity, trackOrHeading(payload));
+        return true;
+    }
 
-        long payload = rawMessage.payload();
+    /**
+     * @param payload ME attribute of an airborne velocity message
+     * @return speed carried by the message, in meters per second, or NaN if the message does not carry it
+     */
+    private static double speed(long payload) {
         int subType = Bits.extractUInt(payload, 48, 3);
         int information = Bits.extractUInt(payload, 21, 22);
-        IcaoAddress icaoAddress = rawMessage.icaoAddress();
-        long timeStampNs = rawMessage.timeStampNs();
-
-        double vx;
-        double vy;
-        double velocity;
-        double trackOrHeading;
 
         if (subType == 1 || subType == 2) {
-
-            int dew = Bits.extractUInt(information, 21, 1);
-            int dns = Bits.extractUInt(information, 10, 1);
             int vns = Bits.extractUInt(information, 0, 10);
             int vew = Bits.extractUInt(information, 11, 10);
 
             if (vns == 0 || vew == 0) {
                 //components of the velocity are not carried by the message in that case
-                return null;
-            } else {
-                double[] velocities = computeVelocityComponents(vns, vew, dns, dew);
-                vx = velocities[0];
-                vy = velocities[1];
-                trackOrHeading = Math.atan2(vx, vy);
-
-                if (trackOrHeading < 0) {
-                    // Translate the negative value modulo 2 * PI so that the angle is contained in the interval [0, 2*PI]
-                    trackOrHeading = trackOrHeading + 2 * Math.PI;
-                }
-                if (subType == 1) {
-                    // velocity inferior to the speed of sound
-                    velocity = Units.convertFrom(Math.hypot(vx, vy), Units.Speed.KNOT);
-                } else {
-                    // velocity exceeds sound barrier
-                    velocity = Units.convertFrom(Math.hypot(vx, vy), 4 * Units.Speed.KNOT);
-                }
-                return new AirborneVelocityMessage(timeStampNs, icaoAddress, velocity, trackOrHeading);
+                return Double.NaN;
             }
+            // the direction of the components does not change the speed
+            double groundSpeed = Math.hypot(vew - 1, vns - 1);
+            // the unit of the velocity is 4 times larger when the velocity exceeds the sound barrier
+            return Units.convertFrom(groundSpeed, (subType == 1) ? Units.Speed.KNOT : 4 * Units.Speed.KNOT);
         } else if (subType == 3 || subType == 4) {
-
             int sh = Bits.extractUInt(information, 21, 1);
-            if (sh == 0) {
-                return null;
-            } else {
-
-                double cap = Bits.extractUInt(information, 11, 10);
-                double capTours = cap / (1 << 10);
-                trackOrHeading = Units.convert(capTours, Units.Angle.TURN, Units.Angle.RADIAN);
-                int as = Bits.extractUInt(information, 0, 10);
-                if (as == 0) {
-                    // the value of the velocity is not carried by the message in that case
-                    return null;
-                } else {
-                    double airVelocity = as - 1;
-                    if (subType == 3) {
-                        // velocity inferior to the seed of sound
-                        velocity = Units.convertFrom(airVelocity, Units.Speed.KNOT);
-                    } else {
-                        // velocity exceeds the sound barrier
-                        velocity = Units.convertFrom(airVelocity, Units.Speed.KNOT * 4);
-                    }
-                    return new AirborneVelocityMessage(timeStampNs, icaoAddress, velocity, trackOrHeading);
-                }
+            int as = Bits.extractUInt(information, 0, 10);
+            if (sh == 0 || as == 0) {
+                // the heading or the value of the velocity is not carried by the message in that case
+                return Double.NaN;
             }
-        } else return null;
+            double airVelocity = as - 1;
+            return Units.convertFrom(airVelocity, (subType == 3) ? Units.Speed.KNOT : 4 * Units.Speed.KNOT);
+        } else return Double.NaN;
     }
 
-
     /**
-     * @param vns North-South axis component of velocity + 1.
-     * @param vew East-West axis component of velocity + 1.
-     * @param dns 1 if the aircraft goes from North to South, 0 otherwise
-     * @param dew 1 if the aircraft goes from East to West, 0 otherwise.
-     * @return array containing the velocity components.
-     * <p>
-     * Auxiliary method for computing the velocity components, according to the direction of the aircraft.
+     * @param payload ME attribute of an airborne velocity message carrying the speed
+     * @return track or heading carried by the message, in radians, between 0 and 2 * PI
      */
+    private static double trackOrHeading(long payload) {
+        int subType = Bits.extractUInt(payload, 48, 3);
+        int information = Bits.extractUInt(payload, 21, 22);
 
-    private static double[] computeVelocityComponents(int vns, int vew, int dns, int dew) {
-        int vx, vy;
-        double[] velocityComponents = new double[2];
-        if (dew == 0) {
-            vx = vew - 1;
-        } else {
-            vx = -1 * (vew - 1);
-        }
-        if (dns == 0) {
-            vy = vns - 1;
+        if (subType == 1 || subType == 2) {
+            int dew = Bits.extractUInt(information, 21, 1);
+            int dns = Bits.extractUInt(information, 10, 1);
+            int vns = Bits.extractUInt(information, 0, 10);
+            int vew = Bits.extractUInt(information, 11, 10);
+
+            // components of the velocity, negated when the aircraft goes from east to west or from north to south
+            int vx = (dew == 0) ? vew - 1 : -(vew - 1);
+            int vy = (dns == 0) ? vns - 1 : -(vns - 1);
+            double trackOrHeading = Math.atan2(vx, vy);
+            // Translate the negative value modulo 2 * PI so that the angle is contained in the interval [0, 2*PI]
+            return (trackOrHeading < 0) ? trackOrHeading + 2 * Math.PI : trackOrHeading;
         } else {
-            vy = -1 * (vns - 1);
+            double cap = Bits.extractUInt(information, 11, 10);
+            double capTours = cap / (1 << 10);
+            return Units.convert(capTours, Units.Angle.TURN, Units.Angle.RADIAN);
         }
-        velocityComponents[0] = vx;
-        velocityComponents[1] = vy;
-
-        return velocityComponents;
     }
-
-
 }
-
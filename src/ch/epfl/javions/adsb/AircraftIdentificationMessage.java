@@ -6,8 +6,6 @@ import ch.epfl.javions.aircraft.IcaoAddress;
 
 import java.util.Objects;
 
-import static java.lang.String.valueOf;
-
 /**
  * @param timeStampNs timestamp in nano seconds
  * @param icaoAddress of the aircraft
@@ -21,8 +19,6 @@ public record AircraftIdentificationMessage(long timeStampNs, IcaoAddress icaoAd
     //constant that is the number of bits that represent the callSign characters and aircraft category
     static final int ME_ATTRIBUTE_SIZE = 48;
     static final int CA_SIZE = 3;
-    static final int C1_START = 42;
-    static final int CALLSIGN_CHARACTER_SIZE = 6;
 
     public AircraftIdentificationMessage {
         Objects.requireNonNull(icaoAddress);
@@ -40,35 +36,44 @@ public record AircraftIdentificationMessage(long timeStampNs, IcaoAddress icaoAd
      */
 
     public static AircraftIdentificationMessage of(RawMessage rawMessage) {
-        int codeType = rawMessage.typeCode();
-        int CA = Bits.extractUInt(rawMessage.payload(), ME_ATTRIBUTE_SIZE, CA_SIZE);
-
-        //calculating the category of the aircraft
-        codeType = 14 - codeType;
-        int category;
-        codeType <<= 4;
-        category = ((codeType & 0b11110000) | CA);
-
-        StringBuilder callSignString = new StringBuilder();
-        String stringToAdd;
-        int callsignInt;
+        long payload = rawMessage.payload();
+        long callSign = encodedCallSign(payload);
+        if (!CallSign.isValid(callSign)) return null;
+        return new AircraftIdentificationMessage(rawMessage.timeStampNs(), rawMessage.icaoAddress(), category(payload),
+                CallSign.of(callSign));
+    }
 
-        for (int i = 0; i < CallSign.CALLSIGN_MAX_LENGTH; i++) {
-            callsignInt = Bits.extractUInt(rawMessage.payload(), C1_START - CALLSIGN_CHARACTER_SIZE * i, CALLSIGN_CHARACTER_SIZE);
-            if (callsignInt >= 1 && callsignInt <= 26) {
-                stringToAdd = valueOf((char) (callsignInt + 'A' - 1));
-            } else if (callsignInt >= ME_ATTRIBUTE_SIZE && callsignInt <= 57) {
-                stringToAdd = Integer.toString(callsignInt - ME_ATTRIBUTE_SIZE);
-            } else if (callsignInt == 32) {
-                stringToAdd = " ";
-            } else {
-                return null;
-            }
+    /**
+     * Parses the given ME attribute of an identification message into the given sink, without allocating anything.
+     *
+     * @param timeStampNs timestamp of the message, in nanoseconds
+     * @param icaoAddress ICAO address of the aircraft, as a 24 bit integer
+     * @param payload     ME attribute of the message
+     * @param sink        sink receiving the fields of the message
+     * @return true if the message was handed over to the sink, false if one of the callSign characters is invalid
+     */
+    static boolean parse(long timeStampNs, int icaoAddress, long payload, MessageSink sink) {
+        long callSign = encodedCallSign(payload);
+        if (!CallSign.isValid(callSign)) return false;
+        sink.identification(timeStampNs, icaoAddress, category(payload), callSign);
+        return true;
+    }
 
-            callSignString.append(stringToAdd);
-        }
+    /**
+     * @param payload ME attribute of an identification message
+     * @return category of the aircraft, made of the type code and of the CA attribute
+     */
+    private static int category(long payload) {
+        int CA = Bits.extractUInt(payload, ME_ATTRIBUTE_SIZE, CA_SIZE);
+        return (((14 - RawMessage.typeCode(payload)) << 4) & 0b11110000) | CA;
+    }
 
-        CallSign callSign = new CallSign(callSignString.toString().stripTrailing());
-        return new AircraftIdentificationMessage(rawMessage.timeStampNs(), rawMessage.icaoAddress(), category, callSign);
+    /**
+     * @param payload ME attribute of an identification message
+     * @return the 8 characters of the callSign, encoded on 6 bits each
+     */
+    private static long encodedCallSign(long payload) {
+        int size = CallSign.CALLSIGN_MAX_LENGTH * CallSign.CHARACTER_SIZE;
+        return payload & ((1L << size) - 1);
     }
-}
\ No newline at end of file
+}
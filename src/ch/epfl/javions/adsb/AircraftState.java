@@ -0,0 +1,144 @@
+package ch.epfl.javions.adsb;
+
+import ch.epfl.javions.GeoPos;
+import ch.epfl.javions.aircraft.IcaoAddress;
+
+import java.util.Objects;
+
+/**
+ * Plain state of an aircraft, updated through its setters without any JavaFX property, so that it can be used by
+ * headless applications. Like the observable state of the graphical interface, the altitude and the velocity are NaN
+ * as long as no message has brought their value. Instances are not thread safe.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class AircraftState implements AircraftStateSetter {
+
+    private final IcaoAddress icaoAddress;
+    private long lastMessageTimeStampNs;
+    private int category;
+    private CallSign callSign;
+    private GeoPos position;
+    private double altitude;
+    private double velocity;
+    private double trackOrHeading;
+
+    /**
+     * Creates the state of the aircraft with the given address, none of its values being known yet.
+     *
+     * @param icaoAddress address of the aircraft
+     * @throws NullPointerException if the address is null
+     */
+    public AircraftState(IcaoAddress icaoAddress) {
+        this.icaoAddress = Objects.requireNonNull(icaoAddress);
+        this.altitude = Double.NaN;
+        this.velocity = Double.NaN;
+    }
+
+    /**
+     * Creates a copy of the given state, for example to hand it over to another thread.
+     *
+     * @param state state to copy
+     */
+    public AircraftState(AircraftState state) {
+        this.icaoAddress = state.icaoAddress;
+        this.lastMessageTimeStampNs = state.lastMessageTimeStampNs;
+        this.category = state.category;
+        this.callSign = state.callSign;
+        this.position = state.position;
+        this.altitude = state.altitude;
+        this.velocity = state.velocity;
+        this.trackOrHeading = state.trackOrHeading;
+    }
+
+    /**
+     * @return address of the aircraft
+     */
+    public IcaoAddress icaoAddress() {
+        return this.icaoAddress;
+    }
+
+    /**
+     * @return timestamp of the last message received from the aircraft, in nanoseconds
+     */
+    public long lastMessageTimeStampNs() {
+        return this.lastMessageTimeStampNs;
+    }
+
+    @Override
+    public void setLastMessageTimeStampNs(long timeStampNs) {
+        this.lastMessageTimeStampNs = timeStampNs;
+    }
+
+    /**
+     * @return category of the aircraft
+     */
+    public int category() {
+        return this.category;
+    }
+
+    @Override
+    public void setCategory(int category) {
+        this.category = category;
+    }
+
+    /**
+     * @return call sign of the aircraft, or null if it is not known
+     */
+    public CallSign callSign() {
+        return this.callSign;
+    }
+
+    @Override
+    public void setCallSign(CallSign callSign) {
+        this.callSign = callSign;
+    }
+
+    /**
+     * @return position of the aircraft, or null if it is not known
+     */
+    public GeoPos position() {
+        return this.position;
+    }
+
+    @Override
+    public void setPosition(GeoPos position) {
+        this.position = position;
+    }
+
+    /**
+     * @return altitude of the aircraft, in meters, or NaN if it is not known
+     */
+    public double altitude() {
+        return this.altitude;
+    }
+
+    @Override
+    public void setAltitude(double altitude) {
+        this.altitude = altitude;
+    }
+
+    /**
+     * @return velocity of the aircraft, in meters per second, or NaN if it is not known
+     */
+    public double velocity() {
+        return this.velocity;
+    }
+
+    @Override
+    public void setVelocity(double velocity) {
+        this.velocity = velocity;
+    }
+
+    /**
+     * @return track or heading of the aircraft, in radians
+     */
+    public double trackOrHeading() {
+        return this.trackOrHeading;
+    }
+
+    @Override
+    public void setTrackOrHeading(double trackOrHeading) {
+        this.trackOrHeading = trackOrHeading;
+    }
+}
@@ -15,8 +15,10 @@ public class AircraftStateAccumulator<T extends AircraftStateSetter> {
     // array of size 2 which will memorize the two most recent messages of opposite parity at each update
     private final AirbornePositionMessage[] previousMessageMemory;
 
-    // POSITION_THRESHOLD_NS = 10 seconds
-    private final double POSITION_THRESHOLD_NS = 10 * Math.pow(10, 9);
+    /**
+     * Maximal delay between two position messages of opposite parity for the position to be decoded, 10 seconds.
+     */
+    public static final long POSITION_THRESHOLD_NS = 10_000_000_000L;
 
     /**
      * @param stateSetter state setter.
@@ -56,10 +58,11 @@ public class AircraftStateAccumulator<T extends AircraftStateSetter> {
 
                 AirbornePositionMessage prevMessage = this.oppParRecentMessage(aim);
                 if (!Objects.isNull(prevMessage)) {
-                    if (this.posMessageCondition(aim, prevMessage)) {
-                        if (this.getPosition(aim, prevMessage) != null) {
-                            this.stateSetter.setPosition(this.getPosition(aim, prevMessage));
-                        }
+                    long position = decodePositionT32(aim.timeStampNs(), aim.parity(), aim.x(), aim.y(),
+                            prevMessage.timeStampNs(), prevMessage.x(), prevMessage.y());
+                    if (position != CprDecoder.NO_POSITION) {
+                        this.stateSetter.setPosition(
+                                new GeoPos(CprDecoder.longitudeT32(position), CprDecoder.latitudeT32(position)));
                     }
                 }
 
@@ -78,14 +81,26 @@ public class AircraftStateAccumulator<T extends AircraftStateSetter> {
 
 
     /**
-     * @param message         message of whom we want to update the position
-     * @param previousMessage previous position message of different parity
-     * @return True if position can be updated
-     * Verifies if position can be updated, by looking at the previous message of different parity
-     * and checking whether it is sufficiently recent.
+     * Decodes the position of an aircraft out of its most recent position message and of the last one of opposite
+     * parity, if the latter is recent enough. This is the rule applied by {@link #update(Message)}, shared with the
+     * states updated field by field, so that they cannot drift apart.
+     *
+     * @param timeStampNs      timestamp of the most recent position message
+     * @param parity           parity of the most recent position message
+     * @param x                normalized longitude of the most recent position message
+     * @param y                normalized latitude of the most recent position message
+     * @param otherTimeStampNs timestamp of the last position message of opposite parity
+     * @param otherX           normalized longitude of the last position message of opposite parity
+     * @param otherY           normalized latitude of the last position message of opposite parity
+     * @return the position packed like by {@link CprDecoder#decodePositionT32(double, double, double, double, int)},
+     * or {@link CprDecoder#NO_POSITION} if the messages are too far apart or the position cannot be determined
      */
-    private boolean posMessageCondition(AirbornePositionMessage message, AirbornePositionMessage previousMessage) {
-        return (message.timeStampNs() - previousMessage.timeStampNs()) <= POSITION_THRESHOLD_NS;
+    public static long decodePositionT32(long timeStampNs, int parity, double x, double y,
+                                         long otherTimeStampNs, double otherX, double otherY) {
+        if (timeStampNs - otherTimeStampNs > POSITION_THRESHOLD_NS) return CprDecoder.NO_POSITION;
+        return (parity == 1)
+                ? CprDecoder.decodePositionT32(otherX, otherY, x, y, parity)
+                : CprDecoder.decodePositionT32(x, y, otherX, otherY, parity);
     }
 
     /**
@@ -100,23 +115,6 @@ public class AircraftStateAccumulator<T extends AircraftStateSetter> {
     }
 
 
-    /**
-     * @param message     currently updated message
-     * @param prevMessage most recent message of opposite parity to the current message, stored in the memory buffer.
-     * @return an instance of GeoPos.
-     * Evaluates the position of the aircraft based on the most recent pair of messages of opposite parity. Passes data carried
-     * by the pair of messages to the static method CprDecoder.decodePosition.
-     */
-    private GeoPos getPosition(AirbornePositionMessage message, AirbornePositionMessage prevMessage) {
-        int messageParity = message.parity();
-        if (messageParity == 1) {
-            return CprDecoder.decodePosition(prevMessage.x(), prevMessage.y(), message.x(), message.y(), messageParity);
-
-        } else {
-            return CprDecoder.decodePosition(message.x(), message.y(), prevMessage.x(), prevMessage.y(), messageParity);
-        }
-    }
-
     /**
      * @param message message we want to save
      *                Adds a message to the memory buffer at the index of its parity : if the message is even, it is stored at index 0,
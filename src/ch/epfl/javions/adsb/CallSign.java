@@ -11,13 +11,79 @@ import java.util.regex.Pattern;
 public record CallSign(String string) {
     public final static int CALLSIGN_MAX_LENGTH = 8;
     static Pattern allowedStrings = Pattern.compile("[A-Z0-9 ]{0,8}");
+    // number of bits of each character of an encoded call sign, the first character being the strongest
+    static final int CHARACTER_SIZE = 6;
+    private static final int CHARACTER_MASK = (1 << CHARACTER_SIZE) - 1;
+    // character of each 6 bit code, 0 if the code is not valid
+    private static final char[] CHARACTERS = characters();
 
     /**
      * @param string call sign
-     * @throws IllegalArgumentException if the given string is not either the empty string, or a string of length 1 to 8
+     * @throws IllegalArgumentException if the string is not either the empty string, or a string of length 1 to 8
      *                                  consisting only of letters and numbers
      */
     public CallSign {
         Preconditions.checkArgument(allowedStrings.matcher(string).matches() || string.isEmpty());
     }
+
+    /**
+     * Decodes a call sign encoded like in the identification messages, the trailing spaces being removed.
+     *
+     * @param encoded 8 characters of 6 bits, the first one being the strongest
+     * @return the decoded call sign
+     * @throws IllegalArgumentException if one of the characters is not valid
+     */
+    public static CallSign of(long encoded) {
+        char[] characters = new char[CALLSIGN_MAX_LENGTH];
+        int length = 0;
+        for (int i = 0; i < CALLSIGN_MAX_LENGTH; i++) {
+            char c = CHARACTERS[code(encoded, i)];
+            Preconditions.checkArgument(c != 0);
+            characters[i] = c;
+            if (c != ' ') length = i + 1;
+        }
+        return new CallSign(new String(characters, 0, length));
+    }
+
+    /**
+     * @param encoded 8 characters of 6 bits, the first one being the strongest
+     * @return true if all the characters of the encoded call sign are valid
+     */
+    static boolean isValid(long encoded) {
+        for (int i = 0; i < CALLSIGN_MAX_LENGTH; i++) {
+            if (CHARACTERS[code(encoded, i)] == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param encoded 8 characters of 6 bits, the first one being the strongest
+     * @param index   index of a character
+     * @return code of the character of the given index
+     */
+    private static int code(long encoded, int index) {
+        return (int) (encoded >>> (CHARACTER_SIZE * (CALLSIGN_MAX_LENGTH - 1 - index))) & CHARACTER_MASK;
+    }
+
+    /**
+     * @return the character of each 6 bit code, 0 if the code is not valid
+     */
+    private static char[] characters() {
+        char[] characters = new char[1 << CHARACTER_SIZE];
+        for (int code = 0; code < characters.length; code++) {
+            characters[code] = character(code);
+        }
+        return characters;
+    }
+
+    /**
+     * @param code 6 bit code of a character
+     * @return the character, a letter, a digit or a space, or 0 if the code is not valid
+     */
+    private static char character(int code) {
+        if (1 <= code && code <= 26) return (char) ('A' + code - 1);
+        if ('0' <= code && code <= '9') return (char) code;
+        if (code == ' ') return ' ';
+        return 0;
+    }
 }
@@ -13,6 +13,8 @@ public class CprDecoder {
     final static int Z_PHI_1 = 59;
     final static double DELTA_PHI_0 = 1 / (double) Z_PHI_0;
     final static double DELTA_PHI_1 = 1 / (double) Z_PHI_1;
+    // packed position returned when the position cannot be determined, whose latitude is never valid
+    public final static long NO_POSITION = Integer.toUnsignedLong(Integer.MIN_VALUE);
 
     /**
      * Takes in 2 pairs of longitude and latitude, decodes them, and returns a GeoPos with the decoded positions
@@ -25,6 +27,23 @@ public class CprDecoder {
      * @return corresponding decoded latitude and longitude
      */
     public static GeoPos decodePosition(double x0, double y0, double x1, double y1, int mostRecent) {
+        long position = decodePositionT32(x0, y0, x1, y1, mostRecent);
+        return (position == NO_POSITION) ? null : new GeoPos(longitudeT32(position), latitudeT32(position));
+    }
+
+    /**
+     * Decodes the given pair of positions like {@link #decodePosition(double, double, double, double, int)}, without
+     * allocating anything.
+     *
+     * @param x0         normalized even longitude (divided by 2^17) in turn
+     * @param y0         normalized even latitude (divided by 2^17) in turn
+     * @param x1         normalized uneven longitude (divided by 2^17) in turn
+     * @param y1         normalized uneven latitude (divided by 2^17) in turn
+     * @param mostRecent 0 if the most recent of position of the plane is even, 1 if it is uneven
+     * @return the longitude in T32 in the 32 strong bits and the latitude in T32 in the 32 weak bits, or
+     * {@link #NO_POSITION} if the position cannot be determined
+     */
+    public static long decodePositionT32(double x0, double y0, double x1, double y1, int mostRecent) {
         Preconditions.checkArgument(mostRecent == 0 || mostRecent == 1);
 
         int zphi = (int) Math.rint(y0 * Z_PHI_1 - y1 * Z_PHI_0);
@@ -55,7 +74,7 @@ public class CprDecoder {
         int ZlambdaTest; //variable to test whether A and B yield the same Zlambda0
 
         //in case acos is given as argument a value that is not within [-1;1] then by definition Zlambda0 is equal to 1
-        if (((Double) A).isNaN()) {
+        if (Double.isNaN(A)) {
             Zlambda0 = 1;
             ZlambdaTest = 1;
         } else {
@@ -63,9 +82,9 @@ public class CprDecoder {
             ZlambdaTest = (int) Math.floor((2 * Math.PI) / B);
         }
 
-        //in this case, the aircraft has changed its latitude band and its position cannot be determined, so we return null
+        //in this case, the aircraft has changed its latitude band and its position cannot be determined
         if (Zlambda0 != ZlambdaTest) {
-            return null;
+            return NO_POSITION;
         }
         int Zlambda1 = Zlambda0 - 1;
 
@@ -92,13 +111,29 @@ public class CprDecoder {
         int GeoPosX = (int) Math.rint(Units.convert(lambda, Units.Angle.TURN, Units.Angle.T32));
         int GeoPosY = (int) Math.rint(Units.convert(phi, Units.Angle.TURN, Units.Angle.T32));
         if (!GeoPos.isValidLatitudeT32(GeoPosY)) {
-            return null;
+            return NO_POSITION;
         }
         else {
-            return new GeoPos(GeoPosX, GeoPosY);
+            return ((long) GeoPosX << Integer.SIZE) | Integer.toUnsignedLong(GeoPosY);
         }
     }
 
+    /**
+     * @param position position packed by {@link #decodePositionT32(double, double, double, double, int)}
+     * @return longitude of the position, in T32
+     */
+    public static int longitudeT32(long position) {
+        return (int) (position >> Integer.SIZE);
+    }
+
+    /**
+     * @param position position packed by {@link #decodePositionT32(double, double, double, double, int)}
+     * @return latitude of the position, in T32
+     */
+    public static int latitudeT32(long position) {
+        return (int) position;
+    }
+
     /**
      * method used to calculate the longitude whether it be even or uneven
      *
@@ -0,0 +1,87 @@
+package ch.epfl.javions.adsb;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds raw messages out of demodulated frames, optionally repairing the frames whose CRC is invalid because of one
+ * or two flipped bits. Keeps count of the repaired frames and of the dropped ones.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class CrcErrorCorrector {
+
+    /**
+     * Error correction modes, giving the maximal number of flipped bits that are repaired.
+     */
+    public enum Mode {
+        NONE(0),
+        SINGLE_BIT(1),
+        TWO_BITS(2);
+
+        private final int maxBitErrors;
+
+        Mode(int maxBitErrors) {
+            this.maxBitErrors = maxBitErrors;
+        }
+    }
+
+    private final Mode mode;
+    private final AtomicLong repairedCount;
+    private final AtomicLong droppedCount;
+
+    /**
+     * Instantiates a corrector.
+     *
+     * @param mode error correction mode
+     * @throws NullPointerException if the mode is null
+     */
+    public CrcErrorCorrector(Mode mode) {
+        this.mode = Objects.requireNonNull(mode);
+        this.repairedCount = new AtomicLong();
+        this.droppedCount = new AtomicLong();
+    }
+
+    /**
+     * Builds the raw message made of the given frame, repairing it first if its CRC is invalid and the mode allows it.
+     *
+     * @param timeStampNs time stamp of the message in nanoseconds
+     * @param bytes       14 bytes of an ADS-B frame, corrected in place when repaired
+     * @return the raw message, or null if the frame could not be repaired
+     */
+    public RawMessage of(long timeStampNs, byte[] bytes) {
+        RawMessage message = RawMessage.of(timeStampNs, bytes);
+        if (message != null) return message;
+
+        if (this.mode != Mode.NONE && RawMessage.CRC_24.correct(bytes, this.mode.maxBitErrors) > 0) {
+            // a repaired downlink format field could describe another kind of message
+            if (RawMessage.size(bytes[0]) == RawMessage.LENGTH) {
+                this.repairedCount.incrementAndGet();
+                return RawMessage.of(timeStampNs, bytes);
+            }
+        }
+        this.droppedCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * @return error correction mode
+     */
+    public Mode mode() {
+        return this.mode;
+    }
+
+    /**
+     * @return number of frames whose CRC was invalid and which have been repaired
+     */
+    public long repairedCount() {
+        return this.repairedCount.get();
+    }
+
+    /**
+     * @return number of frames whose CRC was invalid and which could not be repaired
+     */
+    public long droppedCount() {
+        return this.droppedCount.get();
+    }
+}
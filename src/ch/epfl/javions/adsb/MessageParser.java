@@ -27,7 +27,40 @@ public final class MessageParser {
             return AirborneVelocityMessage.of(rawMessage);
         } else return null;
     }
-}
-
 
+    /**
+     * Parses the given raw message into the given sink, like {@link #parse(long, long, long, MessageSink)}.
+     *
+     * @param rawMessage raw message
+     * @param sink       sink receiving the fields of the message
+     * @return true if the message was handed over to the sink
+     */
+    public static boolean parse(RawMessage rawMessage, MessageSink sink) {
+        return parse(rawMessage.timeStampNs(), rawMessage.high(), rawMessage.low(), sink);
+    }
 
+    /**
+     * Parses the raw message made of the given bytes into the given sink, handing its fields over to the callback of
+     * its kind without allocating anything. The messages handed over are the ones that {@link #parse(RawMessage)}
+     * would return, with the same fields.
+     *
+     * @param timeStampNs timestamp of the message, in nanoseconds
+     * @param high        first 8 bytes of the message, the first one being the strongest
+     * @param low         last 6 bytes of the message, in the 48 weak bits
+     * @param sink        sink receiving the fields of the message
+     * @return true if the message was handed over to the sink, false if its type code is different or if it is
+     * invalid
+     */
+    public static boolean parse(long timeStampNs, long high, long low, MessageSink sink) {
+        long payload = RawMessage.payload(high, low);
+        int icaoAddress = RawMessage.icaoAddressValue(high);
+        int typeCode = RawMessage.typeCode(payload);
+        if (1 <= typeCode && typeCode <= 4) {
+            return AircraftIdentificationMessage.parse(timeStampNs, icaoAddress, payload, sink);
+        } else if ((9 <= typeCode && typeCode <= 18) || (20 <= typeCode && typeCode <= 22)) {
+            return AirbornePositionMessage.parse(timeStampNs, icaoAddress, payload, sink);
+        } else if (typeCode == 19) {
+            return AirborneVelocityMessage.parse(timeStampNs, icaoAddress, payload, sink);
+        } else return false;
+    }
+}
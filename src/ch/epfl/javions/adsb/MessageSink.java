@@ -0,0 +1,43 @@
+package ch.epfl.javions.adsb;
+
+/**
+ * Receiver of the fields of the parsed messages, through one primitive callback per kind of message, so that a
+ * message can be parsed and handled without allocating anything, see {@link MessageParser#parse(long, long, long,
+ * MessageSink)}. The fields have the same meaning and units as the components of the corresponding messages.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public interface MessageSink {
+
+    /**
+     * Receives the fields of an identification message.
+     *
+     * @param timeStampNs timestamp of the message, in nanoseconds
+     * @param icaoAddress ICAO address of the aircraft, as a 24 bit integer
+     * @param category    category of the aircraft
+     * @param callSign    call sign of the aircraft, encoded like in the message, see {@link CallSign#of(long)}
+     */
+    void identification(long timeStampNs, int icaoAddress, int category, long callSign);
+
+    /**
+     * Receives the fields of an airborne position message.
+     *
+     * @param timeStampNs timestamp of the message, in nanoseconds
+     * @param icaoAddress ICAO address of the aircraft, as a 24 bit integer
+     * @param altitude    altitude of the aircraft, in meters
+     * @param parity      parity of the message, 0 if it is even and 1 if it is odd
+     * @param x           normalized local longitude
+     * @param y           normalized local latitude
+     */
+    void airbornePosition(long timeStampNs, int icaoAddress, double altitude, int parity, double x, double y);
+
+    /**
+     * Receives the fields of an airborne velocity message.
+     *
+     * @param timeStampNs    timestamp of the message, in nanoseconds
+     * @param icaoAddress    ICAO address of the aircraft, as a 24 bit integer
+     * @param speed          speed of the aircraft, in meters per second
+     * @param trackOrHeading track or heading of the aircraft, in radians
+     */
+    void airborneVelocity(long timeStampNs, int icaoAddress, double speed, double trackOrHeading);
+}
@@ -1,34 +1,63 @@
 package ch.epfl.javions.adsb;
 
-import ch.epfl.javions.Bits;
 import ch.epfl.javions.ByteString;
 import ch.epfl.javions.Crc24;
 import ch.epfl.javions.Preconditions;
 import ch.epfl.javions.aircraft.IcaoAddress;
 
 /**
- * @param timeStampNs time stamp of the message in nanoseconds
- * @param bytes       14 bytes that make up an ADS-B  message
+ * ADS-B message, made of its time stamp and of its 14 bytes. The bytes are packed in two longs, so that all the
+ * attributes of the message are extracted with bit arithmetic only.
+ *
  * @author Theo Le Fur (SCIPER: 363294)
  */
-public record RawMessage(long timeStampNs, ByteString bytes) {
+public final class RawMessage {
 
     // number of bytes stored in ADS-B message
     public static final int LENGTH = 14;
-    private static final Crc24 CRC_24 = new Crc24(Crc24.GENERATOR);
+    static final Crc24 CRC_24 = new Crc24(Crc24.GENERATOR);
     private final static int DF_MESSAGE_LENGTH = 17;
     private final static int DF_START = 3;
     private final static int DF_SIZE = 5;
     private final static int TYPECODE_START = 51;
     private final static int TYPECOPE_LENGTH = 5;
-    private final static int ME_ATTRIBUTE_START = 4;
-    private final static int ME_ATTRIBUTE_SIZE = 7;
-    private final static int MESSAGE_FORMAT_START = 0;
-    private final static int MESSAGE_FORMAT_SIZE = 1;
+    // number of bytes packed in the first long, the remaining ones being packed in the second
+    private final static int HIGH_BYTES = Long.BYTES;
+    private final static int LOW_BYTES = LENGTH - HIGH_BYTES;
+    private final static long LOW_BITS_MASK = (1L << (LOW_BYTES * Byte.SIZE)) - 1;
+    private final static int ICAO_ADDRESS_START = 32;
+    private final static int ICAO_ADDRESS_MASK = (1 << 24) - 1;
+    // the ME attribute is made of the 4 weak bytes of the first long and of the 3 strong bytes of the second
+    private final static int ME_LOW_START = 24;
+    private final static long ME_HIGH_MASK = (1L << 32) - 1;
 
-    public RawMessage {
+    private final long timeStampNs;
+    private final long high;
+    private final long low;
+
+    /**
+     * @param timeStampNs time stamp of the message in nanoseconds
+     * @param bytes       14 bytes that make up an ADS-B  message
+     * @throws IllegalArgumentException if the time stamp is negative or if there are not 14 bytes
+     */
+    public RawMessage(long timeStampNs, ByteString bytes) {
         Preconditions.checkArgument(timeStampNs >= 0);
         Preconditions.checkArgument(bytes.size() == LENGTH);
+        this.timeStampNs = timeStampNs;
+        this.high = bytes.bytesInRange(0, HIGH_BYTES);
+        this.low = bytes.bytesInRange(HIGH_BYTES, LENGTH);
+    }
+
+    /**
+     * @param timeStampNs time stamp of the message in nanoseconds
+     * @param high        first 8 bytes of the message
+     * @param low         last 6 bytes of the message, in the 48 weak bits
+     */
+    private RawMessage(long timeStampNs, long high, long low) {
+        Preconditions.checkArgument(timeStampNs >= 0);
+        this.timeStampNs = timeStampNs;
+        this.high = high;
+        this.low = low;
     }
 
     /**
@@ -38,7 +67,27 @@ public record RawMessage(long timeStampNs, ByteString bytes) {
      * if the bytes have a CRC24 of 0
      */
     public static RawMessage of(long timeStampsNs, byte[] bytes) {
-        return CRC_24.crc(bytes) != 0 ? null : new RawMessage(timeStampsNs, new ByteString(bytes));
+        if (bytes.length != LENGTH || CRC_24.crc(bytes) != 0) return null;
+        long high = 0;
+        long low = 0;
+        for (int i = 0; i < HIGH_BYTES; i++) {
+            high = (high << Byte.SIZE) | Byte.toUnsignedLong(bytes[i]);
+        }
+        for (int i = HIGH_BYTES; i < LENGTH; i++) {
+            low = (low << Byte.SIZE) | Byte.toUnsignedLong(bytes[i]);
+        }
+        return new RawMessage(timeStampsNs, high, low);
+    }
+
+    /**
+     * @param timeStampsNs time stamp of the message in nanoseconds
+     * @param high         first 8 bytes of the message, the first one being the strongest
+     * @param low          last 6 bytes of the message, in the 48 weak bits
+     * @return the ADS-B message with the same time stamps and bytes as the input
+     * if the bytes have a CRC24 of 0
+     */
+    public static RawMessage of(long timeStampsNs, long high, long low) {
+        return CRC_24.crc(high, low) != 0 ? null : new RawMessage(timeStampsNs, high, low & LOW_BITS_MASK);
     }
 
     /**
@@ -48,7 +97,24 @@ public record RawMessage(long timeStampNs, ByteString bytes) {
      * @return length of a message if it is of a known type, and 0 if that's not the case
      */
     public static int size(byte byte0) {
-        return Bits.extractUInt(byte0, DF_START, DF_SIZE) == (byte) DF_MESSAGE_LENGTH ? LENGTH : 0;
+        return ((byte0 & 0xFF) >>> DF_START) == DF_MESSAGE_LENGTH ? LENGTH : 0;
+    }
+
+    /**
+     * @param high first 8 bytes of a message, the first one being the strongest
+     * @param low  last 6 bytes of the message, in the 48 weak bits
+     * @return the ME attribute of the message
+     */
+    public static long payload(long high, long low) {
+        return ((high & ME_HIGH_MASK) << ME_LOW_START) | (low >>> ME_LOW_START);
+    }
+
+    /**
+     * @param high first 8 bytes of a message, the first one being the strongest
+     * @return ICAO address of the expediter of the message, as a 24 bit integer
+     */
+    public static int icaoAddressValue(long high) {
+        return (int) (high >>> ICAO_ADDRESS_START) & ICAO_ADDRESS_MASK;
     }
 
     /**
@@ -56,29 +122,79 @@ public record RawMessage(long timeStampNs, ByteString bytes) {
      * @return the ME attribute of the long
      */
     public static int typeCode(long payload) {
-        payload = Bits.extractUInt(payload, TYPECODE_START, TYPECOPE_LENGTH);
-        return (int) payload;
+        return (int) (payload >>> TYPECODE_START) & ((1 << TYPECOPE_LENGTH) - 1);
+    }
+
+    /**
+     * @return time stamp of the message in nanoseconds
+     */
+    public long timeStampNs() {
+        return timeStampNs;
+    }
+
+    /**
+     * @return 14 bytes that make up the message, unpacked in a new byte string
+     */
+    public ByteString bytes() {
+        byte[] bytes = new byte[LENGTH];
+        for (int i = 0; i < HIGH_BYTES; i++) {
+            bytes[i] = (byte) (high >>> (Byte.SIZE * (HIGH_BYTES - 1 - i)));
+        }
+        for (int i = 0; i < LOW_BYTES; i++) {
+            bytes[HIGH_BYTES + i] = (byte) (low >>> (Byte.SIZE * (LOW_BYTES - 1 - i)));
+        }
+        return new ByteString(bytes);
+    }
+
+    /**
+     * @return first 8 bytes of the message, the first one being the strongest
+     */
+    public long high() {
+        return high;
+    }
+
+    /**
+     * @return last 6 bytes of the message, in the 48 weak bits
+     */
+    public long low() {
+        return low;
+    }
+
+    /**
+     * @param timeStampNs time stamp of the copy, in nanoseconds
+     * @return message made of the same bytes as this one, received at the given time
+     * @throws IllegalArgumentException if the time stamp is negative
+     */
+    public RawMessage withTimeStampNs(long timeStampNs) {
+        return new RawMessage(timeStampNs, high, low);
     }
 
     /**
      * @return format of the message, which is the DF attribute stored in its first byte
      */
     public int downLinkFormat() {
-        return Bits.extractUInt(bytes.bytesInRange(MESSAGE_FORMAT_START, MESSAGE_FORMAT_SIZE), DF_START, DF_SIZE);
+        return (int) (high >>> (Long.SIZE - DF_SIZE));
+    }
+
+    /**
+     * @return ICAO address of the expediter of the message, as a 24 bit integer
+     */
+    public int icaoAddressValue() {
+        return icaoAddressValue(high);
     }
 
     /**
      * @return ICAO address of the expediter of the message
      */
     public IcaoAddress icaoAddress() {
-        return new IcaoAddress(bytes.toString().substring(Short.BYTES, Short.BYTES + IcaoAddress.ICAO_ADDRESS_SIZE));
+        return IcaoAddress.of(icaoAddressValue());
     }
 
     /**
      * @return returns the ME attribute of the message
      */
     public long payload() {
-        return bytes.bytesInRange(ME_ATTRIBUTE_START, ME_ATTRIBUTE_SIZE + ME_ATTRIBUTE_START);
+        return payload(high, low);
     }
 
     /**
@@ -87,4 +203,22 @@ public record RawMessage(long timeStampNs, ByteString bytes) {
     public int typeCode() {
         return typeCode(payload());
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof RawMessage that
+                && this.timeStampNs == that.timeStampNs
+                && this.high == that.high
+                && this.low == that.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Long.hashCode(timeStampNs) + Long.hashCode(high)) + Long.hashCode(low);
+    }
+
+    @Override
+    public String toString() {
+        return "RawMessage[timeStampNs=" + timeStampNs + ", bytes=" + bytes() + "]";
+    }
+}
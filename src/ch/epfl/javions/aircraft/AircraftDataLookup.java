@@ -0,0 +1,154 @@
+package ch.epfl.javions.aircraft;
+
+import ch.epfl.javions.Preconditions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service looking up the data of aircraft asynchronously, so that the reads of a slow source never block the caller.
+ * The results of the lookups are kept in a bounded cache, evicting the least recently used address first. Addresses
+ * that are unknown to the source are cached as well, while failed lookups are not, so that they are retried the next
+ * time they are requested. Concurrent lookups of the same address share a single read of the source.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class AircraftDataLookup implements AutoCloseable {
+
+    // Default number of addresses kept in the cache
+    public static final int DEFAULT_CAPACITY = 1 << 14;
+
+    private final AircraftDataSource source;
+    private final Executor executor;
+    // executor owned by the service, null if the executor was given at construction
+    private final ExecutorService ownedExecutor;
+    private final Map<IcaoAddress, CompletableFuture<AircraftData>> cache;
+    private final AtomicLong hitCount;
+    private final AtomicLong missCount;
+    private final AtomicLong failureCount;
+
+    /**
+     * Instantiates a service reading the given source on its own background thread, with a cache of default capacity.
+     *
+     * @param source source of the aircraft data
+     * @throws NullPointerException if the source is null
+     */
+    public AircraftDataLookup(AircraftDataSource source) {
+        this(source, DEFAULT_CAPACITY, null);
+    }
+
+    /**
+     * Instantiates a service reading the given source with the given executor.
+     *
+     * @param source   source of the aircraft data
+     * @param capacity maximal number of addresses kept in the cache
+     * @param executor executor running the reads of the source, or null to use a background thread of the service
+     * @throws NullPointerException     if the source is null
+     * @throws IllegalArgumentException if the capacity is not strictly positive
+     */
+    public AircraftDataLookup(AircraftDataSource source, int capacity, Executor executor) {
+        Preconditions.checkArgument(capacity > 0);
+        this.source = Objects.requireNonNull(source);
+        if (executor == null) {
+            this.ownedExecutor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "aircraft-data-lookup");
+                t.setDaemon(true);
+                return t;
+            });
+            this.executor = this.ownedExecutor;
+        } else {
+            this.ownedExecutor = null;
+            this.executor = executor;
+        }
+        // access ordered, so that the eldest entry is the least recently used one
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<IcaoAddress, CompletableFuture<AircraftData>> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.hitCount = new AtomicLong();
+        this.missCount = new AtomicLong();
+        this.failureCount = new AtomicLong();
+    }
+
+    /**
+     * Looks up the data of the aircraft with the given address. The returned future is already completed if the
+     * address is in the cache, and is otherwise completed by the executor of the service.
+     *
+     * @param address address of the aircraft
+     * @return future holding the data of the aircraft, or null if the source does not know the address. The future
+     * completes exceptionally, with an {@link UncheckedIOException} if the source could not be read.
+     */
+    public CompletableFuture<AircraftData> lookup(IcaoAddress address) {
+        CompletableFuture<AircraftData> future;
+        synchronized (this.cache) {
+            future = this.cache.get(address);
+            if (future != null) {
+                this.hitCount.incrementAndGet();
+                return future;
+            }
+            future = new CompletableFuture<>();
+            this.cache.put(address, future);
+        }
+        this.missCount.incrementAndGet();
+
+        CompletableFuture<AircraftData> result = future;
+        this.executor.execute(() -> {
+            try {
+                result.complete(this.source.get(address));
+            } catch (IOException e) {
+                this.fail(address, result, new UncheckedIOException(e));
+            } catch (RuntimeException e) {
+                this.fail(address, result, e);
+            }
+        });
+        return result;
+    }
+
+    // evicts a failed lookup, so that the address is read again the next time it is requested
+    private void fail(IcaoAddress address, CompletableFuture<AircraftData> future, RuntimeException e) {
+        this.failureCount.incrementAndGet();
+        synchronized (this.cache) {
+            this.cache.remove(address, future);
+        }
+        future.completeExceptionally(e);
+    }
+
+    /**
+     * @return number of lookups answered by the cache
+     */
+    public long hitCount() {
+        return this.hitCount.get();
+    }
+
+    /**
+     * @return number of lookups that had to read the source
+     */
+    public long missCount() {
+        return this.missCount.get();
+    }
+
+    /**
+     * @return number of reads of the source that failed
+     */
+    public long failureCount() {
+        return this.failureCount.get();
+    }
+
+    /**
+     * Stops the background thread of the service, if it owns one. Lookups that are pending may not complete.
+     */
+    @Override
+    public void close() {
+        if (this.ownedExecutor != null) this.ownedExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,18 @@
+package ch.epfl.javions.aircraft;
+
+import java.io.IOException;
+
+/**
+ * Source of the fixed data of the aircraft, looked up through their ICAO address.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public interface AircraftDataSource {
+
+    /**
+     * @param address address of the aircraft
+     * @return the data of the aircraft, or null if the source does not know the address
+     * @throws IOException if the data could not be read
+     */
+    AircraftData get(IcaoAddress address) throws IOException;
+}
@@ -10,7 +10,7 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 /**
  * @author Theo Le Fur (SCIPER: 363294)
  */
-public final class AircraftDatabase {
+public final class AircraftDatabase implements AircraftDataSource {
 
     private final String fileName;
 
@@ -30,7 +30,7 @@ public final class AircraftDatabase {
      * Searches specification of the aircraft using its id address.
      * @throws IOException if error while streaming through the file
      */
-
+    @Override
     public AircraftData get(IcaoAddress address) throws IOException {
 
         String l;
@@ -0,0 +1,97 @@
+package ch.epfl.javions.aircraft;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static ch.epfl.javions.aircraft.MappedAircraftDatabase.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Tool converting the zip archive of CSV files read by {@link AircraftDatabase} into the binary format read by
+ * {@link MappedAircraftDatabase}.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class AircraftDatabaseConverter {
+
+    /**
+     * Private constructor, no instantiation possible
+     */
+    private AircraftDatabaseConverter() {
+    }
+
+    /**
+     * Converts the archive whose name is given as first argument into the binary file given as second argument.
+     *
+     * @param args name of the zip archive and path of the binary database
+     * @throws IOException whenever the archive cannot be read or the binary database cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: AircraftDatabaseConverter <aircraft.zip> <aircraft.bin>");
+            System.exit(1);
+        }
+        convert(args[0], Path.of(args[1]));
+    }
+
+    /**
+     * Converts the given zip archive into a binary database.
+     *
+     * @param fileName name of the zip archive containing the CSV files of the database
+     * @param output   path of the binary database that is written
+     * @throws IOException whenever the archive cannot be read or the binary database cannot be written
+     */
+    public static void convert(String fileName, Path output) throws IOException {
+        write(new IndexedAircraftDatabase(fileName), output);
+    }
+
+    /**
+     * Writes the given database in the binary format.
+     *
+     * @param database database to write
+     * @param output   path of the binary database that is written
+     * @throws IOException whenever the binary database cannot be written
+     */
+    static void write(IndexedAircraftDatabase database, Path output) throws IOException {
+        StringPool pool = new StringPool();
+        try (DataOutputStream o = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(output)))) {
+            o.writeInt(MAGIC);
+            o.writeInt(VERSION);
+            o.writeInt(database.size());
+            for (int i = 0; i < database.size(); i++) {
+                AircraftData data = database.data(i);
+                o.writeInt((data.wakeTurbulenceCategory().ordinal() << ADDRESS_BITS) | database.address(i));
+                o.writeInt(pool.offset(data.registration().string()));
+                o.writeInt(pool.offset(data.typeDesignator().string()));
+                o.writeInt(pool.offset(data.model()));
+                o.writeInt(pool.offset(data.description().string()));
+            }
+            pool.bytes.writeTo(o);
+        }
+    }
+
+    /**
+     * Pool of distinct strings, each string being written once as its length followed by its UTF-8 bytes.
+     */
+    private static final class StringPool {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream output = new DataOutputStream(bytes);
+        private final Map<String, Integer> offsets = new HashMap<>();
+
+        private int offset(String s) throws IOException {
+            Integer offset = offsets.get(s);
+            if (offset == null) {
+                offset = bytes.size();
+                byte[] encoded = s.getBytes(UTF_8);
+                if (encoded.length > Character.MAX_VALUE) throw new IOException("string too long: " + s);
+                output.writeShort(encoded.length);
+                output.write(encoded);
+                offsets.put(s, offset);
+            }
+            return offset;
+        }
+    }
+}
@@ -2,20 +2,129 @@ package ch.epfl.javions.aircraft;
 
 import ch.epfl.javions.Preconditions;
 
-import java.util.regex.Pattern;
-
 /**
- * @param string decimal representation of the ICAO of the plane
+ * ICAO address of an aircraft, stored as its 24 bit value. Addresses obtained through {@link #of(int)} are
+ * canonicalized by a small set-associative cache, recently used addresses being kept in front of their set, so that
+ * the address of an aircraft in view is shared between all the messages that carry it. Only the aircraft in view at
+ * the same time compete for the entries of a set, the ones that left being evicted first. The cache is only an
+ * optimization: equality and hashing only depend on the 24 bit value.
+ *
  * @author Theo Le Fur (SCIPER: 363294)
  */
-public record IcaoAddress(String string) {
+public final class IcaoAddress {
     public final static int ICAO_ADDRESS_SIZE = 6;
-    private final static Pattern allowedStrings = Pattern.compile("[0-9A-F]{6}");
+    private final static char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    private final static int HEX_DIGIT_SIZE = 4;
+    private final static int HEX_RADIX = 16;
+
+    // cache of canonical addresses made of sets of WAYS entries, ordered from the most to the least recently used
+    private final static int WAYS = 4;
+    private final static int SET_BITS = 13;
+    private final static IcaoAddress[] CACHE = new IcaoAddress[WAYS << SET_BITS];
+
+    private final int value;
+    // hexadecimal representation, computed lazily for the addresses built from their value
+    private String string;
 
     /**
      * @param string Name of the address stored in a string
+     * @throws IllegalArgumentException if the string is not made of 6 upper case hexadecimal digits
+     */
+    public IcaoAddress(String string) {
+        Preconditions.checkArgument(string.length() == ICAO_ADDRESS_SIZE);
+        int value = 0;
+        for (int i = 0; i < ICAO_ADDRESS_SIZE; i++) {
+            char c = string.charAt(i);
+            Preconditions.checkArgument(('0' <= c && c <= '9') || ('A' <= c && c <= 'F'));
+            value = (value << HEX_DIGIT_SIZE) | Character.digit(c, HEX_RADIX);
+        }
+        this.value = value;
+        this.string = string;
+    }
+
+    private IcaoAddress(int value) {
+        this.value = value;
+    }
+
+    /**
+     * Returns the canonical address represented by the given 24 bit integer.
+     *
+     * @param address 24 bit value of the address
+     * @return the ICAO address
+     * @throws IllegalArgumentException if the value does not fit in 24 bits
+     */
+    public static IcaoAddress of(int address) {
+        Preconditions.checkArgument((address >>> (ICAO_ADDRESS_SIZE * HEX_DIGIT_SIZE)) == 0);
+        // the entries are immutable apart from their lazily computed string, so racy accesses are harmless: at worst
+        // an entry is lost and the address is built again
+        IcaoAddress[] cache = CACHE;
+        int first = mix(address) * WAYS;
+        int way = 0;
+        IcaoAddress found = null;
+        for (; way < WAYS; way++) {
+            IcaoAddress cached = cache[first + way];
+            if (cached == null) break;
+            if (cached.value == address) {
+                found = cached;
+                break;
+            }
+        }
+        if (found == null) {
+            found = new IcaoAddress(address);
+            way = Math.min(way, WAYS - 1);
+        }
+        // moves the address in front of its set, shifting the more recently used ones and evicting the last one
+        if (way > 0) {
+            System.arraycopy(cache, first, cache, first + 1, way);
+            cache[first] = found;
+        } else if (cache[first] != found) {
+            cache[first] = found;
+        }
+        return found;
+    }
+
+    /**
+     * @return 24 bit value of the address
      */
-    public IcaoAddress {
-        Preconditions.checkArgument(allowedStrings.matcher(string).matches());
+    public int value() {
+        return value;
+    }
+
+    /**
+     * @return hexadecimal representation of the address, made of 6 upper case digits
+     */
+    public String string() {
+        String s = string;
+        if (s == null) {
+            char[] digits = new char[ICAO_ADDRESS_SIZE];
+            int address = value;
+            for (int i = ICAO_ADDRESS_SIZE - 1; i >= 0; i--) {
+                digits[i] = HEX_DIGITS[address & 0xF];
+                address >>>= HEX_DIGIT_SIZE;
+            }
+            s = new String(digits);
+            string = s;
+        }
+        return s;
+    }
+
+    // spreads the allocation blocks of the addresses, which share their high bits, over all the sets of the cache
+    private static int mix(int address) {
+        return (address ^ (address >>> SET_BITS)) * 0x9E3779B1 >>> (Integer.SIZE - SET_BITS);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof IcaoAddress that && value == that.value;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+        return "IcaoAddress[string=" + string() + "]";
     }
 }
@@ -0,0 +1,181 @@
+package ch.epfl.javions.aircraft;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URLDecoder;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Aircraft database loaded once in memory. All the CSV files of the archive are parsed at construction into a
+ * columnar index: the sorted ICAO addresses, the registrations, and ordinals into dictionaries of the (highly
+ * repeated) type designators, models, descriptions and wake turbulence categories. Lookups are a binary search
+ * over the addresses and never perform any I/O.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class IndexedAircraftDatabase implements AircraftDataSource {
+
+    private static final String CSV_EXTENSION = ".csv";
+    private static final String SEPARATOR = ",";
+    private static final int ADDRESS_INDEX = 0;
+    private static final int REGISTRATION_INDEX = 1;
+    private static final int TYPE_DESIGNATOR_INDEX = 2;
+    private static final int MODEL_INDEX = 3;
+    private static final int DESCRIPTION_INDEX = 4;
+    private static final int WAKE_TURBULENCE_INDEX = 5;
+    private static final WakeTurbulenceCategory[] CATEGORIES = WakeTurbulenceCategory.values();
+
+    // 24 bit addresses, sorted in increasing order
+    private final int[] addresses;
+    private final String[] registrations;
+    // ordinals into the dictionaries below, one per address
+    private final int[] typeDesignators;
+    private final int[] models;
+    private final int[] descriptions;
+    private final byte[] categories;
+
+    private final AircraftTypeDesignator[] typeDesignatorValues;
+    private final String[] modelValues;
+    private final AircraftDescription[] descriptionValues;
+
+    /**
+     * Loads the whole database contained in the given archive.
+     *
+     * @param fileName name of the zip archive containing the CSV files of the database
+     * @throws IOException              if the archive could not be read
+     * @throws IllegalArgumentException if one of the lines of the database is invalid
+     * @throws NullPointerException     whenever fileName is null
+     */
+    public IndexedAircraftDatabase(String fileName) throws IOException {
+        Builder builder = new Builder();
+        try (ZipFile z = new ZipFile(URLDecoder.decode(Objects.requireNonNull(fileName), UTF_8))) {
+            for (ZipEntry e : Collections.list(z.entries())) {
+                if (e.isDirectory() || !e.getName().endsWith(CSV_EXTENSION)) continue;
+                try (BufferedReader b = new BufferedReader(new InputStreamReader(z.getInputStream(e), UTF_8))) {
+                    String l;
+                    while ((l = b.readLine()) != null) builder.add(l);
+                }
+            }
+        }
+
+        // sort the rows by address, the row index being kept in the low bits of each key
+        int size = builder.size;
+        long[] order = new long[size];
+        for (int i = 0; i < size; i++) order[i] = ((long) builder.addresses[i] << Integer.SIZE) | i;
+        Arrays.sort(order);
+
+        this.addresses = new int[size];
+        this.registrations = new String[size];
+        this.typeDesignators = new int[size];
+        this.models = new int[size];
+        this.descriptions = new int[size];
+        this.categories = new byte[size];
+        for (int i = 0; i < size; i++) {
+            int row = (int) order[i];
+            this.addresses[i] = builder.addresses[row];
+            this.registrations[i] = builder.registrations[row];
+            this.typeDesignators[i] = builder.typeDesignators[row];
+            this.models[i] = builder.models[row];
+            this.descriptions[i] = builder.descriptions[row];
+            this.categories[i] = builder.categories[row];
+        }
+
+        this.typeDesignatorValues = builder.typeDesignatorValues.keySet().stream()
+                .map(AircraftTypeDesignator::new)
+                .toArray(AircraftTypeDesignator[]::new);
+        this.modelValues = builder.modelValues.keySet().toArray(String[]::new);
+        this.descriptionValues = builder.descriptionValues.keySet().stream()
+                .map(AircraftDescription::new)
+                .toArray(AircraftDescription[]::new);
+    }
+
+    /**
+     * @param address address of the aircraft
+     * @return the data of the aircraft, or null if the database does not contain the address
+     */
+    @Override
+    public AircraftData get(IcaoAddress address) {
+        int i = Arrays.binarySearch(this.addresses, address.value());
+        return (i < 0) ? null : data(i);
+    }
+
+    /**
+     * @return number of aircraft in the database
+     */
+    public int size() {
+        return this.addresses.length;
+    }
+
+    /**
+     * @param i index of an aircraft, between 0 and the size of the database
+     * @return address of the i-th aircraft, the addresses being sorted in increasing order
+     */
+    int address(int i) {
+        return this.addresses[i];
+    }
+
+    /**
+     * @param i index of an aircraft, between 0 and the size of the database
+     * @return data of the i-th aircraft
+     */
+    AircraftData data(int i) {
+        return new AircraftData(
+                new AircraftRegistration(this.registrations[i]),
+                this.typeDesignatorValues[this.typeDesignators[i]],
+                this.modelValues[this.models[i]],
+                this.descriptionValues[this.descriptions[i]],
+                CATEGORIES[this.categories[i]]);
+    }
+
+    /**
+     * Growable columns filled while the archive is parsed. The dictionaries are insertion ordered so that the
+     * ordinal of a value is its position in the iteration order of the map.
+     */
+    private static final class Builder {
+        private static final int INITIAL_CAPACITY = 1 << 16;
+
+        private int size;
+        private int[] addresses = new int[INITIAL_CAPACITY];
+        private String[] registrations = new String[INITIAL_CAPACITY];
+        private int[] typeDesignators = new int[INITIAL_CAPACITY];
+        private int[] models = new int[INITIAL_CAPACITY];
+        private int[] descriptions = new int[INITIAL_CAPACITY];
+        private byte[] categories = new byte[INITIAL_CAPACITY];
+
+        private final Map<String, Integer> typeDesignatorValues = new LinkedHashMap<>();
+        private final Map<String, Integer> modelValues = new LinkedHashMap<>();
+        private final Map<String, Integer> descriptionValues = new LinkedHashMap<>();
+
+        private void add(String line) {
+            if (line.isEmpty()) return;
+            String[] columns = line.split(SEPARATOR, -1);
+            if (size == addresses.length) grow();
+            addresses[size] = new IcaoAddress(columns[ADDRESS_INDEX]).value();
+            registrations[size] = columns[REGISTRATION_INDEX];
+            typeDesignators[size] = ordinal(typeDesignatorValues, columns[TYPE_DESIGNATOR_INDEX]);
+            models[size] = ordinal(modelValues, columns[MODEL_INDEX]);
+            descriptions[size] = ordinal(descriptionValues, columns[DESCRIPTION_INDEX]);
+            categories[size] = (byte) WakeTurbulenceCategory.of(columns[WAKE_TURBULENCE_INDEX]).ordinal();
+            size += 1;
+        }
+
+        private void grow() {
+            int capacity = addresses.length * 2;
+            addresses = Arrays.copyOf(addresses, capacity);
+            registrations = Arrays.copyOf(registrations, capacity);
+            typeDesignators = Arrays.copyOf(typeDesignators, capacity);
+            models = Arrays.copyOf(models, capacity);
+            descriptions = Arrays.copyOf(descriptions, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+        }
+
+        private static int ordinal(Map<String, Integer> dictionary, String value) {
+            return dictionary.computeIfAbsent(value, v -> dictionary.size());
+        }
+    }
+}
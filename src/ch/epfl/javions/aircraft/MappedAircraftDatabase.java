@@ -0,0 +1,112 @@
+package ch.epfl.javions.aircraft;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Aircraft database reading a prebuilt binary file, produced by {@link AircraftDatabaseConverter}, through a memory
+ * mapping. Opening the database only maps the file, and lookups are a binary search over the mapped records, so the
+ * database costs almost no heap and its pages are only loaded when they are accessed.
+ * <p>
+ * The file starts with a header (magic number, version, number of records), followed by the fixed size records
+ * sorted by address, and then by the pool of the strings referenced by the records. Each record is made of the
+ * address, whose top byte holds the ordinal of the wake turbulence category, and of the offsets in the pool of the
+ * registration, type designator, model and description. Each string of the pool is stored as its length, on an
+ * unsigned short, followed by its UTF-8 bytes.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class MappedAircraftDatabase implements AircraftDataSource {
+
+    static final int MAGIC = 0x4A415644;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 3 * Integer.BYTES;
+    static final int RECORD_SIZE = 5 * Integer.BYTES;
+    static final int ADDRESS_BITS = 24;
+    static final int ADDRESS_MASK = (1 << ADDRESS_BITS) - 1;
+
+    // offsets of the fields of a record
+    private static final int REGISTRATION_OFFSET = Integer.BYTES;
+    private static final int TYPE_DESIGNATOR_OFFSET = 2 * Integer.BYTES;
+    private static final int MODEL_OFFSET = 3 * Integer.BYTES;
+    private static final int DESCRIPTION_OFFSET = 4 * Integer.BYTES;
+    private static final WakeTurbulenceCategory[] CATEGORIES = WakeTurbulenceCategory.values();
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int poolStart;
+
+    /**
+     * Maps the given binary database.
+     *
+     * @param file path of the binary database
+     * @throws IOException whenever the file cannot be mapped or is not a binary aircraft database
+     */
+    public MappedAircraftDatabase(Path file) throws IOException {
+        try (FileChannel c = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = c.size();
+            if (fileSize < HEADER_SIZE || fileSize > Integer.MAX_VALUE)
+                throw new IOException("invalid aircraft database size: " + fileSize);
+            // the mapping stays valid once the channel is closed
+            this.buffer = c.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+        }
+        if (this.buffer.getInt(0) != MAGIC || this.buffer.getInt(Integer.BYTES) != VERSION)
+            throw new IOException("not a binary aircraft database: " + file);
+        this.size = this.buffer.getInt(2 * Integer.BYTES);
+        // computed on a long, as a corrupted size could make it overflow an int
+        long poolStart = HEADER_SIZE + (long) this.size * RECORD_SIZE;
+        if (this.size < 0 || poolStart > this.buffer.capacity())
+            throw new IOException("truncated aircraft database: " + file);
+        this.poolStart = (int) poolStart;
+    }
+
+    /**
+     * @param address address of the aircraft
+     * @return the data of the aircraft, or null if the database does not contain the address
+     */
+    @Override
+    public AircraftData get(IcaoAddress address) {
+        int key = address.value();
+        int low = 0;
+        int high = this.size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int record = HEADER_SIZE + middle * RECORD_SIZE;
+            int recordKey = this.buffer.getInt(record) & ADDRESS_MASK;
+            if (recordKey < key) low = middle + 1;
+            else if (recordKey > key) high = middle - 1;
+            else return data(record);
+        }
+        return null;
+    }
+
+    /**
+     * @return number of aircraft in the database
+     */
+    public int size() {
+        return this.size;
+    }
+
+    private AircraftData data(int record) {
+        return new AircraftData(
+                new AircraftRegistration(string(record + REGISTRATION_OFFSET)),
+                new AircraftTypeDesignator(string(record + TYPE_DESIGNATOR_OFFSET)),
+                string(record + MODEL_OFFSET),
+                new AircraftDescription(string(record + DESCRIPTION_OFFSET)),
+                CATEGORIES[this.buffer.getInt(record) >>> ADDRESS_BITS]);
+    }
+
+    // decodes the string of the pool referenced at the given position of a record
+    private String string(int field) {
+        int start = this.poolStart + this.buffer.getInt(field);
+        int length = Short.toUnsignedInt(this.buffer.getShort(start));
+        byte[] bytes = new byte[length];
+        this.buffer.get(start + Short.BYTES, bytes);
+        return new String(bytes, UTF_8);
+    }
+}
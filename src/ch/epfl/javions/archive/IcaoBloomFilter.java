@@ -0,0 +1,125 @@
+package ch.epfl.javions.archive;
+
+import ch.epfl.javions.Preconditions;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Bloom filter of ICAO addresses, telling whether a part of a message log may hold messages of a given aircraft. An
+ * address sets {@link #HASH_COUNT} bits of the filter, derived from a single multiplicative hash of the address by
+ * double hashing, so that a filter never misses an address it was given, but may claim to hold one it was not given.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+final class IcaoBloomFilter {
+
+    // Number of bits set by an address
+    static final int HASH_COUNT = 3;
+
+    private final long[] words;
+    private final int mask;
+
+    /**
+     * Instantiates an empty filter.
+     *
+     * @param bitCount number of bits of the filter, a power of two of at least 64
+     * @throws IllegalArgumentException if the number of bits is not a power of two of at least 64
+     */
+    IcaoBloomFilter(int bitCount) {
+        Preconditions.checkArgument(bitCount >= Long.SIZE && Integer.bitCount(bitCount) == 1);
+        this.words = new long[bitCount / Long.SIZE];
+        this.mask = bitCount - 1;
+    }
+
+    /**
+     * Instantiates a filter holding every address, standing for a part of a log whose addresses are unknown.
+     *
+     * @param bitCount number of bits of the filter, a power of two of at least 64
+     * @return filter claiming to hold every address
+     */
+    static IcaoBloomFilter full(int bitCount) {
+        IcaoBloomFilter f = new IcaoBloomFilter(bitCount);
+        Arrays.fill(f.words, -1L);
+        return f;
+    }
+
+    /**
+     * Reads a filter written by {@link #write(ByteBuffer)} from the given buffer.
+     *
+     * @param b        buffer positioned at the start of the filter, whose position is advanced past it
+     * @param bitCount number of bits of the filter
+     * @return the filter
+     */
+    static IcaoBloomFilter read(ByteBuffer b, int bitCount) {
+        IcaoBloomFilter f = new IcaoBloomFilter(bitCount);
+        for (int i = 0; i < f.words.length; i += 1) f.words[i] = b.getLong();
+        return f;
+    }
+
+    /**
+     * Writes the filter to the given buffer.
+     *
+     * @param b buffer whose position is advanced past the filter
+     */
+    void write(ByteBuffer b) {
+        for (long w : this.words) b.putLong(w);
+    }
+
+    /**
+     * Adds the given address to the filter.
+     *
+     * @param address 24 bit ICAO address
+     */
+    void add(int address) {
+        long h = hash(address);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> Integer.SIZE) | 1;
+        for (int i = 0; i < HASH_COUNT; i += 1) {
+            int bit = (h1 + i * h2) & this.mask;
+            this.words[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Checks whether the given address may have been added to the filter.
+     *
+     * @param address 24 bit ICAO address
+     * @return false if the address was certainly not added, true otherwise
+     */
+    boolean mightContain(int address) {
+        long h = hash(address);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> Integer.SIZE) | 1;
+        for (int i = 0; i < HASH_COUNT; i += 1) {
+            int bit = (h1 + i * h2) & this.mask;
+            if ((this.words[bit >>> 6] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Removes all the addresses of the filter.
+     */
+    void clear() {
+        Arrays.fill(this.words, 0);
+    }
+
+    /**
+     * @return number of bytes of the filter once written
+     */
+    int byteCount() {
+        return this.words.length * Long.BYTES;
+    }
+
+    /**
+     * Scrambles the given address, whose bits are poorly distributed since addresses are allocated by blocks.
+     *
+     * @param address 24 bit ICAO address
+     * @return 64 bit hash of the address
+     */
+    private static long hash(int address) {
+        long h = (address ^ 0x5BD1E995L) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+}
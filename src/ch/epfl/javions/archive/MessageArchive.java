@@ -0,0 +1,200 @@
+package ch.epfl.javions.archive;
+
+import ch.epfl.javions.Preconditions;
+import ch.epfl.javions.adsb.Message;
+import ch.epfl.javions.adsb.MessageParser;
+import ch.epfl.javions.adsb.RawMessage;
+import ch.epfl.javions.aircraft.IcaoAddress;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Archive made of the message logs of a directory, each of them being a segment of the archive, for example the
+ * recording of a day. The timestamps of the messages given by the archive are absolute, in nanoseconds since the
+ * epoch, the origin of its segment being added to the timestamp of every message.
+ * <p>
+ * A query only reads the segments whose time range overlaps the requested one and whose filter may hold the requested
+ * aircraft, and, in those segments, the blocks of the time range whose filter may hold the aircraft. Segments
+ * overlapping in time, for example recorded by different receivers, are merged so that the messages are given in the
+ * order of their timestamps. Instances are not thread safe.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class MessageArchive implements Closeable {
+
+    private final List<MessageLogReader> segments;
+
+    /**
+     * Opens all the message logs of the given directory, the other files being ignored.
+     *
+     * @param directory directory of the archive
+     * @throws IOException whenever the directory or one of its logs cannot be read
+     */
+    public MessageArchive(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> s = Files.list(directory)) {
+            files = s.filter(Files::isRegularFile).sorted().toList();
+        }
+        this.segments = new ArrayList<>();
+        try {
+            for (Path f : files) {
+                if (MessageLogReader.isLog(f)) this.segments.add(new MessageLogReader(f));
+            }
+        } catch (IOException | RuntimeException e) {
+            this.close();
+            throw e;
+        }
+        this.segments.sort(Comparator.comparingLong(MessageArchive::start));
+    }
+
+    /**
+     * @return number of segments of the archive
+     */
+    public int segmentCount() {
+        return this.segments.size();
+    }
+
+    /**
+     * @return number of messages of the archive
+     */
+    public long messageCount() {
+        long count = 0;
+        for (MessageLogReader s : this.segments) count += s.messageCount();
+        return count;
+    }
+
+    /**
+     * Gives the messages of the given aircraft received during the given time range.
+     *
+     * @param fromNs  start of the range, in nanoseconds since the epoch (included)
+     * @param toNs    end of the range, in nanoseconds since the epoch (excluded)
+     * @param address address of the aircraft, or null for the messages of all the aircraft
+     * @return source of the messages, in the order of their timestamps
+     * @throws IllegalArgumentException if the end of the range is smaller than its start
+     */
+    public RawMessageSource query(long fromNs, long toNs, IcaoAddress address) {
+        Preconditions.checkArgument(fromNs <= toNs);
+        List<RawMessageSource> sources = new ArrayList<>();
+        for (MessageLogReader s : this.segments) {
+            if (s.blockCount() == 0 || start(s) >= toNs || end(s) < fromNs) continue;
+            if (address != null && !s.mightContain(address)) continue;
+            long origin = s.originNs();
+            RawMessageSource range = s.range(relative(fromNs, origin), relative(toNs, origin), address);
+            sources.add((origin == 0) ? range : () -> {
+                RawMessage m = range.next();
+                return (m == null) ? null : m.withTimeStampNs(m.timeStampNs() + origin);
+            });
+        }
+        return switch (sources.size()) {
+            case 0 -> () -> null;
+            case 1 -> sources.get(0);
+            default -> merge(sources);
+        };
+    }
+
+    /**
+     * Gives the raw messages of the given aircraft received during the given time range, as a stream.
+     *
+     * @param fromNs  start of the range, in nanoseconds since the epoch (included)
+     * @param toNs    end of the range, in nanoseconds since the epoch (excluded)
+     * @param address address of the aircraft, or null for the messages of all the aircraft
+     * @return stream of the raw messages, in the order of their timestamps
+     * @throws IllegalArgumentException if the end of the range is smaller than its start
+     */
+    public Stream<RawMessage> rawMessages(long fromNs, long toNs, IcaoAddress address) {
+        return this.query(fromNs, toNs, address).stream();
+    }
+
+    /**
+     * Gives the messages of the given aircraft received during the given time range that could be parsed, as a
+     * stream.
+     *
+     * @param fromNs  start of the range, in nanoseconds since the epoch (included)
+     * @param toNs    end of the range, in nanoseconds since the epoch (excluded)
+     * @param address address of the aircraft, or null for the messages of all the aircraft
+     * @return stream of the messages, in the order of their timestamps
+     * @throws IllegalArgumentException if the end of the range is smaller than its start
+     */
+    public Stream<Message> messages(long fromNs, long toNs, IcaoAddress address) {
+        return this.rawMessages(fromNs, toNs, address).map(MessageParser::parse).filter(Objects::nonNull);
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (MessageLogReader s : this.segments) {
+            try {
+                s.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * Merges the given sources into a single one giving their messages in the order of their timestamps, the
+     * messages of equal timestamps being taken from the sources in the given order.
+     *
+     * @param sources sources whose messages are in the order of their timestamps
+     * @return merged source
+     */
+    private static RawMessageSource merge(List<RawMessageSource> sources) {
+        // the heads of the sources, ordered by timestamp, then by index of their source
+        PriorityQueue<Map.Entry<RawMessage, Integer>> heads = new PriorityQueue<>(
+                Comparator.<Map.Entry<RawMessage, Integer>>comparingLong(e -> e.getKey().timeStampNs())
+                        .thenComparingInt(Map.Entry::getValue));
+        return new RawMessageSource() {
+            private boolean started;
+
+            @Override
+            public RawMessage next() throws IOException {
+                if (!this.started) {
+                    for (int i = 0; i < sources.size(); i += 1) this.advance(i);
+                    this.started = true;
+                }
+                Map.Entry<RawMessage, Integer> head = heads.poll();
+                if (head == null) return null;
+                this.advance(head.getValue());
+                return head.getKey();
+            }
+
+            private void advance(int source) throws IOException {
+                RawMessage m = sources.get(source).next();
+                if (m != null) heads.add(Map.entry(m, source));
+            }
+        };
+    }
+
+    /**
+     * @param segment segment of the archive
+     * @return absolute timestamp of the first message of the segment
+     */
+    private static long start(MessageLogReader segment) {
+        return (segment.blockCount() == 0) ? Long.MAX_VALUE : segment.originNs() + segment.firstTimeStampNs();
+    }
+
+    /**
+     * @param segment segment of the archive, which is not empty
+     * @return absolute timestamp of the last message of the segment
+     */
+    private static long end(MessageLogReader segment) {
+        return segment.originNs() + segment.lastTimeStampNs();
+    }
+
+    /**
+     * Converts the given absolute timestamp into a timestamp of a segment, saturating instead of overflowing.
+     *
+     * @param timeStampNs absolute timestamp, in nanoseconds since the epoch
+     * @param originNs    origin of the segment, which is not negative
+     * @return timestamp relative to the origin
+     */
+    private static long relative(long timeStampNs, long originNs) {
+        return (timeStampNs < Long.MIN_VALUE + originNs) ? Long.MIN_VALUE : timeStampNs - originNs;
+    }
+}
@@ -0,0 +1,374 @@
+package ch.epfl.javions.archive;
+
+import ch.epfl.javions.Preconditions;
+import ch.epfl.javions.adsb.RawMessage;
+import ch.epfl.javions.aircraft.IcaoAddress;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reader of a message log written by a {@link MessageLogWriter}. The log starts with a header made of a magic number,
+ * a version and the origin of its timestamps, followed by the blocks of messages, and ends with the index of the
+ * blocks, the filter of the addresses of the whole log and a trailer giving the position of the index. Each block
+ * starts with a header giving its compressed and uncompressed lengths, its number of messages and the timestamps of
+ * its first and last messages, followed by its deflated payload. The payload holds the differences between the
+ * timestamps of consecutive messages as variable length integers, followed by the 14 bytes of the frames transposed
+ * column by column, so that the bytes that vary little from a message to another, like the format or the address, end
+ * up next to each other. An entry of the index gives the position, the number of messages and the time range of a
+ * block, along with a Bloom filter of the addresses of its messages.
+ * <p>
+ * Since the timestamps of a log never decrease, the blocks overlapping a time range are found by a binary search on
+ * the index, without reading the blocks before them, and the blocks that cannot hold messages of a given aircraft are
+ * skipped without being read. A log whose writer was not closed, and which has no index, is read by walking through
+ * the headers of its complete blocks instead, all its blocks being then considered to hold every aircraft. Logs of
+ * the first version, which have neither origin nor filters, can still be read. Instances are not thread safe.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class MessageLogReader implements Closeable {
+
+    static final int MAGIC = 0x4A41564C;
+    static final int VERSION = 2;
+    static final int V1_HEADER_SIZE = 2 * Integer.BYTES;
+    static final int HEADER_SIZE = V1_HEADER_SIZE + Long.BYTES;
+    static final int BLOCK_HEADER_SIZE = 3 * Integer.BYTES + 2 * Long.BYTES;
+    static final int BLOCK_FILTER_BITS = 1 << 11;
+    static final int SEGMENT_FILTER_BITS = 1 << 16;
+    static final int SEGMENT_FILTER_SIZE = SEGMENT_FILTER_BITS / Byte.SIZE;
+    static final int V1_INDEX_ENTRY_SIZE = Long.BYTES + Integer.BYTES + 2 * Long.BYTES;
+    static final int INDEX_ENTRY_SIZE = V1_INDEX_ENTRY_SIZE + BLOCK_FILTER_BITS / Byte.SIZE;
+    static final int TRAILER_SIZE = Long.BYTES + 2 * Integer.BYTES;
+    // Maximal number of bytes of the variable length encoding of a difference between two timestamps
+    static final int MAX_VARINT_BYTES = 10;
+    // Filter of the parts of a log whose addresses are unknown
+    private static final IcaoBloomFilter ANY_ADDRESS = IcaoBloomFilter.full(Long.SIZE);
+
+    private final FileChannel channel;
+    private final Inflater inflater;
+    private final long originNs;
+    // offset, number of messages, timestamps of the first and last messages and filter of the blocks, by index
+    private final long[] offsets;
+    private final int[] counts;
+    private final long[] firstTimeStamps;
+    private final long[] lastTimeStamps;
+    private final IcaoBloomFilter[] blockFilters;
+    private final IcaoBloomFilter segmentFilter;
+
+    /**
+     * Opens the given message log and reads its index.
+     *
+     * @param file path of the message log
+     * @throws IOException whenever the file cannot be read or is not a message log of a known version
+     */
+    public MessageLogReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.inflater = new Inflater();
+        try {
+            ByteBuffer header = this.read(0, V1_HEADER_SIZE);
+            if (header.getInt() != MAGIC) throw new IOException("not a message log: " + file);
+            int version = header.getInt();
+            if (version != 1 && version != VERSION)
+                throw new IOException("unsupported message log version: " + version);
+            boolean v1 = version == 1;
+            this.originNs = v1 ? 0 : this.read(V1_HEADER_SIZE, Long.BYTES).getLong();
+
+            ByteBuffer index = this.readIndex(v1);
+            boolean filtered = !v1 && index != null;
+            if (index == null) index = this.recoverIndex(v1 ? V1_HEADER_SIZE : HEADER_SIZE);
+            int blockCount = filtered
+                    ? (index.remaining() - SEGMENT_FILTER_SIZE) / INDEX_ENTRY_SIZE
+                    : index.remaining() / V1_INDEX_ENTRY_SIZE;
+            this.offsets = new long[blockCount];
+            this.counts = new int[blockCount];
+            this.firstTimeStamps = new long[blockCount];
+            this.lastTimeStamps = new long[blockCount];
+            this.blockFilters = new IcaoBloomFilter[blockCount];
+            for (int i = 0; i < blockCount; i += 1) {
+                this.offsets[i] = index.getLong();
+                this.counts[i] = index.getInt();
+                this.firstTimeStamps[i] = index.getLong();
+                this.lastTimeStamps[i] = index.getLong();
+                this.blockFilters[i] = filtered ? IcaoBloomFilter.read(index, BLOCK_FILTER_BITS) : ANY_ADDRESS;
+            }
+            this.segmentFilter = filtered ? IcaoBloomFilter.read(index, SEGMENT_FILTER_BITS) : ANY_ADDRESS;
+        } catch (IOException | RuntimeException e) {
+            this.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks whether the given file starts like a message log.
+     *
+     * @param file path of a file
+     * @return true if the file starts with the magic number of the message logs
+     * @throws IOException whenever the file cannot be read
+     */
+    public static boolean isLog(Path file) throws IOException {
+        try (FileChannel c = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer b = ByteBuffer.allocate(Integer.BYTES);
+            while (b.hasRemaining() && c.read(b) >= 0) ;
+            return !b.hasRemaining() && b.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * @return time corresponding to the timestamp 0 of the messages, in nanoseconds since the epoch, or 0 if the
+     * timestamps are not related to the epoch
+     */
+    public long originNs() {
+        return this.originNs;
+    }
+
+    /**
+     * @return number of blocks of the log
+     */
+    public int blockCount() {
+        return this.offsets.length;
+    }
+
+    /**
+     * @return number of messages of the log
+     */
+    public long messageCount() {
+        long count = 0;
+        for (int c : this.counts) count += c;
+        return count;
+    }
+
+    /**
+     * @return timestamp of the first message of the log, or Long.MAX_VALUE if the log is empty
+     */
+    public long firstTimeStampNs() {
+        return (this.offsets.length == 0) ? Long.MAX_VALUE : this.firstTimeStamps[0];
+    }
+
+    /**
+     * @return timestamp of the last message of the log, or Long.MIN_VALUE if the log is empty
+     */
+    public long lastTimeStampNs() {
+        return (this.offsets.length == 0) ? Long.MIN_VALUE : this.lastTimeStamps[this.offsets.length - 1];
+    }
+
+    /**
+     * Checks whether the log may hold messages of the given aircraft.
+     *
+     * @param address address of an aircraft
+     * @return false if the log certainly holds no message of the aircraft, true otherwise
+     */
+    public boolean mightContain(IcaoAddress address) {
+        return this.segmentFilter.mightContain(address.value());
+    }
+
+    /**
+     * @return source of all the messages of the log
+     */
+    public RawMessageSource all() {
+        return this.range(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Gives the messages of the log whose timestamp lies in the given range, starting the reading at the first block
+     * overlapping it.
+     *
+     * @param fromNs start of the range, in nanoseconds (included)
+     * @param toNs   end of the range, in nanoseconds (excluded)
+     * @return source of the messages of the range
+     * @throws IllegalArgumentException if the end of the range is smaller than its start
+     */
+    public RawMessageSource range(long fromNs, long toNs) {
+        return this.range(fromNs, toNs, null);
+    }
+
+    /**
+     * Gives the messages of the given aircraft whose timestamp lies in the given range, starting the reading at the
+     * first block overlapping it, and only reading the blocks whose filter may hold the aircraft.
+     *
+     * @param fromNs  start of the range, in nanoseconds (included)
+     * @param toNs    end of the range, in nanoseconds (excluded)
+     * @param address address of the aircraft, or null for the messages of all the aircraft
+     * @return source of the messages of the range
+     * @throws IllegalArgumentException if the end of the range is smaller than its start
+     */
+    public RawMessageSource range(long fromNs, long toNs, IcaoAddress address) {
+        Preconditions.checkArgument(fromNs <= toNs);
+        int addressValue = (address == null) ? -1 : address.value();
+        return new RawMessageSource() {
+            private int block = firstBlockEndingAtOrAfter(fromNs);
+            private RawMessage[] messages = new RawMessage[0];
+            private int next;
+
+            @Override
+            public RawMessage next() throws IOException {
+                while (true) {
+                    while (this.next < this.messages.length) {
+                        RawMessage m = this.messages[this.next++];
+                        if (m.timeStampNs() >= toNs) return null;
+                        if (m.timeStampNs() >= fromNs && (addressValue < 0 || m.icaoAddressValue() == addressValue))
+                            return m;
+                    }
+                    if (this.block == blockCount() || firstTimeStamps[this.block] >= toNs) return null;
+                    int b = this.block++;
+                    if (addressValue >= 0 && !blockFilters[b].mightContain(addressValue)) continue;
+                    this.messages = readBlock(b);
+                    this.next = 0;
+                }
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.inflater.end();
+        this.channel.close();
+    }
+
+    /**
+     * Finds the first block whose last message is not older than the given timestamp.
+     *
+     * @param timeStampNs timestamp in nanoseconds
+     * @return index of the block, or the number of blocks if there is none
+     */
+    int firstBlockEndingAtOrAfter(long timeStampNs) {
+        int low = 0;
+        int high = this.lastTimeStamps.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.lastTimeStamps[middle] < timeStampNs) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Reads and decodes all the messages of the given block.
+     *
+     * @param block index of the block
+     * @return messages of the block, in order
+     * @throws IOException whenever the block cannot be read or is corrupted
+     */
+    RawMessage[] readBlock(int block) throws IOException {
+        ByteBuffer header = this.read(this.offsets[block], BLOCK_HEADER_SIZE);
+        int compressedLength = header.getInt();
+        int rawLength = header.getInt();
+        int count = header.getInt();
+        long timeStampNs = header.getLong();
+        ByteBuffer compressed = this.read(this.offsets[block] + BLOCK_HEADER_SIZE, compressedLength);
+
+        byte[] raw = new byte[rawLength];
+        this.inflater.reset();
+        this.inflater.setInput(compressed.array(), 0, compressedLength);
+        try {
+            int inflated = 0;
+            while (inflated < rawLength && !this.inflater.finished()) {
+                int n = this.inflater.inflate(raw, inflated, rawLength - inflated);
+                if (n == 0 && (this.inflater.needsInput() || this.inflater.needsDictionary())) break;
+                inflated += n;
+            }
+            if (inflated != rawLength) throw new IOException("corrupted block " + block);
+        } catch (DataFormatException e) {
+            throw new IOException("corrupted block " + block, e);
+        }
+
+        // the columns of the frames follow the differences between the timestamps
+        int columnsOffset = rawLength - count * RawMessage.LENGTH;
+        RawMessage[] messages = new RawMessage[count];
+        int p = 0;
+        for (int i = 0; i < count; i += 1) {
+            long delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (p == columnsOffset) throw new IOException("corrupted block " + block);
+                b = raw[p++];
+                delta |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            timeStampNs += delta;
+
+            long high = 0;
+            for (int c = 0; c < Long.BYTES; c += 1)
+                high = (high << Byte.SIZE) | Byte.toUnsignedLong(raw[columnsOffset + c * count + i]);
+            long low = 0;
+            for (int c = Long.BYTES; c < RawMessage.LENGTH; c += 1)
+                low = (low << Byte.SIZE) | Byte.toUnsignedLong(raw[columnsOffset + c * count + i]);
+            RawMessage m = (timeStampNs < 0) ? null : RawMessage.of(timeStampNs, high, low);
+            if (m == null) throw new IOException("corrupted block " + block);
+            messages[i] = m;
+        }
+        return messages;
+    }
+
+    /**
+     * Reads the index written at the end of the log, followed by the filter of the log if it has one.
+     *
+     * @param v1 true if the log is of the first version, which has no filters
+     * @return the index and the filter of the log, or null if the log has no valid trailer
+     * @throws IOException whenever the file cannot be read
+     */
+    private ByteBuffer readIndex(boolean v1) throws IOException {
+        long size = this.channel.size();
+        int headerSize = v1 ? V1_HEADER_SIZE : HEADER_SIZE;
+        int entrySize = v1 ? V1_INDEX_ENTRY_SIZE : INDEX_ENTRY_SIZE;
+        int filterSize = v1 ? 0 : SEGMENT_FILTER_SIZE;
+        if (size < headerSize + filterSize + TRAILER_SIZE) return null;
+        ByteBuffer trailer = this.read(size - TRAILER_SIZE, TRAILER_SIZE);
+        long indexOffset = trailer.getLong();
+        int blockCount = trailer.getInt();
+        if (trailer.getInt() != MAGIC || blockCount < 0 || indexOffset < headerSize
+                || indexOffset != size - TRAILER_SIZE - filterSize - (long) blockCount * entrySize)
+            return null;
+        return this.read(indexOffset, (int) (size - TRAILER_SIZE - indexOffset));
+    }
+
+    /**
+     * Rebuilds the index of a log having no trailer by walking through the headers of its complete blocks. The
+     * entries of the rebuilt index have no filter.
+     *
+     * @param headerSize size of the header of the log
+     * @return the index of the complete blocks of the log
+     * @throws IOException whenever the file cannot be read
+     */
+    private ByteBuffer recoverIndex(int headerSize) throws IOException {
+        long size = this.channel.size();
+        ByteBuffer index = ByteBuffer.allocate(V1_INDEX_ENTRY_SIZE * 16);
+        long offset = headerSize;
+        while (offset + BLOCK_HEADER_SIZE <= size) {
+            ByteBuffer header = this.read(offset, BLOCK_HEADER_SIZE);
+            int compressedLength = header.getInt();
+            int rawLength = header.getInt();
+            int count = header.getInt();
+            if (compressedLength <= 0 || count <= 0 || rawLength < count * (RawMessage.LENGTH + 1)
+                    || offset + BLOCK_HEADER_SIZE + compressedLength > size)
+                break;
+            if (!index.hasRemaining()) index = ByteBuffer.allocate(index.capacity() * 2).put(index.flip());
+            index.putLong(offset).putInt(count).putLong(header.getLong()).putLong(header.getLong());
+            offset += BLOCK_HEADER_SIZE + compressedLength;
+        }
+        return index.flip();
+    }
+
+    /**
+     * Reads the given number of bytes of the file at the given offset.
+     *
+     * @param offset position of the first byte
+     * @param length number of bytes
+     * @return heap buffer holding the bytes, ready to be read
+     * @throws IOException whenever the bytes cannot be read
+     */
+    private ByteBuffer read(long offset, int length) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(length);
+        while (b.hasRemaining()) {
+            if (this.channel.read(b, offset + b.position()) < 0) throw new EOFException();
+        }
+        return b.flip();
+    }
+}
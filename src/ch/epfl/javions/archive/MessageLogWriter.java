@@ -0,0 +1,366 @@
+package ch.epfl.javions.archive;
+
+import ch.epfl.javions.Preconditions;
+import ch.epfl.javions.adsb.RawMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+import static ch.epfl.javions.archive.MessageLogReader.*;
+
+/**
+ * Writer of a message log, in the format described by {@link MessageLogReader}. The messages are only copied into the
+ * current block by the thread writing them, so that recording never slows a demodulator down: full blocks are handed
+ * over through a bounded queue to a thread of the writer, which encodes, compresses and writes them to the file, and
+ * the writing thread only waits when this thread is late by a whole queue of blocks. The index of the blocks, along
+ * with the filters of the addresses of the blocks and of the whole log, is written once the writer is closed.
+ * <p>
+ * A writer must only be used by a single thread, and the timestamps of the messages must never decrease.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class MessageLogWriter implements Closeable {
+
+    // Default number of messages of a block
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+    // Default number of full blocks waiting to be written
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+    // Marker put in the queue once the writer is closed
+    private static final Block END = new Block(0);
+
+    private final FileChannel channel;
+    private final int blockSize;
+    private final BlockingQueue<Block> fullBlocks;
+    private final BlockingQueue<Block> freeBlocks;
+    // maximal number of blocks, one being filled, one being written, and the ones of the queue
+    private final int maxBlockCount;
+    private final Thread compressor;
+    private final ByteArrayOutputStream index;
+    private Block current;
+    private int allocatedBlockCount;
+    private int blockCount;
+    private long lastTimeStampNs;
+    private boolean closed;
+    private volatile IOException failure;
+
+    // state of the compressor thread
+    private final Deflater deflater;
+    private final IcaoBloomFilter blockFilter;
+    private final IcaoBloomFilter segmentFilter;
+    private byte[] raw;
+    private byte[] compressed;
+    private long position;
+    private int writtenBlockCount;
+
+    /**
+     * Creates the given message log, replacing the existing file if any, with the default block size and queue
+     * capacity, and an origin of 0.
+     *
+     * @param file path of the message log
+     * @throws IOException whenever the file cannot be created
+     */
+    public MessageLogWriter(Path file) throws IOException {
+        this(file, 0, DEFAULT_BLOCK_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Creates the given message log, replacing the existing file if any, with the default block size and queue
+     * capacity.
+     *
+     * @param file     path of the message log
+     * @param originNs time corresponding to the timestamp 0 of the messages, in nanoseconds since the epoch
+     * @throws IOException              whenever the file cannot be created
+     * @throws IllegalArgumentException if the origin is negative
+     */
+    public MessageLogWriter(Path file, long originNs) throws IOException {
+        this(file, originNs, DEFAULT_BLOCK_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Creates the given message log, replacing the existing file if any, with an origin of 0.
+     *
+     * @param file          path of the message log
+     * @param blockSize     number of messages of a block
+     * @param queueCapacity number of full blocks that may wait to be written before the writing thread waits
+     * @throws IOException              whenever the file cannot be created
+     * @throws IllegalArgumentException if the block size or the queue capacity is not strictly positive
+     */
+    public MessageLogWriter(Path file, int blockSize, int queueCapacity) throws IOException {
+        this(file, 0, blockSize, queueCapacity);
+    }
+
+    /**
+     * Creates the given message log, replacing the existing file if any.
+     *
+     * @param file          path of the message log
+     * @param originNs      time corresponding to the timestamp 0 of the messages, in nanoseconds since the epoch
+     * @param blockSize     number of messages of a block
+     * @param queueCapacity number of full blocks that may wait to be written before the writing thread waits
+     * @throws IOException              whenever the file cannot be created
+     * @throws IllegalArgumentException if the origin is negative, or if the block size or the queue capacity is not
+     *                                  strictly positive
+     */
+    public MessageLogWriter(Path file, long originNs, int blockSize, int queueCapacity) throws IOException {
+        Preconditions.checkArgument(originNs >= 0 && blockSize > 0 && queueCapacity > 0);
+        this.blockSize = blockSize;
+        this.fullBlocks = new ArrayBlockingQueue<>(queueCapacity + 1);
+        this.freeBlocks = new ArrayBlockingQueue<>(queueCapacity + 2);
+        this.maxBlockCount = queueCapacity + 2;
+        this.index = new ByteArrayOutputStream();
+        this.deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        this.blockFilter = new IcaoBloomFilter(BLOCK_FILTER_BITS);
+        this.segmentFilter = new IcaoBloomFilter(SEGMENT_FILTER_BITS);
+        this.raw = new byte[0];
+        this.compressed = new byte[0];
+        this.lastTimeStampNs = Long.MIN_VALUE;
+
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.writeFully(ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putLong(originNs).flip());
+        this.position = HEADER_SIZE;
+
+        this.compressor = new Thread(this::compress);
+        this.compressor.setDaemon(true);
+        this.compressor.start();
+    }
+
+    /**
+     * Appends the given message to the log.
+     *
+     * @param message message to append
+     * @throws IOException              if an earlier block could not be written, or if the writer is closed
+     * @throws InterruptedException     if the thread is interrupted while waiting for a free block
+     * @throws IllegalArgumentException if the timestamp of the message is smaller than the one of the previous message
+     */
+    public void write(RawMessage message) throws IOException, InterruptedException {
+        this.checkOpen();
+        Preconditions.checkArgument(message.timeStampNs() >= this.lastTimeStampNs);
+        if (this.current == null) this.current = this.freeBlock();
+        this.current.add(message);
+        this.lastTimeStampNs = message.timeStampNs();
+        if (this.current.count == this.blockSize) this.handOver();
+    }
+
+    /**
+     * Hands the current block over to be written even though it is not full, so that the messages written so far
+     * reach the file soon, for example before a pause in the recording.
+     *
+     * @throws IOException          if an earlier block could not be written, or if the writer is closed
+     * @throws InterruptedException if the thread is interrupted while waiting for room in the queue
+     */
+    public void flush() throws IOException, InterruptedException {
+        this.checkOpen();
+        if (this.current != null) this.handOver();
+    }
+
+    /**
+     * @return number of blocks handed over to be written so far
+     */
+    public int blockCount() {
+        return this.blockCount;
+    }
+
+    /**
+     * Writes the last block and the index of the log, and closes its file.
+     *
+     * @throws IOException whenever a block or the index could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.closed) return;
+        this.closed = true;
+        try {
+            if (this.current != null) this.handOver();
+            this.fullBlocks.put(END);
+            this.compressor.join();
+        } catch (InterruptedException e) {
+            this.compressor.interrupt();
+            Thread.currentThread().interrupt();
+            this.channel.close();
+            throw new InterruptedIOException("interrupted while closing the message log");
+        }
+
+        try {
+            if (this.failure == null) {
+                ByteBuffer trailer = ByteBuffer.allocate(this.segmentFilter.byteCount() + TRAILER_SIZE);
+                this.segmentFilter.write(trailer);
+                trailer.putLong(this.position).putInt(this.writtenBlockCount).putInt(MAGIC).flip();
+                this.writeFully(ByteBuffer.wrap(this.index.toByteArray()));
+                this.writeFully(trailer);
+            }
+        } finally {
+            this.deflater.end();
+            this.channel.close();
+        }
+        if (this.failure != null) throw this.failure;
+    }
+
+    /**
+     * Throws the failure of the compressor thread if any, or an exception if the writer is closed.
+     *
+     * @throws IOException if an earlier block could not be written, or if the writer is closed
+     */
+    private void checkOpen() throws IOException {
+        if (this.failure != null) throw this.failure;
+        if (this.closed) throw new IOException("message log closed");
+    }
+
+    /**
+     * Gives an empty block, allocating it as long as there are fewer blocks than the queue can keep busy.
+     *
+     * @return an empty block
+     * @throws InterruptedException if the thread is interrupted while waiting for a block to be written
+     */
+    private Block freeBlock() throws InterruptedException {
+        Block b = this.freeBlocks.poll();
+        if (b != null) return b;
+        if (this.allocatedBlockCount < this.maxBlockCount) {
+            this.allocatedBlockCount += 1;
+            return new Block(this.blockSize);
+        }
+        return this.freeBlocks.take();
+    }
+
+    /**
+     * Hands the current block over to the compressor thread.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting for room in the queue
+     */
+    private void handOver() throws InterruptedException {
+        this.fullBlocks.put(this.current);
+        this.current = null;
+        this.blockCount += 1;
+    }
+
+    /**
+     * Loop run by the compressor thread, writing the blocks until the writer is closed. Once a block could not be
+     * written, the following ones are dropped, the failure being reported to the writing thread.
+     */
+    private void compress() {
+        try {
+            Block b;
+            while ((b = this.fullBlocks.take()) != END) {
+                if (this.failure == null) {
+                    try {
+                        this.writeBlock(b);
+                    } catch (IOException e) {
+                        this.failure = e;
+                    }
+                }
+                b.count = 0;
+                this.freeBlocks.offer(b);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Encodes, compresses and writes the given block, and adds it to the index. Called by the compressor thread.
+     *
+     * @param b block to write
+     * @throws IOException whenever the block cannot be written
+     */
+    private void writeBlock(Block b) throws IOException {
+        int count = b.count;
+        int maxRawLength = count * (MAX_VARINT_BYTES + RawMessage.LENGTH);
+        if (this.raw.length < maxRawLength) this.raw = new byte[maxRawLength];
+
+        this.blockFilter.clear();
+        for (int i = 0; i < count; i += 1) {
+            this.blockFilter.add(b.addresses[i]);
+            this.segmentFilter.add(b.addresses[i]);
+        }
+
+        int p = 0;
+        long previous = b.timeStamps[0];
+        for (int i = 0; i < count; i += 1) {
+            long delta = b.timeStamps[i] - previous;
+            previous = b.timeStamps[i];
+            while ((delta & ~0x7FL) != 0) {
+                this.raw[p++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            this.raw[p++] = (byte) delta;
+        }
+        // the frames are transposed, byte i of every frame being stored in column i
+        for (int c = 0; c < Long.BYTES; c += 1) {
+            int shift = Long.SIZE - Byte.SIZE * (c + 1);
+            for (int i = 0; i < count; i += 1) this.raw[p++] = (byte) (b.highs[i] >>> shift);
+        }
+        for (int c = Long.BYTES; c < RawMessage.LENGTH; c += 1) {
+            int shift = Byte.SIZE * (RawMessage.LENGTH - c - 1);
+            for (int i = 0; i < count; i += 1) this.raw[p++] = (byte) (b.lows[i] >>> shift);
+        }
+
+        this.deflater.reset();
+        this.deflater.setInput(this.raw, 0, p);
+        this.deflater.finish();
+        int compressedLength = 0;
+        while (!this.deflater.finished()) {
+            if (compressedLength == this.compressed.length)
+                this.compressed = Arrays.copyOf(this.compressed, Math.max(1 << 12, 2 * compressedLength));
+            compressedLength += this.deflater.deflate(
+                    this.compressed, compressedLength, this.compressed.length - compressedLength);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_SIZE)
+                .putInt(compressedLength).putInt(p).putInt(count)
+                .putLong(b.timeStamps[0]).putLong(b.timeStamps[count - 1]).flip();
+        this.writeFully(header);
+        this.writeFully(ByteBuffer.wrap(this.compressed, 0, compressedLength));
+
+        ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_SIZE)
+                .putLong(this.position).putInt(count).putLong(b.timeStamps[0]).putLong(b.timeStamps[count - 1]);
+        this.blockFilter.write(entry);
+        this.index.write(entry.array(), 0, INDEX_ENTRY_SIZE);
+        this.position += BLOCK_HEADER_SIZE + compressedLength;
+        this.writtenBlockCount += 1;
+    }
+
+    /**
+     * Writes all the remaining bytes of the given buffer at the end of the file.
+     *
+     * @param b buffer to write
+     * @throws IOException whenever the bytes cannot be written
+     */
+    private void writeFully(ByteBuffer b) throws IOException {
+        while (b.hasRemaining()) this.channel.write(b);
+    }
+
+    /**
+     * Messages of a block, stored in the primitive fields of the raw messages, along with their addresses.
+     */
+    private static final class Block {
+        private final long[] timeStamps;
+        private final long[] highs;
+        private final long[] lows;
+        private final int[] addresses;
+        private int count;
+
+        private Block(int size) {
+            this.timeStamps = new long[size];
+            this.highs = new long[size];
+            this.lows = new long[size];
+            this.addresses = new int[size];
+        }
+
+        private void add(RawMessage m) {
+            this.timeStamps[this.count] = m.timeStampNs();
+            this.highs[this.count] = m.high();
+            this.lows[this.count] = m.low();
+            this.addresses[this.count] = m.icaoAddressValue();
+            this.count += 1;
+        }
+    }
+}
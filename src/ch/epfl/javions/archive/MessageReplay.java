@@ -0,0 +1,152 @@
+package ch.epfl.javions.archive;
+
+import ch.epfl.javions.Preconditions;
+import ch.epfl.javions.adsb.Message;
+import ch.epfl.javions.adsb.MessageParser;
+import ch.epfl.javions.adsb.RawMessage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replay of a recording at a selectable speed. The speed is the ratio between the time elapsed in the recording and
+ * the time taken to replay it: {@link #REAL_TIME} reproduces the original timing, a speed of N replays the recording N
+ * times faster, and {@link #AS_FAST_AS_POSSIBLE} never waits. The time of the recording is measured from the timestamp
+ * of its first message. A recording is a file of raw records, read by a {@link RawMessageFileReader}, a message log,
+ * read by a {@link MessageLogReader}, or any other source of raw messages.
+ * <p>
+ * Like a demodulator, the replay hands over its messages one at a time, waiting until the time of the next message
+ * has come whenever it is ahead of the recording.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class MessageReplay implements Closeable {
+
+    // Speed reproducing the original timing of the recording
+    public static final double REAL_TIME = 1;
+    // Speed at which the messages are handed over without any wait
+    public static final double AS_FAST_AS_POSSIBLE = Double.POSITIVE_INFINITY;
+    // Smallest delay worth waiting for, shorter delays being caught up with the next messages
+    private static final long MIN_WAIT_NS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final RawMessageSource source;
+    // file read by the source, closed with the replay, or null if the source was given
+    private final Closeable file;
+    private final double speed;
+    private final AtomicLong rawMessageCount;
+    private final AtomicLong messageCount;
+    private long firstTimeStampNs;
+    private long startNanoTime;
+    private boolean started;
+
+    /**
+     * Instantiates a replay of the given file at the given speed, the file being either a message log or a file of
+     * raw records.
+     *
+     * @param file  path of the message file
+     * @param speed speed of the replay, as a multiple of the original timing
+     * @throws IOException              whenever the file cannot be opened
+     * @throws IllegalArgumentException if the speed is not strictly positive
+     */
+    public MessageReplay(Path file, double speed) throws IOException {
+        Preconditions.checkArgument(speed > 0);
+        if (MessageLogReader.isLog(file)) {
+            MessageLogReader log = new MessageLogReader(file);
+            this.source = log.all();
+            this.file = log;
+        } else {
+            RawMessageFileReader records = new RawMessageFileReader(file);
+            this.source = records;
+            this.file = records;
+        }
+        this.speed = speed;
+        this.rawMessageCount = new AtomicLong();
+        this.messageCount = new AtomicLong();
+    }
+
+    /**
+     * Instantiates a replay of the given source at the given speed, for example of a time range of a message log.
+     *
+     * @param source source of the raw messages, in the order of their timestamps
+     * @param speed  speed of the replay, as a multiple of the original timing
+     * @throws IllegalArgumentException if the speed is not strictly positive
+     * @throws NullPointerException     if the source is null
+     */
+    public MessageReplay(RawMessageSource source, double speed) {
+        Preconditions.checkArgument(speed > 0);
+        this.source = Objects.requireNonNull(source);
+        this.file = null;
+        this.speed = speed;
+        this.rawMessageCount = new AtomicLong();
+        this.messageCount = new AtomicLong();
+    }
+
+    /**
+     * Gives the next message of the recording that could be parsed, once its time has come.
+     *
+     * @return the next message, or null if the end of the recording has been reached
+     * @throws IOException          whenever the file cannot be read
+     * @throws InterruptedException if the thread is interrupted while waiting for the time of the message
+     */
+    public Message next() throws IOException, InterruptedException {
+        RawMessage r;
+        while ((r = this.source.next()) != null) {
+            this.rawMessageCount.lazySet(this.rawMessageCount.get() + 1);
+            Message m = MessageParser.parse(r);
+            if (m != null) {
+                this.await(m.timeStampNs());
+                this.messageCount.lazySet(this.messageCount.get() + 1);
+                return m;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Waits until the time of the recording corresponding to the given timestamp has come.
+     *
+     * @param timeStampNs timestamp of a message, in nanoseconds
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    private void await(long timeStampNs) throws InterruptedException {
+        if (this.speed == AS_FAST_AS_POSSIBLE) return;
+        if (!this.started) {
+            this.firstTimeStampNs = timeStampNs;
+            this.startNanoTime = System.nanoTime();
+            this.started = true;
+        }
+        long dueNanoTime = this.startNanoTime + (long) ((timeStampNs - this.firstTimeStampNs) / this.speed);
+        long delay = dueNanoTime - System.nanoTime();
+        if (delay >= MIN_WAIT_NS) TimeUnit.NANOSECONDS.sleep(delay);
+    }
+
+    /**
+     * @return speed of the replay
+     */
+    public double speed() {
+        return this.speed;
+    }
+
+    /**
+     * @return number of messages handed over so far. May be called from any thread.
+     */
+    public long messageCount() {
+        return this.messageCount.get();
+    }
+
+    /**
+     * @return number of valid raw messages read so far. May be called from any thread.
+     */
+    public long rawMessageCount() {
+        return this.rawMessageCount.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.file != null) this.file.close();
+    }
+}
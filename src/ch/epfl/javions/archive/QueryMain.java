@@ -0,0 +1,68 @@
+package ch.epfl.javions.archive;
+
+import ch.epfl.javions.adsb.RawMessage;
+import ch.epfl.javions.aircraft.IcaoAddress;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * Entry point printing the messages of an archive received during a time range, optionally restricted to a single
+ * aircraft. The arguments are the directory of the archive, the start and the end of the range as ISO-8601 instants,
+ * like 2023-03-18T14:02:00Z, and the optional ICAO address of the aircraft. Every message is printed on its own line,
+ * with its instant and its bytes, while the number of messages and the duration of the query are printed on the
+ * standard error.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class QueryMain {
+
+    // conversion factor from s to ns
+    private static final long SECONDS_TO_NS = 1_000_000_000L;
+    // conversion factor from ns to ms
+    private static final double NS_TO_MILLIS = 1e6;
+
+    /**
+     * Private constructor, no instantiation possible
+     */
+    private QueryMain() {
+    }
+
+    /**
+     * Prints the messages of the given archive, time range and aircraft.
+     *
+     * @param args directory of the archive, start and end of the range, and optional address of the aircraft
+     * @throws IOException whenever the archive cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        long from = epochNs(Instant.parse(args[1]));
+        long to = epochNs(Instant.parse(args[2]));
+        IcaoAddress address = (args.length < 4) ? null : new IcaoAddress(args[3]);
+
+        long start = System.nanoTime();
+        long count = 0;
+        PrintStream out = new PrintStream(new BufferedOutputStream(System.out), false);
+        try (MessageArchive archive = new MessageArchive(Path.of(args[0]))) {
+            RawMessageSource messages = archive.query(from, to, address);
+            RawMessage m;
+            while ((m = messages.next()) != null) {
+                long t = m.timeStampNs();
+                out.println(Instant.ofEpochSecond(t / SECONDS_TO_NS, t % SECONDS_TO_NS) + " " + m.bytes());
+                count += 1;
+            }
+        }
+        out.flush();
+        System.err.printf("%d messages in %.1f ms%n", count, (System.nanoTime() - start) / NS_TO_MILLIS);
+    }
+
+    /**
+     * @param instant instant
+     * @return nanoseconds elapsed between the epoch and the given instant
+     */
+    private static long epochNs(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), SECONDS_TO_NS), instant.getNano());
+    }
+}
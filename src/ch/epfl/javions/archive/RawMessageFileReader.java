@@ -0,0 +1,103 @@
+package ch.epfl.javions.archive;
+
+import ch.epfl.javions.adsb.RawMessage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reader of a recorded message file, made of records of a timestamp in nanoseconds followed by the 14 bytes of a
+ * message, both big endian, as written by a {@link java.io.DataOutputStream}. The file is read through memory
+ * mappings, region by region, so that the records are decoded straight from the page cache without any copy. The
+ * records whose CRC is not zero or whose timestamp is negative are skipped, as well as a truncated record at the end
+ * of the file, as left by a recording that was interrupted.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class RawMessageFileReader implements RawMessageSource, Closeable {
+
+    // Number of bytes of a record
+    public static final int RECORD_BYTES = Long.BYTES + RawMessage.LENGTH;
+    // Number of records mapped at once
+    private static final long RECORDS_PER_MAPPING = 1 << 23;
+
+    private final FileChannel channel;
+    private final long endByte;
+    private long nextByte;
+    private MappedByteBuffer records;
+    private final AtomicLong rawMessageCount;
+    private final AtomicLong invalidCount;
+
+    /**
+     * Instantiates a reader of all the records of the given file.
+     *
+     * @param file path of the message file
+     * @throws IOException whenever the file cannot be opened
+     */
+    public RawMessageFileReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.endByte = this.channel.size() / RECORD_BYTES * RECORD_BYTES;
+        this.rawMessageCount = new AtomicLong();
+        this.invalidCount = new AtomicLong();
+    }
+
+    /**
+     * Reads the next record of the file whose CRC is zero.
+     *
+     * @return the next raw message, or null if the end of the file has been reached
+     * @throws IOException whenever a region of the file cannot be mapped
+     */
+    @Override
+    public RawMessage next() throws IOException {
+        while (true) {
+            if (this.records == null || !this.records.hasRemaining()) {
+                if (this.nextByte == this.endByte) return null;
+                long size = Math.min(this.endByte - this.nextByte, RECORDS_PER_MAPPING * RECORD_BYTES);
+                this.records = this.channel.map(FileChannel.MapMode.READ_ONLY, this.nextByte, size);
+                this.nextByte += size;
+            }
+            long timeStampNs = this.records.getLong();
+            long high = this.records.getLong();
+            long low = (Integer.toUnsignedLong(this.records.getInt()) << Short.SIZE)
+                    | Short.toUnsignedLong(this.records.getShort());
+            RawMessage m = (timeStampNs < 0) ? null : RawMessage.of(timeStampNs, high, low);
+            if (m != null) {
+                this.rawMessageCount.lazySet(this.rawMessageCount.get() + 1);
+                return m;
+            }
+            this.invalidCount.lazySet(this.invalidCount.get() + 1);
+        }
+    }
+
+    /**
+     * @return number of valid raw messages read so far. May be called from any thread.
+     */
+    public long rawMessageCount() {
+        return this.rawMessageCount.get();
+    }
+
+    /**
+     * @return number of records skipped so far because of their CRC. May be called from any thread.
+     */
+    public long invalidCount() {
+        return this.invalidCount.get();
+    }
+
+    /**
+     * @return number of records of the file
+     */
+    public long recordCount() {
+        return this.endByte / RECORD_BYTES;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.records = null;
+        this.channel.close();
+    }
+}
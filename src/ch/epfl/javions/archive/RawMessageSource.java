@@ -0,0 +1,52 @@
+package ch.epfl.javions.archive;
+
+import ch.epfl.javions.adsb.RawMessage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Source of raw messages read from a recording, one at a time, in the order of their timestamps.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+@FunctionalInterface
+public interface RawMessageSource {
+
+    /**
+     * Reads the next raw message of the source.
+     *
+     * @return the next raw message, or null if the end of the source has been reached
+     * @throws IOException whenever the recording cannot be read
+     */
+    RawMessage next() throws IOException;
+
+    /**
+     * Gives the remaining messages of the source as a sequential stream, which reads them as they are consumed.
+     *
+     * @return stream of the remaining messages of the source
+     * @throws UncheckedIOException while the stream is consumed, whenever the recording cannot be read
+     */
+    default Stream<RawMessage> stream() {
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super RawMessage> action) {
+                RawMessage m;
+                try {
+                    m = next();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (m == null) return false;
+                action.accept(m);
+                return true;
+            }
+        }, false);
+    }
+}
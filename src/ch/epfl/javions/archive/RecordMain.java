@@ -0,0 +1,74 @@
+package ch.epfl.javions.archive;
+
+import ch.epfl.javions.adsb.RawMessage;
+import ch.epfl.javions.demodulation.AdsbDemodulator;
+import ch.epfl.javions.demodulation.MappedSampleSource;
+import ch.epfl.javions.demodulation.SampleSource;
+import ch.epfl.javions.demodulation.SamplesDecoder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Entry point recording the messages demodulated from the samples of the standard input, or of the capture file
+ * given as second argument, into the message log given as first argument. The log is closed, and its index written,
+ * once the samples end or the recording is stopped. The origin of a live recording is the instant it starts, so that
+ * its log can be a segment of a {@link MessageArchive}, while the timestamps of a capture stay relative to its start.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class RecordMain {
+
+    // conversion factor from s to ns
+    private static final long SECONDS_TO_NS = 1_000_000_000L;
+    // time given to the recording loop to close the log once the recording is stopped, in milliseconds
+    private static final long STOP_TIMEOUT_MS = 5_000;
+
+    /**
+     * Private constructor, no instantiation possible
+     */
+    private RecordMain() {
+    }
+
+    /**
+     * Records the messages of the standard input, or of the given capture file, into the given message log.
+     *
+     * @param args path of the message log, and optional path of the capture file
+     * @throws IOException          whenever the samples cannot be read or the log cannot be written
+     * @throws InterruptedException if the main thread is interrupted while waiting for the log
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        SampleSource source = (args.length < 2)
+                ? new SamplesDecoder(System.in, AdsbDemodulator.SAMPLES_BATCH_SIZE)
+                : new MappedSampleSource(Path.of(args[1]));
+        Instant now = Instant.now();
+        long originNs = (args.length < 2) ? now.getEpochSecond() * SECONDS_TO_NS + now.getNano() : 0;
+
+        // a live recording is usually stopped by a signal, after which the recording loop is given some time to close
+        // the log, so that it is not left without its index
+        AtomicBoolean stopped = new AtomicBoolean();
+        Thread recorder = Thread.currentThread();
+        Thread stopper = new Thread(() -> {
+            stopped.set(true);
+            try {
+                recorder.join(STOP_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Runtime.getRuntime().addShutdownHook(stopper);
+
+        AdsbDemodulator demodulator = new AdsbDemodulator(source);
+        long count = 0;
+        try (MessageLogWriter log = new MessageLogWriter(Path.of(args[0]), originNs)) {
+            RawMessage m;
+            while (!stopped.get() && (m = demodulator.nextMessage()) != null) {
+                log.write(m);
+                count += 1;
+            }
+        }
+        System.err.printf("%d messages recorded%n", count);
+    }
+}
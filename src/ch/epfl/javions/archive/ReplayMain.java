@@ -0,0 +1,87 @@
+package ch.epfl.javions.archive;
+
+import ch.epfl.javions.adsb.Message;
+import ch.epfl.javions.pipeline.AircraftStateStore;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry point replaying a recorded message file or message log without any display, for regression tests and
+ * backfills. The messages are applied to the states of their aircraft, the aircraft that stopped sending messages
+ * being purged once per second of message time, and the throughput of the replay is reported every second on the
+ * standard error. The first argument is the path of the file, and the optional second one the speed of the replay,
+ * either a multiple of the original timing or "max" to replay it as fast as possible, the default.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class ReplayMain {
+
+    // conversion factor from ns to s
+    private static final double NS_TO_SECONDS = 1e9;
+    // argument selecting the replay as fast as possible
+    private static final String MAX_SPEED = "max";
+    // time between two purges of the store, in the time base of the timestamps of the messages
+    private static final long PURGE_INTERVAL_NS = 1_000_000_000L;
+
+    /**
+     * Private constructor, no instantiation possible
+     */
+    private ReplayMain() {
+    }
+
+    /**
+     * Replays the given message file at the given speed.
+     *
+     * @param args path of the message file, and optional speed of the replay
+     * @throws IOException          whenever the file cannot be read
+     * @throws InterruptedException if the main thread is interrupted while waiting for the time of a message
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        double speed = (args.length < 2 || args[1].equals(MAX_SPEED))
+                ? MessageReplay.AS_FAST_AS_POSSIBLE
+                : Double.parseDouble(args[1]);
+
+        AircraftStateStore store = new AircraftStateStore();
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r);
+            t.setDaemon(true);
+            return t;
+        });
+        try (MessageReplay replay = new MessageReplay(Path.of(args[0]), speed)) {
+            long start = System.nanoTime();
+            reporter.scheduleAtFixedRate(() -> report(replay, start), 1, 1, TimeUnit.SECONDS);
+            try {
+                long prevPurgeTimeStampNs = 0;
+                Message m;
+                while ((m = replay.next()) != null) {
+                    store.update(m);
+                    if (store.lastTimeStampNs() - prevPurgeTimeStampNs >= PURGE_INTERVAL_NS) {
+                        store.purge();
+                        prevPurgeTimeStampNs = store.lastTimeStampNs();
+                    }
+                }
+            } finally {
+                reporter.shutdownNow();
+            }
+            report(replay, start);
+            System.err.printf("%d aircraft%n", store.states().size());
+        }
+    }
+
+    /**
+     * Prints the counts of the replay and its average throughput since the given instant.
+     *
+     * @param replay replay whose counts are printed
+     * @param start  instant at which the replay was started, in nanoseconds
+     */
+    private static void report(MessageReplay replay, long start) {
+        double seconds = (System.nanoTime() - start) / NS_TO_SECONDS;
+        long messages = replay.messageCount();
+        System.err.printf("%d raw messages, %d messages, %.0f messages/s%n",
+                replay.rawMessageCount(), messages, messages / seconds);
+    }
+}
@@ -1,11 +1,17 @@
 package ch.epfl.javions.demodulation;
 
+import ch.epfl.javions.adsb.CrcErrorCorrector;
 import ch.epfl.javions.adsb.RawMessage;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Objects;
 
 /**
+ * Demodulator looking for ADS-B messages in the powers of the signal. The powers are scanned directly in a contiguous
+ * buffer: each batch computed by the power computer is appended right after the end of the previous one, only the
+ * last, incomplete, window being copied back to the beginning of the buffer.
+ *
  * @author Theo Le Fur (SCIPER: 363294)
  */
 public final class AdsbDemodulator {
@@ -13,12 +19,26 @@ public final class AdsbDemodulator {
     // Number of bits in message
     private static final int MESSAGE_LENGTH = 112;
     private static final int RAW_MESSAGE_LENGTH = MESSAGE_LENGTH / 8;
-    private static final int TIME_STAMP_FACTOR = 100;
-    // Byte buffer where the demodulated message will be stored.
-    private static final byte[] demodulatedMessage = new byte[RAW_MESSAGE_LENGTH];
+    static final int TIME_STAMP_FACTOR = 100;
     // Size of power window
-    private final int WINDOW_SIZE = 1200;
-    private final PowerWindow powerWindow;
+    static final int WINDOW_SIZE = 1200;
+    // Number of powers computed at once
+    static final int BATCH_SIZE = 1 << 16;
+    // Number of samples read at once from a source, the length of the batches given to SampleSource.readBatch
+    public static final int SAMPLES_BATCH_SIZE = Short.BYTES * BATCH_SIZE;
+    // Byte buffer where the demodulated message will be stored, owned by each demodulator so that several of them can
+    // run concurrently.
+    private final byte[] demodulatedMessage = new byte[RAW_MESSAGE_LENGTH];
+    private final PowerComputer powerComputer;
+    private final CrcErrorCorrector corrector;
+    // Powers of the signal, the ones between start (included) and end (excluded) are still to be scanned, the one
+    // before start being kept, except at the beginning of the signal, to compute the previous peak sum of start
+    private final int[] powers;
+    private int start;
+    private int end;
+    // Position in the signal of the first power of the buffer
+    private long bufferPosition;
+    private boolean exhausted;
 
     /**
      * Instantiates a demodulator object.
@@ -27,7 +47,32 @@ public final class AdsbDemodulator {
      * @throws IOException when exception is thrown while reading the input stream.
      */
     public AdsbDemodulator(InputStream samplesStream) throws IOException {
-        this.powerWindow = new PowerWindow(samplesStream, WINDOW_SIZE);
+        this(new SamplesDecoder(samplesStream, SAMPLES_BATCH_SIZE));
+    }
+
+    /**
+     * Instantiates a demodulator object reading its samples from the given source, for example a memory-mapped capture.
+     *
+     * @param samplesSource source of the samples passed into the power window
+     * @throws IOException when exception is thrown while reading the source.
+     */
+    public AdsbDemodulator(SampleSource samplesSource) throws IOException {
+        this(samplesSource, new CrcErrorCorrector(CrcErrorCorrector.Mode.NONE));
+    }
+
+    /**
+     * Instantiates a demodulator object building its messages with the given corrector, which may repair the frames
+     * whose CRC is invalid.
+     *
+     * @param samplesSource source of the samples passed into the power window
+     * @param corrector     corrector building the messages out of the demodulated frames
+     * @throws IOException when exception is thrown while reading the source.
+     */
+    public AdsbDemodulator(SampleSource samplesSource, CrcErrorCorrector corrector) throws IOException {
+        this.corrector = Objects.requireNonNull(corrector);
+        this.powerComputer = new PowerComputer(samplesSource, BATCH_SIZE);
+        this.powers = new int[WINDOW_SIZE + BATCH_SIZE];
+        this.fillWindow();
     }
 
     /**
@@ -37,79 +82,122 @@ public final class AdsbDemodulator {
      */
 
     public RawMessage nextMessage() throws IOException {
-
-        int pSum;
-        int vSum;
-        int pSumPrevious = 0;
-        int pSumPosterior = this.PosteriorPSum();
-
-        while (this.powerWindow.isFull()) {
-            pSum = pSumPosterior;
-            vSum = this.vSum();
-            pSumPosterior = this.PosteriorPSum();
-            if (pSumPrevious < pSum && pSumPosterior < pSum && pSum >= 2 * vSum) {
-                for (int i = 0; i < demodulatedMessage.length; i++) {
-                    demodulatedMessage[i] = this.bytes(Byte.SIZE * i);
-                }
-                long timeStampsNs = TIME_STAMP_FACTOR * this.powerWindow.position();
-                if (RawMessage.size(demodulatedMessage[0]) == RAW_MESSAGE_LENGTH) {
-                    RawMessage message = RawMessage.of(timeStampsNs, demodulatedMessage);
+        if (!this.fillWindow()) return null;
+
+        int[] p = this.powers;
+        int pSumPrevious = (this.start > 0) ? pSum(p, this.start - 1) : 0;
+
+        while (this.fillWindow()) {
+            int i = this.start;
+            int last = this.end - WINDOW_SIZE;
+            int pSum = pSum(p, i);
+            for (; i <= last; i++) {
+                int pSumPosterior = pSum(p, i + 1);
+                // the peak test rejects almost all positions with two comparisons, the valleys are only summed
+                // around local maxima
+                if (pSumPrevious < pSum && pSumPosterior < pSum && pSum >= 2 * vSum(p, i)) {
+                    RawMessage message = this.message(p, i);
                     if (message != null) {
-                        this.powerWindow.advanceBy(WINDOW_SIZE);
+                        this.start = i + WINDOW_SIZE;
                         return message;
                     }
                 }
+                pSumPrevious = pSum;
+                pSum = pSumPosterior;
             }
-            pSumPrevious = pSum;
-            this.powerWindow.advance();
+            this.start = i;
         }
         return null;
     }
 
+    /**
+     * Makes sure the window starting at the current position is full, copying the incomplete window to the beginning
+     * of the buffer and appending the next batch of powers to it if necessary.
+     *
+     * @return true if the window is full, false if the end of the signal has been reached
+     * @throws IOException if input/output error is encountered
+     */
+    private boolean fillWindow() throws IOException {
+        if (this.start + WINDOW_SIZE <= this.end) return true;
+        if (this.exhausted) return false;
+
+        // the incomplete window is at most one power shorter than a window, so that it fits with the power before it
+        int kept = Math.min(this.start, 1);
+        int from = this.start - kept;
+        int remaining = this.end - from;
+        System.arraycopy(this.powers, from, this.powers, 0, remaining);
+        this.bufferPosition += from;
+        this.start = kept;
+        int count = this.powerComputer.readBatch(this.powers, remaining);
+        this.end = remaining + count;
+        this.exhausted = count < BATCH_SIZE;
+        return WINDOW_SIZE <= this.end;
+    }
+
+    /**
+     * Demodulates the message whose preamble starts at the given index. The first byte is demodulated alone, so that
+     * the remaining ones are only demodulated if its downlink format is the one of ADS-B messages.
+     *
+     * @param p     powers
+     * @param index index of the start of the preamble
+     * @return the message, or null if it is not an ADS-B message or if its CRC is invalid and could not be repaired
+     */
+    private RawMessage message(int[] p, int index) {
+        this.demodulatedMessage[0] = bytes(p, index, 0);
+        if (RawMessage.size(this.demodulatedMessage[0]) != RAW_MESSAGE_LENGTH) return null;
+        for (int i = 1; i < this.demodulatedMessage.length; i++) {
+            this.demodulatedMessage[i] = bytes(p, index, Byte.SIZE * i);
+        }
+        long timeStampsNs = TIME_STAMP_FACTOR * (this.bufferPosition + index);
+        return this.corrector.of(timeStampsNs, this.demodulatedMessage);
+    }
 
     /**
-     * @param index index of element in the power window
+     * @param p     powers
+     * @param start index of the start of the preamble
+     * @param index index of the first bit of the byte
      * @return byte
      * Builds bytes from a stream of bits.
      */
 
-    private byte bytes(int index) {
+    private static byte bytes(int[] p, int start, int index) {
         int b = 0;
         for (int i = 0; i < Byte.SIZE; i++) {
-            b = (byte) (b | b(index + i) << (Byte.SIZE - 1 - i));
+            b = (b << 1) | b(p, start, index + i);
         }
         return (byte) b;
     }
 
     /**
-     * @param index index of the signal in Power Window we are trying to demodulate
+     * @param p     powers
+     * @param start index of the start of the preamble
+     * @param index index of the bit we are trying to demodulate
      * @return Demodulated bit signal
      * Computes the bits according to the demodulation convention
      */
 
-    private int b(int index) {
-        if (this.powerWindow.get(80 + 10 * index) < this.powerWindow.get(85 + 10 * index)) {
-            return 0;
-        } else return 1;
+    private static int b(int[] p, int start, int index) {
+        return p[start + 80 + 10 * index] < p[start + 85 + 10 * index] ? 0 : 1;
     }
 
     /**
-     * @return posterior sum of peeks
+     * @param p     powers
+     * @param start index of the start of the preamble
+     * @return sum of peeks
      * Auxiliary function for determining sums of peaks
      */
-    private int PosteriorPSum() {
-        return this.powerWindow.get(1) + this.powerWindow.get(11) + this.powerWindow.get(36) + this.powerWindow.get(46);
+    private static int pSum(int[] p, int start) {
+        return p[start] + p[start + 10] + p[start + 35] + p[start + 45];
     }
 
 
     /**
+     * @param p     powers
+     * @param start index of the start of the preamble
      * @return sum of valleys signals
      * Auxiliary function for determining sums of "valleys"
      */
-    private int vSum() {
-        return this.powerWindow.get(5) + this.powerWindow.get(15) + this.powerWindow.get(20) + this.powerWindow.get(25) + this.powerWindow.get(30) + this.powerWindow.get(40);
+    private static int vSum(int[] p, int start) {
+        return p[start + 5] + p[start + 15] + p[start + 20] + p[start + 25] + p[start + 30] + p[start + 40];
     }
 }
-
-
-
@@ -0,0 +1,18 @@
+package ch.epfl.javions.demodulation;
+
+/**
+ * Subtraction of the bias of the samples, done either by a scalar loop or with the vector API.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+interface BiasSubtractor {
+
+    /**
+     * Subtracts the given bias from the first samples of the given array.
+     *
+     * @param samples samples, modified in place
+     * @param count   number of samples to modify
+     * @param bias    bias of the samples
+     */
+    void subtract(short[] samples, int count, short bias);
+}
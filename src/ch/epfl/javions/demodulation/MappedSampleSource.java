@@ -0,0 +1,116 @@
+package ch.epfl.javions.demodulation;
+
+import ch.epfl.javions.Preconditions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Source of samples reading a recorded capture through memory mappings of the file, so that the samples are decoded
+ * straight from the page cache, without being copied into an intermediate byte array. Files larger than what a single
+ * mapping can hold are mapped region by region.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class MappedSampleSource implements SampleSource, Closeable {
+
+    // Maximal number of bytes mapped at once
+    private static final long MAPPING_SIZE = 1L << 28;
+    private final FileChannel channel;
+    private final long endByte;
+    private long nextByte;
+    private ShortBuffer samples;
+
+    /**
+     * Instantiates a source reading all the samples of the given capture.
+     *
+     * @param capture path of the capture file
+     * @throws IOException whenever the file cannot be opened.
+     */
+    public MappedSampleSource(Path capture) throws IOException {
+        this(capture, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Instantiates a source reading the samples of the given capture located between the given indices. The end index
+     * is clamped to the number of samples of the file.
+     *
+     * @param capture    path of the capture file
+     * @param fromSample index of the first sample read (included)
+     * @param toSample   index of the last sample read (excluded)
+     * @throws IOException              whenever the file cannot be opened.
+     * @throws IllegalArgumentException if fromSample is negative or greater than toSample
+     */
+    public MappedSampleSource(Path capture, long fromSample, long toSample) throws IOException {
+        Preconditions.checkArgument(0 <= fromSample && fromSample <= toSample);
+        this.channel = FileChannel.open(capture, StandardOpenOption.READ);
+        long fileSamples = this.channel.size() / Short.BYTES;
+        this.nextByte = Math.min(fromSample, fileSamples) * Short.BYTES;
+        this.endByte = Math.min(toSample, fileSamples) * Short.BYTES;
+        this.samples = ShortBuffer.allocate(0);
+    }
+
+    /**
+     * Gives the number of samples of the given capture file.
+     *
+     * @param capture path of the capture file
+     * @return number of samples
+     * @throws IOException whenever the size of the file cannot be read.
+     */
+    public static long sampleCount(Path capture) throws IOException {
+        try (FileChannel c = FileChannel.open(capture, StandardOpenOption.READ)) {
+            return c.size() / Short.BYTES;
+        }
+    }
+
+    /**
+     * Reads the next samples of the capture into the given batch, mapping the next region of the file whenever the
+     * current one is exhausted. The part of the batch that could not be filled is set to 0.
+     *
+     * @param batch batch where the samples are stored
+     * @return number of samples read
+     * @throws IOException whenever error is raised while mapping the file.
+     */
+    @Override
+    public int readBatch(short[] batch) throws IOException {
+        int read = 0;
+        while (read < batch.length) {
+            if (!this.samples.hasRemaining() && !this.mapNextRegion()) break;
+            int n = Math.min(this.samples.remaining(), batch.length - read);
+            this.samples.get(batch, read, n);
+            read += n;
+        }
+        for (int i = 0; i < read; i++) {
+            batch[i] -= SamplesDecoder.BIAS;
+        }
+        Arrays.fill(batch, read, batch.length, (short) 0);
+        return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    /**
+     * Maps the next region of the file.
+     *
+     * @return false if the end of the samples has been reached, else true
+     * @throws IOException whenever error is raised while mapping the file.
+     */
+    private boolean mapNextRegion() throws IOException {
+        if (this.nextByte >= this.endByte) return false;
+        long size = Math.min(MAPPING_SIZE, this.endByte - this.nextByte);
+        this.samples = this.channel.map(FileChannel.MapMode.READ_ONLY, this.nextByte, size)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asShortBuffer();
+        this.nextByte += size;
+        return true;
+    }
+}
@@ -0,0 +1,148 @@
+package ch.epfl.javions.demodulation;
+
+import ch.epfl.javions.Preconditions;
+import ch.epfl.javions.adsb.RawMessage;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Demodulates a recorded capture in parallel. The capture is split into chunks of powers, each of them demodulated
+ * by its own demodulator on a fork-join pool. Every chunk starts demodulating one power window before the beginning
+ * of the powers it owns, so that the demodulator is synchronized with the signal when reaching them, and stops one
+ * window after its end, so that messages starting at its last powers are complete. Messages found in these overlaps
+ * are deduplicated by timestamp: a chunk only keeps the messages whose timestamp lies in the powers it owns.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class ParallelCaptureDemodulator {
+
+    // Default number of powers owned by a chunk, a bit less than half a second of signal
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 22;
+    // Number of powers read before and after the ones owned by a chunk
+    private static final int OVERLAP = AdsbDemodulator.WINDOW_SIZE;
+    // Number of samples consumed by the computation of each power
+    private static final int SAMPLES_PER_POWER = 2;
+    private final Path capture;
+    private final int chunkSize;
+
+    /**
+     * Instantiates a parallel demodulator over the given capture, using chunks of default size.
+     *
+     * @param capture path of the capture file
+     */
+    public ParallelCaptureDemodulator(Path capture) {
+        this(capture, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Instantiates a parallel demodulator over the given capture.
+     *
+     * @param capture   path of the capture file
+     * @param chunkSize number of powers owned by each chunk
+     * @throws IllegalArgumentException if the chunk size is not strictly positive
+     */
+    public ParallelCaptureDemodulator(Path capture, int chunkSize) {
+        Preconditions.checkArgument(chunkSize > 0);
+        this.capture = Objects.requireNonNull(capture);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Demodulates the whole capture on the common fork-join pool.
+     *
+     * @return messages of the capture, in timestamp order
+     * @throws IOException if error occurs while reading the capture
+     */
+    public List<RawMessage> demodulate() throws IOException {
+        return this.demodulate(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Demodulates the whole capture on the given fork-join pool.
+     *
+     * @param pool pool on which the chunks are demodulated
+     * @return messages of the capture, in timestamp order
+     * @throws IOException if error occurs while reading the capture
+     */
+    public List<RawMessage> demodulate(ForkJoinPool pool) throws IOException {
+        long powerCount = MappedSampleSource.sampleCount(this.capture) / SAMPLES_PER_POWER;
+        int chunkCount = (int) ((powerCount + this.chunkSize - 1) / this.chunkSize);
+        try {
+            return pool.invoke(new ChunkTask(0, chunkCount));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Demodulates the given chunk of the capture.
+     *
+     * @param chunk index of the chunk
+     * @return messages whose timestamp lies in the powers owned by the chunk, in timestamp order
+     * @throws IOException if error occurs while reading the capture
+     */
+    private List<RawMessage> demodulateChunk(int chunk) throws IOException {
+        long firstOwned = (long) chunk * this.chunkSize;
+        long lastOwned = firstOwned + this.chunkSize;
+        long firstRead = Math.max(0, firstOwned - OVERLAP);
+        long lastRead = lastOwned + OVERLAP;
+        long offsetNs = AdsbDemodulator.TIME_STAMP_FACTOR * firstRead;
+        long fromNs = AdsbDemodulator.TIME_STAMP_FACTOR * firstOwned;
+        long toNs = AdsbDemodulator.TIME_STAMP_FACTOR * lastOwned;
+
+        List<RawMessage> messages = new ArrayList<>();
+        try (MappedSampleSource source = new MappedSampleSource(
+                this.capture, SAMPLES_PER_POWER * firstRead, SAMPLES_PER_POWER * lastRead)) {
+            AdsbDemodulator demodulator = new AdsbDemodulator(source);
+            RawMessage m;
+            while ((m = demodulator.nextMessage()) != null) {
+                long timeStampNs = m.timeStampNs() + offsetNs;
+                if (timeStampNs >= toNs) break;
+                if (timeStampNs >= fromNs) messages.add(new RawMessage(timeStampNs, m.bytes()));
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Task demodulating a range of chunks, splitting it in halves until a single chunk remains.
+     */
+    private final class ChunkTask extends RecursiveTask<List<RawMessage>> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        private final int fromChunk;
+        private final int toChunk;
+
+        private ChunkTask(int fromChunk, int toChunk) {
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected List<RawMessage> compute() {
+            if (this.toChunk - this.fromChunk <= 1) {
+                if (this.toChunk == this.fromChunk) return new ArrayList<>();
+                try {
+                    return demodulateChunk(this.fromChunk);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            int middle = (this.fromChunk + this.toChunk) >>> 1;
+            ChunkTask second = new ChunkTask(middle, this.toChunk);
+            second.fork();
+            List<RawMessage> messages = new ChunkTask(this.fromChunk, middle).compute();
+            // chunks own disjoint and increasing ranges of timestamps, concatenating keeps the order
+            messages.addAll(second.join());
+            return messages;
+        }
+    }
+}
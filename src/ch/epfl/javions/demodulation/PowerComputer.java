@@ -4,7 +4,7 @@ import ch.epfl.javions.Preconditions;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.*;
+import java.util.Objects;
 
 /**
  * Class for computing the power of signals by processing the stream batch-wise and computing the power
@@ -14,10 +14,16 @@ import java.util.*;
  */
 public final class PowerComputer {
 
+    // Number of samples taken into account when computing one power value
+    private static final int HISTORY_SIZE = Byte.SIZE;
+    private static final int HISTORY_MASK = HISTORY_SIZE - 1;
+
     private final short[] buffer;
-    private final List<Short> powerMemoryDeque;
-    private final SamplesDecoder decoder;
+    // Ring buffer holding the last HISTORY_SIZE samples, the oldest one being at index head
+    private final short[] history;
+    private final SampleSource decoder;
     private final int batchSize;
+    private int head;
 
     /**
      * Instantiates a Power Computer objet. Processes input stream batch-wise.Then computes the powers associated to the input signal
@@ -27,16 +33,29 @@ public final class PowerComputer {
      * @throws IllegalArgumentException whenever the batchSize is not divisible by 8, or whenever non-positive
      */
     public PowerComputer(InputStream stream, int batchSize) {
+        this(new SamplesDecoder(stream, Short.BYTES * batchSize), batchSize);
+    }
+
+    /**
+     * Instantiates a Power Computer object computing the powers of the samples read from the given source. Each batch
+     * of powers is computed from a batch of twice as many samples.
+     *
+     * @param source    source of the samples
+     * @param batchSize size of batch
+     * @throws IllegalArgumentException whenever the batchSize is not divisible by 8, or whenever non-positive
+     */
+    public PowerComputer(SampleSource source, int batchSize) {
         Preconditions.checkArgument(batchSize % Byte.SIZE == 0 && batchSize > 0);
         this.batchSize = batchSize;
         this.buffer = new short[Short.BYTES * batchSize];
-        this.decoder = new SamplesDecoder(stream, this.buffer.length);
-        this.powerMemoryDeque = new ArrayList<>(Byte.SIZE);
-        this.powerMemoryDeque.addAll(Collections.nCopies(Byte.SIZE, (short) 0));
+        this.decoder = Objects.requireNonNull(source);
+        this.history = new short[HISTORY_SIZE];
+        this.head = 0;
     }
 
     /**
-     * Computes the powers of the decoded messages, stores them in the inputted batch.
+     * Computes the powers of the decoded messages, stores them in the inputted batch. No allocation is made, the
+     * samples history is kept in a fixed size ring buffer.
      *
      * @param batch batch where we store computed powers
      * @return number of powers thrown in batch
@@ -45,37 +64,37 @@ public final class PowerComputer {
 
     public int readBatch(int[] batch) throws IOException {
         Preconditions.checkArgument((batch.length == this.buffer.length / 2));
-        int count = this.decoder.readBatch(this.buffer);
-        for (int i = 0; i < batchSize; i += 1) {
-            this.addToList(this.buffer[2 * i]);
-            this.addToList(this.buffer[2 * i + 1]);
-            batch[i] = this.computeSignalPower();
-        }
-        return count / 2;
+        return this.readBatch(batch, 0);
     }
 
     /**
-     * Method for computing the signal's power
+     * Computes a batch of powers and stores them in the given array, starting at the given offset. This lets callers
+     * append the powers right after the ones they already hold, without an intermediate copy.
      *
-     * @return corresponding power of the signal.
+     * @param powers array where we store computed powers
+     * @param offset index at which the first power is stored
+     * @return number of powers thrown in the array
+     * @throws IOException               if Input/Output Exception occurs.
+     * @throws IndexOutOfBoundsException if the array cannot hold a whole batch starting at offset
      */
+    public int readBatch(int[] powers, int offset) throws IOException {
+        Objects.checkFromIndexSize(offset, this.batchSize, powers.length);
+        int count = this.decoder.readBatch(this.buffer);
+        short[] h = this.history;
+        int oldest = this.head;
+        for (int i = 0; i < batchSize; i += 1) {
+            // two new samples replace the two oldest ones, head always stays even
+            h[oldest] = this.buffer[2 * i];
+            h[oldest + 1] = this.buffer[2 * i + 1];
+            oldest = (oldest + 2) & HISTORY_MASK;
 
-    private int computeSignalPower() {
-        return (int) (
-                Math.pow(this.powerMemoryDeque.get(7) - this.powerMemoryDeque.get(5) + this.powerMemoryDeque.get(3) - this.powerMemoryDeque.get(1), 2)
-                        + Math.pow(this.powerMemoryDeque.get(6) - this.powerMemoryDeque.get(4) + this.powerMemoryDeque.get(2) - this.powerMemoryDeque.get(0), 2)
-        );
-    }
-
-
-    /**
-     * Adds element to the top of the list. If the size of the list exceeds Byte.SIZE, then the last element is popped
-     *
-     * @param s element to be added
-     */
-    private void addToList(short s) {
-        if (this.powerMemoryDeque.size() == Byte.SIZE)
-            this.powerMemoryDeque.remove(0);
-        this.powerMemoryDeque.add(s);
+            int inPhase = h[(oldest + 6) & HISTORY_MASK] - h[(oldest + 4) & HISTORY_MASK]
+                    + h[(oldest + 2) & HISTORY_MASK] - h[oldest];
+            int quadrature = h[(oldest + 7) & HISTORY_MASK] - h[(oldest + 5) & HISTORY_MASK]
+                    + h[(oldest + 3) & HISTORY_MASK] - h[oldest + 1];
+            powers[offset + i] = inPhase * inPhase + quadrature * quadrature;
+        }
+        this.head = oldest;
+        return count / 2;
     }
 }
@@ -18,7 +18,8 @@ public final class PowerWindow {
     private long position = 0;
     private int[] tab1 = new int[staticConstant];
     private int[] tab2 = new int[staticConstant];
-    private int batchSize;
+    // Number of powers read so far from the power computer
+    private long available;
     private final PowerComputer calculator;
 
 
@@ -31,10 +32,21 @@ public final class PowerWindow {
      * @throws IOException whenever exception thrown while reading the stream.
      */
     public PowerWindow(InputStream stream, int windowSize) throws IOException {
+        this(new SamplesDecoder(stream, Short.BYTES * staticConstant), windowSize);
+    }
+
+    /**
+     * Instantiates a power window over the powers of the samples read from the given source.
+     *
+     * @param source     source of the samples
+     * @param windowSize size of window we want to instantiate, has to be smaller than staticConstant.
+     * @throws IOException whenever exception thrown while reading the source.
+     */
+    public PowerWindow(SampleSource source, int windowSize) throws IOException {
         Preconditions.checkArgument((windowSize > 0) && (windowSize <= staticConstant));
         this.windowSize = windowSize;
-        this.calculator = new PowerComputer(stream, staticConstant);
-        this.batchSize = this.calculator.readBatch(tab1);
+        this.calculator = new PowerComputer(source, staticConstant);
+        this.available = this.calculator.readBatch(tab1);
 
     }
 
@@ -64,7 +76,7 @@ public final class PowerWindow {
      */
 
     public boolean isFull() {
-        return !(this.batchSize < staticConstant && windowSize + position % staticConstant > this.batchSize);
+        return position + windowSize <= available;
     }
 
 
@@ -95,7 +107,7 @@ public final class PowerWindow {
             tab2 = tempTable;
         }
         if ((position + windowSize - 1) % staticConstant == 0) {
-            this.batchSize = calculator.readBatch(tab2);
+            this.available += calculator.readBatch(tab2);
         }
 
     }
@@ -0,0 +1,23 @@
+package ch.epfl.javions.demodulation;
+
+import ch.epfl.javions.Preconditions;
+import ch.epfl.javions.adsb.RawMessage;
+
+import java.util.Objects;
+
+/**
+ * @param receiverId identifier of the receiver which demodulated the message
+ * @param message    demodulated message
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public record ReceivedMessage(int receiverId, RawMessage message) {
+
+    /**
+     * @throws IllegalArgumentException if the receiver id is negative
+     * @throws NullPointerException     if the message is null
+     */
+    public ReceivedMessage {
+        Preconditions.checkArgument(receiverId >= 0);
+        Objects.requireNonNull(message);
+    }
+}
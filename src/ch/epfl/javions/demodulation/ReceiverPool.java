@@ -0,0 +1,260 @@
+package ch.epfl.javions.demodulation;
+
+import ch.epfl.javions.ByteString;
+import ch.epfl.javions.Preconditions;
+import ch.epfl.javions.adsb.RawMessage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Pool of receivers, each of them demodulating the samples of its own source on its own thread. The messages of all
+ * the receivers are merged into a single output, ordered by timestamp and tagged with the id of the receiver they
+ * come from, the id of a receiver being the index of its source.
+ * <p>
+ * The timestamps of a receiver are relative to the beginning of its source, so the sources are expected to have been
+ * started together. The merge is driven by the progress of each receiver through its samples rather than by its
+ * messages: the oldest message is handed over as soon as every other receiver has read far enough into its source to
+ * only demodulate more recent messages, so that a receiver whose antenna is quiet does not hold the others back. A
+ * receiver that stops making progress, for example because its source blocks, only holds the output back for the
+ * maximal lag, after which its messages may be handed over out of order.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class ReceiverPool implements AutoCloseable {
+
+    // Default time during which a message waits for a receiver that stopped making progress, in nanoseconds
+    public static final long DEFAULT_MAX_LAG_NS = 1_000_000_000L;
+    // Number of messages each receiver can demodulate ahead of the output
+    private static final int QUEUE_CAPACITY = 1024;
+    // Time during which the output waits for a lagging receiver before checking the progress of all of them again
+    private static final long POLL_NS = 1_000_000L;
+    // Marker put in the queue of a receiver once it has stopped
+    private static final RawMessage END = new RawMessage(0, new ByteString(new byte[RawMessage.LENGTH]));
+    private final List<? extends SampleSource> sources;
+    private final List<Thread> threads;
+    private final List<BlockingQueue<RawMessage>> queues;
+    private final long maxLagNs;
+    private final IOException[] failures;
+    // Number of samples read by each receiver so far
+    private final AtomicLongArray samplesRead;
+    // Next message of each receiver, null if it has not been taken from its queue yet
+    private final RawMessage[] heads;
+    // Time at which the head of each receiver was taken from its queue, in the time base of System.nanoTime
+    private final long[] headTimes;
+    private final boolean[] stopped;
+    private volatile boolean closed;
+
+    /**
+     * Instantiates a pool running one receiver per source, each of them on a daemon thread, with the default maximal
+     * lag.
+     *
+     * @param sources sources of the samples of the receivers
+     */
+    public ReceiverPool(List<? extends SampleSource> sources) {
+        this(sources, r -> {
+            Thread t = new Thread(r);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Instantiates a pool running one receiver per source, each of them on a thread created by the given factory, for
+     * example a factory of virtual threads, with the default maximal lag.
+     *
+     * @param sources       sources of the samples of the receivers
+     * @param threadFactory factory creating the threads of the receivers
+     * @throws IllegalArgumentException if there is no source
+     */
+    public ReceiverPool(List<? extends SampleSource> sources, ThreadFactory threadFactory) {
+        this(sources, threadFactory, DEFAULT_MAX_LAG_NS);
+    }
+
+    /**
+     * Instantiates a pool running one receiver per source, each of them on a thread created by the given factory.
+     *
+     * @param sources       sources of the samples of the receivers
+     * @param threadFactory factory creating the threads of the receivers
+     * @param maxLagNs      time during which a message waits for a receiver that stopped making progress, in
+     *                      nanoseconds
+     * @throws IllegalArgumentException if there is no source or if the maximal lag is negative
+     */
+    public ReceiverPool(List<? extends SampleSource> sources, ThreadFactory threadFactory, long maxLagNs) {
+        Preconditions.checkArgument(!sources.isEmpty() && maxLagNs >= 0);
+        int count = sources.size();
+        this.sources = List.copyOf(sources);
+        this.threads = new ArrayList<>(count);
+        this.queues = new ArrayList<>(count);
+        this.maxLagNs = maxLagNs;
+        this.failures = new IOException[count];
+        this.samplesRead = new AtomicLongArray(count);
+        this.heads = new RawMessage[count];
+        this.headTimes = new long[count];
+        this.stopped = new boolean[count];
+        for (int id = 0; id < count; id++) {
+            BlockingQueue<RawMessage> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+            this.queues.add(queue);
+            this.threads.add(threadFactory.newThread(this.receiver(id, sources.get(id), queue)));
+        }
+    }
+
+    /**
+     * Starts the threads of all the receivers.
+     */
+    public void start() {
+        this.threads.forEach(Thread::start);
+    }
+
+    /**
+     * Gives the next message demodulated by the receivers, waiting until it is known or until the maximal lag has
+     * elapsed.
+     *
+     * @return the message with the smallest timestamp among the next messages of the receivers, or null if all the
+     * receivers have reached the end of their source or if the pool has been closed
+     * @throws IOException          if a receiver stopped because of an error while reading its source
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public ReceivedMessage next() throws IOException, InterruptedException {
+        long[] bounds = new long[this.heads.length];
+        while (!this.closed) {
+            int next = -1;
+            int lagging = -1;
+            for (int id = 0; id < this.heads.length; id++) {
+                if (this.heads[id] == null && !this.stopped[id]) {
+                    // the progress is read before the queue, so that every message older than the bound is in it
+                    bounds[id] = this.lowerBound(id);
+                    this.take(id, this.queues.get(id).poll());
+                }
+                if (this.heads[id] != null
+                        && (next < 0 || this.heads[id].timeStampNs() < this.heads[next].timeStampNs())) {
+                    next = id;
+                }
+            }
+            if (next < 0 && this.allStopped()) return null;
+
+            if (next >= 0) {
+                long timeStampNs = this.heads[next].timeStampNs();
+                for (int id = 0; id < this.heads.length && lagging < 0; id++) {
+                    if (this.heads[id] == null && !this.stopped[id] && bounds[id] < timeStampNs) lagging = id;
+                }
+                if (lagging < 0 || System.nanoTime() - this.headTimes[next] >= this.maxLagNs) {
+                    RawMessage message = this.heads[next];
+                    this.heads[next] = null;
+                    return new ReceivedMessage(next, message);
+                }
+            } else {
+                for (int id = 0; id < this.heads.length && lagging < 0; id++) {
+                    if (!this.stopped[id]) lagging = id;
+                }
+            }
+            this.take(lagging, this.queues.get(lagging).poll(POLL_NS, TimeUnit.NANOSECONDS));
+        }
+        return null;
+    }
+
+    /**
+     * Stops all the receivers, closing the sources that can be closed, since interrupting a thread does not unblock
+     * a read of a stream.
+     *
+     * @throws IOException if a source cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.closed = true;
+        this.threads.forEach(Thread::interrupt);
+        IOException failure = null;
+        for (SampleSource s : this.sources) {
+            if (s instanceof Closeable c) {
+                try {
+                    c.close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * Makes the given message the head of the given receiver.
+     *
+     * @param id      id of the receiver
+     * @param message message taken from the queue of the receiver, or null if there was none
+     * @throws IOException if the receiver stopped because of an error while reading its source
+     */
+    private void take(int id, RawMessage message) throws IOException {
+        if (message == null) return;
+        if (message == END) {
+            this.stopped[id] = true;
+            if (this.failures[id] != null) throw this.failures[id];
+        } else {
+            this.heads[id] = message;
+            this.headTimes[id] = System.nanoTime();
+        }
+    }
+
+    /**
+     * @return true if all the receivers have stopped
+     */
+    private boolean allStopped() {
+        for (boolean s : this.stopped) {
+            if (!s) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gives a bound below the timestamps of the messages the given receiver has not put in its queue yet. The powers
+     * the receiver has not searched yet are at most the ones of the last batch read, and of an incomplete window
+     * before them.
+     *
+     * @param id id of the receiver
+     * @return smallest possible timestamp of the next messages of the receiver, in nanoseconds
+     */
+    private long lowerBound(int id) {
+        long powers = this.samplesRead.get(id) / 2;
+        return (powers - AdsbDemodulator.BATCH_SIZE - AdsbDemodulator.WINDOW_SIZE)
+                * AdsbDemodulator.TIME_STAMP_FACTOR;
+    }
+
+    /**
+     * Creates the task of a receiver, demodulating its source until its end and putting the messages in its queue.
+     * The samples read are counted after each batch, once the messages of the previous batches are in the queue.
+     *
+     * @param id     id of the receiver
+     * @param source source of the samples
+     * @param queue  queue of the messages of the receiver
+     * @return the task of the receiver
+     */
+    private Runnable receiver(int id, SampleSource source, BlockingQueue<RawMessage> queue) {
+        SampleSource counted = batch -> {
+            int count = source.readBatch(batch);
+            this.samplesRead.addAndGet(id, count);
+            return count;
+        };
+        return () -> {
+            try {
+                try {
+                    AdsbDemodulator demodulator = new AdsbDemodulator(counted);
+                    RawMessage m;
+                    while ((m = demodulator.nextMessage()) != null) {
+                        queue.put(m);
+                    }
+                } catch (IOException e) {
+                    this.failures[id] = e;
+                }
+                queue.put(END);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package ch.epfl.javions.demodulation;
+
+import java.io.IOException;
+
+/**
+ * Source of signed 12 bit samples, centered around 0, from which the powers of the signal are computed.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public interface SampleSource {
+
+    /**
+     * Reads the next samples of the source into the given batch.
+     *
+     * @param batch batch where the samples are stored
+     * @return number of samples read, which is smaller than the size of the batch only when the end of the source
+     * has been reached
+     * @throws IOException whenever error is raised while reading the source.
+     */
+    int readBatch(short[] batch) throws IOException;
+}
@@ -2,8 +2,12 @@ package ch.epfl.javions.demodulation;
 
 import ch.epfl.javions.Preconditions;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
 import java.util.Objects;
 
 
@@ -12,46 +16,123 @@ import java.util.Objects;
  *
  * @author Theo Le Fur (SCIPER: 363294)
  */
-public final class SamplesDecoder {
+public final class SamplesDecoder implements SampleSource, Closeable {
+
+    /**
+     * Decoding modes, giving how the bias of the samples is subtracted.
+     */
+    public enum Mode {
+        // branch-free loop, which the JIT compiler may vectorize on its own
+        SCALAR,
+        // explicit vectors of the jdk.incubator.vector module, only available when the module has been added and the
+        // classes of the vector source root are on the class path
+        VECTOR
+    }
+
+    // Bias of the 12 bit unsigned samples, subtracted to center them around 0
+    static final short BIAS = 2048;
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final BiasSubtractor SCALAR_SUBTRACTOR = (samples, count, bias) -> {
+        for (int i = 0; i < count; i++) {
+            samples[i] -= bias;
+        }
+    };
+    // Vector implementation, null if the vector module is not available
+    private static final BiasSubtractor VECTOR_SUBTRACTOR = vectorSubtractor();
+    // Mode chosen at startup, the vector one whenever it is available
+    public static final Mode DEFAULT_MODE = (VECTOR_SUBTRACTOR != null) ? Mode.VECTOR : Mode.SCALAR;
 
     private final InputStream stream;
     private final int batchSize;
     private final byte[] buffer;
+    // Little-endian view on the byte buffer, letting us read samples in bulk
+    private final ShortBuffer samplesView;
+    private final BiasSubtractor subtractor;
 
     /**
-     * Instantiates a samples decoder object. Builds the buffer where the bits of the signal will be stored.
+     * Instantiates a samples decoder object in the default mode. Builds the buffer where the bits of the signal will
+     * be stored.
      *
      * @param stream    stream containing signal to decode
      * @param batchSize size of batch
      */
     public SamplesDecoder(InputStream stream, int batchSize) {
+        this(stream, batchSize, DEFAULT_MODE);
+    }
+
+    /**
+     * Instantiates a samples decoder object in the given mode. Builds the buffer where the bits of the signal will be
+     * stored.
+     *
+     * @param stream    stream containing signal to decode
+     * @param batchSize size of batch
+     * @param mode      decoding mode
+     * @throws IllegalArgumentException if the batch size is not strictly positive, or if the mode is not available
+     */
+    public SamplesDecoder(InputStream stream, int batchSize, Mode mode) {
         Preconditions.checkArgument(batchSize > 0);
+        Preconditions.checkArgument(isAvailable(mode));
         Objects.requireNonNull(stream);
         this.stream = stream;
         this.batchSize = batchSize;
         this.buffer = new byte[Short.BYTES * this.batchSize];
+        this.samplesView = ByteBuffer.wrap(this.buffer).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+        this.subtractor = (mode == Mode.VECTOR) ? VECTOR_SUBTRACTOR : SCALAR_SUBTRACTOR;
+    }
+
+    /**
+     * @param mode decoding mode
+     * @return true if the given mode can be used, the vector one requiring the jdk.incubator.vector module and the
+     * classes of the vector source root
+     */
+    public static boolean isAvailable(Mode mode) {
+        return Objects.requireNonNull(mode) == Mode.SCALAR || VECTOR_SUBTRACTOR != null;
     }
 
     /**
-     * Reads batch from stream and transforms it into a 12 bit representation
+     * Reads batch from stream and transforms it into a 12 bit representation. The samples are copied in bulk from a
+     * little-endian view on the read bytes, the bias is then subtracted according to the mode of the decoder.
      *
      * @param batch batch where values from stream are stored
      * @return Number of elements that have been transformed
      * @throws IOException whenever error is raised while reading the stream.
      */
+    @Override
     public int readBatch(short[] batch) throws IOException {
 
         Preconditions.checkArgument(batch.length == this.batchSize);
         int N = stream.readNBytes(buffer, 0, this.buffer.length);
-        for (int i = 0; i < batchSize; i++) {
-            int bufferIndex = 2 * i;
-            byte strongByte = this.buffer[bufferIndex];
-            byte weakByte = this.buffer[bufferIndex + 1];
-            short concat = (short) (((weakByte & 0xFF) << 8) | strongByte & 0xFF);
-            short THRESHOLD = 2048;
-            batch[i] = (short) (concat - THRESHOLD);
-        }
+        this.samplesView.get(0, batch);
+        this.subtractor.subtract(batch, this.batchSize, BIAS);
         return N/2;
     }
-}
 
+    /**
+     * Closes the stream, which unblocks a read waiting for samples that will not come anymore, for example those of
+     * a live receiver.
+     *
+     * @throws IOException whenever error is raised while closing the stream.
+     */
+    @Override
+    public void close() throws IOException {
+        this.stream.close();
+    }
+
+    /**
+     * Loads the vector implementation by reflection. It is compiled apart, from the vector source root, so that only
+     * that source root needs the vector module and the rest of the project builds without it.
+     *
+     * @return the vector implementation, or null if the vector module is not in the boot layer or if the
+     * implementation is not on the class path
+     */
+    private static BiasSubtractor vectorSubtractor() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) return null;
+        try {
+            return (BiasSubtractor) Class.forName(SamplesDecoder.class.getPackageName() + ".VectorBiasSubtractor")
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
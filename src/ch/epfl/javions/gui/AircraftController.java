@@ -190,9 +190,10 @@ public final class AircraftController {
         icon.getStyleClass().add("aircraft");
 
         ObjectProperty<AircraftIcon> aircraftIconProperty = new SimpleObjectProperty<>(getOrDefaultIcon(s));
-        aircraftIconProperty.bind(s.categoryProperty().map(d -> getOrDefaultIcon(s, d.intValue())));
+        aircraftIconProperty.bind(Bindings.createObjectBinding(() -> getOrDefaultIcon(s, s.getCategory()),
+                s.categoryProperty(), s.aircraftDataProperty()));
 
-        // we bind the icon property to the category property, so that it tracks the changes.
+        // we bind the icon property to the category and aircraft data properties, so that it tracks the changes.
         // bind both the content and the can rotate properties to the methods in AircraftIcon.
 
         icon.contentProperty().bind(aircraftIconProperty.map(AircraftIcon::svgPath));
@@ -263,7 +264,7 @@ public final class AircraftController {
                         this.getAircraftIdForLabel(s),
                         this.getVelocityForLabel(s),
                         this.getAltitudeForLabel(s)),
-                s.altitudeProperty(), s.velocityProperty(), s.callSignProperty()));
+                s.altitudeProperty(), s.velocityProperty(), s.callSignProperty(), s.aircraftDataProperty()));
 
         // structure the dimension of the frames
         background.widthProperty().bind(text.layoutBoundsProperty().map(b -> b.getWidth() + LABEL_OFFSET));
@@ -1,14 +1,18 @@
 package ch.epfl.javions.gui;
 
 import ch.epfl.javions.Units;
-import ch.epfl.javions.adsb.AircraftStateAccumulator;
+import ch.epfl.javions.adsb.AircraftState;
 import ch.epfl.javions.adsb.Message;
-import ch.epfl.javions.aircraft.AircraftDatabase;
+import ch.epfl.javions.aircraft.AircraftDataLookup;
+import ch.epfl.javions.aircraft.AircraftDataSource;
 import ch.epfl.javions.aircraft.IcaoAddress;
+import ch.epfl.javions.pipeline.AircraftStateStore;
+import ch.epfl.javions.pipeline.ExpiryWheel;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableSet;
 
-import java.io.IOException;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -25,23 +29,52 @@ public final class AircraftStateManager {
 
     // One minute in nanoseconds
     private static final long MINUTE_NS = (long) Units.convert(1, Units.Time.MINUTE, Units.Time.NANO_SECOND);
-    private final Map<IcaoAddress, AircraftStateAccumulator<ObservableAircraftState>> addressToAsmTable;
+    private final Map<IcaoAddress, ObservableAircraftState> addressToStateTable;
     private final ObservableSet<ObservableAircraftState> observableAircraftSet;
     private final ObservableSet<ObservableAircraftState> readOnlyAircraftSet;
-    private final AircraftDatabase database;
+    private final AircraftDataLookup lookup;
+    // store accumulating the messages given to updateWithMessage
+    private final AircraftStateStore store;
+    // expiry index of the observable states, by address
+    private final ExpiryWheel<IcaoAddress> expiries;
 
-    // attribute for storing the aircraft's previous message.
-    private Message prevMessage;
+    // timestamp of the most recent message applied to the states.
+    private long lastTimeStampNs;
+    // value of System.nanoTime() when lastTimeStampNs last changed
+    private long lastTimeStampNanoTime;
 
     /**
      * Creates the state manager. Associates to each address a state accumulator composed of a set of observable states.
      * Stores the significant states in an observable set.
      *
-     * @param database database containing the essential data on aircraft.
+     * @param database source of the essential data on aircraft.
      */
-    public AircraftStateManager(AircraftDatabase database) {
-        this.addressToAsmTable = new HashMap<>();
-        this.database = database;
+    public AircraftStateManager(AircraftDataSource database) {
+        this(new AircraftDataLookup(database));
+    }
+
+    /**
+     * Creates the state manager, looking up the data of new aircraft through the given service.
+     *
+     * @param lookup service looking up the essential data on aircraft.
+     */
+    public AircraftStateManager(AircraftDataLookup lookup) {
+        this(lookup, MINUTE_NS);
+    }
+
+    /**
+     * Creates the state manager, looking up the data of new aircraft through the given service, and forgetting the
+     * aircraft that have not sent any message during the given time.
+     *
+     * @param lookup service looking up the essential data on aircraft.
+     * @param ttlNs  time to live of the state of an aircraft that stopped sending messages, in nanoseconds.
+     * @throws IllegalArgumentException if the time to live is not strictly positive
+     */
+    public AircraftStateManager(AircraftDataLookup lookup, long ttlNs) {
+        this.addressToStateTable = new HashMap<>();
+        this.lookup = Objects.requireNonNull(lookup);
+        this.store = new AircraftStateStore(ttlNs);
+        this.expiries = new ExpiryWheel<>(ttlNs);
         this.observableAircraftSet = FXCollections.observableSet();
         this.readOnlyAircraftSet = FXCollections.unmodifiableObservableSet(this.observableAircraftSet);
     }
@@ -56,47 +89,74 @@ public final class AircraftStateManager {
     }
 
     /**
-     * Creates an instance of the accumulator for the address from which the message came from, if it is
-     * the first message obtained from this particular address. Then, it updates the message with the state
-     * accumulator that is associated to its issuance address.
+     * Updates the state of the aircraft that sent the given message on the calling thread, and immediately pushes the
+     * update to its observable state. Applications receiving many messages should rather accumulate them in an
+     * {@link AircraftStateStore} on a worker thread, and {@link #apply} its publications once per frame.
      *
      * @param message sent by an aircraft
      */
-    public void updateWithMessage(Message message) throws IOException {
-
-        IcaoAddress address = message.icaoAddress();
+    public void updateWithMessage(Message message) {
+        this.store.update(message);
+        this.store.publish();
+        this.apply(this.store.takePublished().values());
+    }
 
-        // associate icao address to state manager, in case it does not exist, create it.
-        this.addressToAsmTable.computeIfAbsent(address, a -> {
-            try {
-                return new AircraftStateAccumulator<>(new ObservableAircraftState(address, this.database.get(a)));
-            } catch (IOException e) {
-                return null;
+    /**
+     * Copies the given plain states into the observable states of their aircraft, creating the observable state of
+     * the aircraft seen for the first time. The state of a new aircraft is created without its data, which is filled
+     * in on the JavaFX thread once its lookup completes. Only the values that differ are set, so that the listeners
+     * of a property are only triggered when its value changes. The states whose position is known are added to the
+     * set of states.
+     *
+     * @param changedStates latest states of the aircraft that changed, for example published by a state store
+     */
+    public void apply(Collection<AircraftState> changedStates) {
+        for (AircraftState changed : changedStates) {
+            ObservableAircraftState state = this.addressToStateTable.computeIfAbsent(changed.icaoAddress(), a -> {
+                ObservableAircraftState s = new ObservableAircraftState(a, null);
+                // a failed lookup leaves the data unknown, and is counted by the lookup service
+                this.lookup.lookup(a).thenAcceptAsync(s::setAircraftData, Platform::runLater);
+                return s;
+            });
+            copy(changed, state);
+            if (state.getPosition() != null) this.observableAircraftSet.add(state);
+            this.expiries.touch(changed.icaoAddress(), changed.lastMessageTimeStampNs());
+            if (changed.lastMessageTimeStampNs() > this.lastTimeStampNs) {
+                this.lastTimeStampNs = changed.lastMessageTimeStampNs();
+                this.lastTimeStampNanoTime = System.nanoTime();
             }
-        });
-        AircraftStateAccumulator<ObservableAircraftState> stateAccumulator = this.addressToAsmTable.get(address);
-        stateAccumulator.update(message);
-        ObservableAircraftState stateSetter = stateAccumulator.stateSetter();
-        if (stateSetter.getPosition() != null) this.observableAircraftSet.add(stateSetter);
-        this.prevMessage = message;
+        }
+    }
+
+    /**
+     * Copies the values of a plain state that differ into an observable state. The altitude is set before the
+     * position, as it is when a position message is applied, since both update the trajectory.
+     *
+     * @param from plain state
+     * @param to   observable state
+     */
+    private static void copy(AircraftState from, ObservableAircraftState to) {
+        to.setLastMessageTimeStampNs(from.lastMessageTimeStampNs());
+        to.setCategory(from.category());
+        if (!Objects.equals(from.callSign(), to.getCallSign())) to.setCallSign(from.callSign());
+        if (Double.compare(from.altitude(), to.getAltitude()) != 0) to.setAltitude(from.altitude());
+        if (from.position() != null && !from.position().equals(to.getPosition())) to.setPosition(from.position());
+        if (Double.compare(from.velocity(), to.getVelocity()) != 0) to.setVelocity(from.velocity());
+        if (Double.compare(from.trackOrHeading(), to.getTrackOrHeading()) != 0)
+            to.setTrackOrHeading(from.trackOrHeading());
     }
 
     /**
      * Purges all the states and their corresponding accumulators, whose addresses have not issued any
-     * message signal for more than one minute. This ensures that aircraft that cannot be tracked anymore due to loss
-     * of signal are not displayed on the map anymore.
+     * message signal during the time to live, one minute by default. This ensures that aircraft that cannot be tracked
+     * anymore due to loss of signal are not displayed on the map anymore. The current time is the timestamp of the most
+     * recent message, advanced by the time elapsed since it was applied, so that the aircraft are also forgotten when
+     * no message is received anymore. Only the expired states are visited.
      **/
-
-
     public void purge() {
-        addressToAsmTable.values().forEach(
-                ac -> {
-                    if (ac.stateSetter().getLastMessageTimeStampNs() - this.prevMessage.timeStampNs() >= MINUTE_NS) {
-                        this.observableAircraftSet.remove(ac.stateSetter());
-                        this.addressToAsmTable.remove(ac.stateSetter().getIcaoAddress());
-                    }
-                }
-        );
+        long nowNs = this.lastTimeStampNs + (System.nanoTime() - this.lastTimeStampNanoTime);
+        this.expiries.expire(nowNs, a -> this.observableAircraftSet.remove(this.addressToStateTable.remove(a)));
+        this.store.purge(nowNs);
     }
 
 }
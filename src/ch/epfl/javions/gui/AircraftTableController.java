@@ -176,13 +176,13 @@ public final class AircraftTableController {
                 this.createTextualColumn(WIDTH.getWidth(WIDTH.ID), "CALL SIGN",
                         f -> f.getValue().callSignProperty().map(CallSign::string)),
                 this.createTextualColumn(WIDTH.getWidth(WIDTH.REGISTRATION), "REGISTRE",
-                        f -> new ReadOnlyObjectWrapper<>(f.getValue().getAircraftData()).map(e -> e.registration().string())),
+                        f -> f.getValue().aircraftDataProperty().map(e -> e.registration().string())),
                 this.createTextualColumn(WIDTH.getWidth(WIDTH.MODEL), "MODELE",
-                        f -> new ReadOnlyObjectWrapper<>(f.getValue().getAircraftData()).map(AircraftData::model)),
+                        f -> f.getValue().aircraftDataProperty().map(AircraftData::model)),
                 this.createTextualColumn(WIDTH.getWidth(WIDTH.TYPE), "TYPE",
-                        f -> new ReadOnlyObjectWrapper<>(f.getValue().getAircraftData()).map(e -> e.typeDesignator().string())),
+                        f -> f.getValue().aircraftDataProperty().map(e -> e.typeDesignator().string())),
                 this.createTextualColumn(WIDTH.getWidth(WIDTH.DESCRIPTION), "DESCRIPTION",
-                        f -> new ReadOnlyObjectWrapper<>(f.getValue().getAircraftData()).map(e -> e.description().string())
+                        f -> f.getValue().aircraftDataProperty().map(e -> e.description().string())
                 )));
 
     }
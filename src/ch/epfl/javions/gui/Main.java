@@ -1,10 +1,13 @@
 package ch.epfl.javions.gui;
 
 import ch.epfl.javions.adsb.Message;
-import ch.epfl.javions.adsb.MessageParser;
-import ch.epfl.javions.adsb.RawMessage;
-import ch.epfl.javions.aircraft.AircraftDatabase;
+import ch.epfl.javions.aircraft.AircraftDataSource;
+import ch.epfl.javions.aircraft.IndexedAircraftDatabase;
+import ch.epfl.javions.archive.MessageReplay;
 import ch.epfl.javions.demodulation.AdsbDemodulator;
+import ch.epfl.javions.pipeline.AircraftStateStore;
+import ch.epfl.javions.pipeline.MessageStreams;
+import ch.epfl.javions.pipeline.SpscQueue;
 import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.beans.binding.Bindings;
@@ -20,9 +23,10 @@ import javafx.stage.Stage;
 import java.io.*;
 import java.net.URL;
 import java.nio.file.Path;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
 
 
 /**
@@ -32,8 +36,8 @@ import java.util.concurrent.ConcurrentLinkedQueue;
  */
 public class Main extends Application {
 
-    // conversion factor from ns to ms
-    private static final double NS_TO_MILLIS = 1_000_000d;
+    // argument selecting the replay of a message file as fast as possible
+    private static final String MAX_REPLAY_SPEED = "max";
 
     // One second in nanoseconds
     private static final long SECOND_NS = 1_000_000_000L;
@@ -53,6 +57,15 @@ public class Main extends Application {
     // name of the server from which tiles are queried
     private static final String TILE_SERVER_NAME = "tile.openstreetmap.org";
 
+    // number of messages the queue between the message thread and the state thread can hold
+    private static final int MESSAGE_QUEUE_CAPACITY = 1 << 14;
+
+    // maximal number of messages applied by the state thread between two publications of the changed states
+    private static final int MESSAGES_PER_PUBLICATION = 256;
+
+    // time the state thread sleeps whenever there is no message to apply
+    private static final long IDLE_PARK_NS = 1_000_000L;
+
 
     /**
      * Launches the main application.
@@ -69,7 +82,8 @@ public class Main extends Application {
         URL u = getClass().getResource(MESSAGE_FILE_NAME);
         assert u != null;
         Path p = Path.of(u.toURI());
-        AircraftDatabase db = new AircraftDatabase(p.toString());
+        // the database is loaded once, so that looking up a new aircraft never blocks the JavaFX thread on I/O
+        AircraftDataSource db = new IndexedAircraftDatabase(p.toString());
 
 
         Path tileCache = Path.of(DISK_CACHE_NAME);
@@ -106,20 +120,30 @@ public class Main extends Application {
 
 
         List<String> params = getParameters().getRaw();
-        ConcurrentLinkedQueue<Message> messageQueue = new ConcurrentLinkedQueue<>();
+        // live messages are dropped, oldest first, whenever the state thread falls behind, while messages read from a
+        // file are all kept, the reading thread waiting for the state thread instead
+        SpscQueue<Message> messageQueue = new SpscQueue<>(MESSAGE_QUEUE_CAPACITY, params.isEmpty()
+                ? SpscQueue.OverflowPolicy.DROP_OLDEST
+                : SpscQueue.OverflowPolicy.BLOCK);
 
         // define the concurrent message thread
         Thread messageAccumulationThread = new Thread(() -> {
             if (params.isEmpty()) {
                 try {
                     this.demodulateMessages(messageQueue);
-                } catch (IOException e) {
+                } catch (IOException | InterruptedException e) {
                     throw new RuntimeException(e);
                 }
             } else {
+                // the optional second parameter is the speed of the replay, real time by default
+                double speed = (params.size() < 2)
+                        ? MessageReplay.REAL_TIME
+                        : params.get(1).equals(MAX_REPLAY_SPEED)
+                        ? MessageReplay.AS_FAST_AS_POSSIBLE
+                        : Double.parseDouble(params.get(1));
                 try {
-                    this.readMessagesFromFile(params.get(0), messageQueue);
-                } catch (IOException e) {
+                    this.readMessagesFromFile(params.get(0), speed, messageQueue);
+                } catch (IOException | InterruptedException e) {
                     throw new RuntimeException(e);
                 }
             }
@@ -128,23 +152,35 @@ public class Main extends Application {
         messageAccumulationThread.setDaemon(true);
         messageAccumulationThread.start();
 
+        // the state thread applies the messages to plain states at the rate they arrive, CPR decoding included, and
+        // publishes copies of the states that changed, so that the JavaFX thread only copies them once per frame
+        AircraftStateStore store = new AircraftStateStore();
+        Thread stateThread = new Thread(() -> {
+            long prevPurgeTimeStamp = System.nanoTime();
+            while (!Thread.currentThread().isInterrupted()) {
+                int applied = messageQueue.drainTo(store::update, MESSAGES_PER_PUBLICATION);
+                store.publish();
+                if (System.nanoTime() - prevPurgeTimeStamp > SECOND_NS) {
+                    store.purge();
+                    prevPurgeTimeStamp = System.nanoTime();
+                }
+                if (applied == 0) LockSupport.parkNanos(IDLE_PARK_NS);
+            }
+        });
+
+        stateThread.setDaemon(true);
+        stateThread.start();
+
         new AnimationTimer() {
             private long prevMethodCallTimeStamp;
 
             @Override
             public void handle(long now) {
-                try {
-                    while (!messageQueue.isEmpty()) {
-                        slc.messageCountProperty().setValue(slc.messageCountProperty().getValue() + 1);
-                        Message m = messageQueue.remove();
-                        if (m != null) asm.updateWithMessage(m);
-                        if (now - prevMethodCallTimeStamp > SECOND_NS) {
-                            asm.purge();
-                            this.prevMethodCallTimeStamp = now;
-                        }
-                    }
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
+                asm.apply(store.takePublished().values());
+                slc.messageCountProperty().set(store.updateCount());
+                if (now - prevMethodCallTimeStamp > SECOND_NS) {
+                    asm.purge();
+                    this.prevMethodCallTimeStamp = now;
                 }
             }
         }.start();
@@ -156,61 +192,42 @@ public class Main extends Application {
      * in a queue.
      *
      * @param messageQueue queue that stores the decoded messages.
-     * @throws IOException whenever error reading the System.in stream occurs
+     * @throws IOException          whenever error reading the System.in stream occurs
+     * @throws InterruptedException if the thread is interrupted while waiting for room in the queue
      */
-    public void demodulateMessages(ConcurrentLinkedQueue<Message> messageQueue) throws IOException {
+    public void demodulateMessages(SpscQueue<Message> messageQueue) throws IOException, InterruptedException {
 
         try (InputStream s = System.in) {
             AdsbDemodulator adm = new AdsbDemodulator(s);
-            while (true) {
-                RawMessage nextMessage = adm.nextMessage();
-                if (nextMessage != null) {
-                    Message m = MessageParser.parse(nextMessage);
-                    if (m != null)
-                        messageQueue.add(m);
-                }
-            }
+            Iterator<Message> messages = MessageStreams.parse(MessageStreams.rawMessages(adm)).iterator();
+            while (messages.hasNext())
+                messageQueue.put(messages.next());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
     }
 
 
     /**
-     * Method for reading messages from file. The thread places the messages in the queue according to their timestamp, putting
-     * execution to sleep if necessary.
+     * Method for reading messages from file. The thread places the messages in the queue according to their timestamp,
+     * replaying them at the given speed.
      *
      * @param fileName     name of file
+     * @param speed        speed of the replay, as a multiple of the original timing
      * @param messageQueue queue that stores messages from file.
-     * @throws IOException whenever error while reading the input file stream occurs
+     * @throws IOException          whenever error while reading the input file occurs
+     * @throws InterruptedException if the thread is interrupted while waiting for a message or for room in the queue
      */
 
 
-    public void readMessagesFromFile(String fileName, ConcurrentLinkedQueue<Message> messageQueue) throws IOException {
-
-
-        try (DataInputStream s = new DataInputStream((new BufferedInputStream(new FileInputStream(Objects.requireNonNull(getClass().getResource(fileName)).getFile()))))) {
-            byte[] bytes = new byte[RawMessage.LENGTH];
-
-            long start = System.nanoTime();
+    public void readMessagesFromFile(String fileName, double speed, SpscQueue<Message> messageQueue)
+            throws IOException, InterruptedException {
 
-            while (true) {
-                long timeStampNs = s.readLong();
-                long currentTime = System.nanoTime();
-
-                Thread.sleep((long) (
-                        Math.max(0, (timeStampNs - (currentTime - start))) / NS_TO_MILLIS));
-
-                int bytesRead = s.readNBytes(bytes, 0, bytes.length);
-                assert bytesRead == RawMessage.LENGTH;
-                RawMessage rm = RawMessage.of(timeStampNs, bytes);
-                Message m;
-                if (rm != null) {
-                    m = MessageParser.parse(rm);
-                    if (m != null)
-                        messageQueue.add(m);
-                }
-            }
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
+        Path file = Path.of(Objects.requireNonNull(getClass().getResource(fileName)).getFile());
+        try (MessageReplay replay = new MessageReplay(file, speed)) {
+            Message m;
+            while ((m = replay.next()) != null)
+                messageQueue.put(m);
         }
     }
 
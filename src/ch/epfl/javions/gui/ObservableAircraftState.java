@@ -32,7 +32,7 @@ public final class ObservableAircraftState implements AircraftStateSetter {
     }
 
     private final IcaoAddress icaoAddress;
-    private final AircraftData aircraftData;
+    private final ObjectProperty<AircraftData> aircraftData;
     private final LongProperty lastMessageTimeStampNs;
     private final IntegerProperty category;
     private final ObjectProperty<CallSign> callSign;
@@ -48,12 +48,12 @@ public final class ObservableAircraftState implements AircraftStateSetter {
      * trajectory that is calculated automatically)
      *
      * @param icaoAddress  of the aircraft
-     * @param aircraftData of the aircraft
+     * @param aircraftData of the aircraft, null if it is not known (yet)
      */
     public ObservableAircraftState(IcaoAddress icaoAddress, AircraftData aircraftData) {
 
         this.icaoAddress = icaoAddress;
-        this.aircraftData = aircraftData;
+        this.aircraftData = new SimpleObjectProperty<>(aircraftData);
         this.lastMessageTimeStampNs = new SimpleLongProperty();
         this.category = new SimpleIntegerProperty();
         this.callSign = new SimpleObjectProperty<>();
@@ -85,9 +85,28 @@ public final class ObservableAircraftState implements AircraftStateSetter {
      */
 
     public AircraftData getAircraftData() {
+        return this.aircraftData.get();
+    }
+
+    /**
+     * Access the aircraft data property. The data of an aircraft is looked up asynchronously, so that it may only
+     * become available after the state has been created.
+     *
+     * @return aircraft data property
+     */
+    public ReadOnlyObjectProperty<AircraftData> aircraftDataProperty() {
         return this.aircraftData;
     }
 
+    /**
+     * Sets the data of the aircraft, once it has been looked up.
+     *
+     * @param aircraftData data of the aircraft
+     */
+    public void setAircraftData(AircraftData aircraftData) {
+        this.aircraftData.set(aircraftData);
+    }
+
     /**
      * Getter to access the registration
      *
@@ -95,7 +114,7 @@ public final class ObservableAircraftState implements AircraftStateSetter {
      */
 
     public AircraftRegistration getRegistration() {
-        return aircraftData.registration();
+        return getAircraftData().registration();
     }
 
     /**
@@ -105,7 +124,7 @@ public final class ObservableAircraftState implements AircraftStateSetter {
      */
 
     public AircraftTypeDesignator getTypeDesignator() {
-        return aircraftData.typeDesignator();
+        return getAircraftData().typeDesignator();
     }
 
     /**
@@ -114,7 +133,7 @@ public final class ObservableAircraftState implements AircraftStateSetter {
      * @return aircraft's model
      */
     public String getModel() {
-        return aircraftData.model();
+        return getAircraftData().model();
     }
 
     /**
@@ -124,7 +143,7 @@ public final class ObservableAircraftState implements AircraftStateSetter {
      */
 
     public AircraftDescription getDescription() {
-        return aircraftData.description();
+        return getAircraftData().description();
     }
 
     /**
@@ -134,7 +153,7 @@ public final class ObservableAircraftState implements AircraftStateSetter {
      */
 
     public WakeTurbulenceCategory getWakeTurbulenceCategory() {
-        return aircraftData.wakeTurbulenceCategory();
+        return getAircraftData().wakeTurbulenceCategory();
     }
 
     /**
@@ -0,0 +1,156 @@
+package ch.epfl.javions.pipeline;
+
+import ch.epfl.javions.adsb.AircraftState;
+import ch.epfl.javions.adsb.AircraftStateAccumulator;
+import ch.epfl.javions.adsb.Message;
+import ch.epfl.javions.aircraft.IcaoAddress;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Store of the plain states of the aircraft, updated by a single worker thread at the rate of the messages, and
+ * publishing copies of the states that changed to another thread, typically the JavaFX thread, which takes them once
+ * per frame. The states themselves are confined to the worker thread: only {@link #takePublished()} and the counters
+ * may be called from other threads.
+ * <p>
+ * Between two calls to {@link #takePublished()}, only the latest copy of each aircraft is kept, so the consumer never
+ * sees more than one change per aircraft and frame. The aircraft that stop sending messages are forgotten once their
+ * time to live has elapsed, through an {@link ExpiryWheel}.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class AircraftStateStore {
+
+    // Default time to live of the state of an aircraft that stopped sending messages, one minute
+    public static final long DEFAULT_TTL_NS = 60_000_000_000L;
+
+    private final Map<IcaoAddress, AircraftStateAccumulator<AircraftState>> accumulators;
+    private final Map<IcaoAddress, AircraftState> states;
+    // states updated since the last publication, in the order of their first update
+    private final Set<AircraftState> changedStates;
+    private final Object lock;
+    // copies of the changed states waiting to be taken, guarded by lock
+    private Map<IcaoAddress, AircraftState> published;
+    private final ExpiryWheel<IcaoAddress> expiries;
+    private final AtomicLong updateCount;
+    private long lastTimeStampNs;
+
+    /**
+     * Instantiates an empty store, forgetting the aircraft after the default time to live.
+     */
+    public AircraftStateStore() {
+        this(DEFAULT_TTL_NS);
+    }
+
+    /**
+     * Instantiates an empty store.
+     *
+     * @param ttlNs time during which the state of an aircraft that stopped sending messages is kept, in nanoseconds
+     * @throws IllegalArgumentException if the time to live is not strictly positive
+     */
+    public AircraftStateStore(long ttlNs) {
+        this.expiries = new ExpiryWheel<>(ttlNs);
+        this.accumulators = new HashMap<>();
+        this.states = new HashMap<>();
+        this.changedStates = new LinkedHashSet<>();
+        this.lock = new Object();
+        this.published = new HashMap<>();
+        this.updateCount = new AtomicLong();
+    }
+
+    /**
+     * Updates the state of the aircraft that sent the given message, creating it if it is the first message of this
+     * aircraft. Must only be called by the worker thread.
+     *
+     * @param message message sent by an aircraft
+     */
+    public void update(Message message) {
+        AircraftStateAccumulator<AircraftState> accumulator =
+                this.accumulators.computeIfAbsent(message.icaoAddress(), a -> {
+                    AircraftState state = new AircraftState(a);
+                    this.states.put(a, state);
+                    return new AircraftStateAccumulator<>(state);
+                });
+        accumulator.update(message);
+        this.expiries.touch(message.icaoAddress(), message.timeStampNs());
+        this.changedStates.add(accumulator.stateSetter());
+        this.lastTimeStampNs = Math.max(this.lastTimeStampNs, message.timeStampNs());
+        this.updateCount.incrementAndGet();
+    }
+
+    /**
+     * Publishes a copy of every state that changed since the last publication, replacing the copies of the same
+     * aircraft that have not been taken yet. Must only be called by the worker thread.
+     */
+    public void publish() {
+        if (this.changedStates.isEmpty()) return;
+        List<AircraftState> copies = new ArrayList<>(this.changedStates.size());
+        for (AircraftState s : this.changedStates) copies.add(new AircraftState(s));
+        this.changedStates.clear();
+        synchronized (this.lock) {
+            for (AircraftState c : copies) this.published.put(c.icaoAddress(), c);
+        }
+    }
+
+    /**
+     * Takes the copies published since the last call. May be called from any thread.
+     *
+     * @return the latest published copy of every aircraft that changed, by address
+     */
+    public Map<IcaoAddress, AircraftState> takePublished() {
+        synchronized (this.lock) {
+            if (this.published.isEmpty()) return Map.of();
+            Map<IcaoAddress, AircraftState> taken = this.published;
+            this.published = new HashMap<>();
+            return taken;
+        }
+    }
+
+    /**
+     * Removes the states of the aircraft whose time to live has elapsed at the time of the most recent message
+     * received. Must only be called by the worker thread.
+     *
+     * @return number of states removed
+     */
+    public int purge() {
+        return this.purge(this.lastTimeStampNs);
+    }
+
+    /**
+     * Removes the states of the aircraft whose time to live has elapsed at the given time, which lets the caller
+     * forget the aircraft even when no message is received anymore. Must only be called by the worker thread.
+     *
+     * @param nowNs current time, in the time base of the timestamps of the messages
+     * @return number of states removed
+     */
+    public int purge(long nowNs) {
+        return this.expiries.expire(nowNs, a -> {
+            this.accumulators.remove(a);
+            this.changedStates.remove(this.states.remove(a));
+        });
+    }
+
+    /**
+     * @return timestamp of the most recent message applied to the store, in nanoseconds
+     */
+    public long lastTimeStampNs() {
+        return this.lastTimeStampNs;
+    }
+
+    /**
+     * Gives the states of the aircraft, by address. Must only be used by the worker thread.
+     *
+     * @return unmodifiable view of the states of the aircraft
+     */
+    public Map<IcaoAddress, AircraftState> states() {
+        return Collections.unmodifiableMap(this.states);
+    }
+
+    /**
+     * @return number of messages applied to the store so far. May be called from any thread.
+     */
+    public long updateCount() {
+        return this.updateCount.get();
+    }
+}
@@ -0,0 +1,460 @@
+package ch.epfl.javions.pipeline;
+
+import ch.epfl.javions.GeoPos;
+import ch.epfl.javions.Preconditions;
+import ch.epfl.javions.adsb.AircraftState;
+import ch.epfl.javions.adsb.AircraftStateAccumulator;
+import ch.epfl.javions.adsb.CallSign;
+import ch.epfl.javions.adsb.CprDecoder;
+import ch.epfl.javions.adsb.MessageSink;
+import ch.epfl.javions.aircraft.IcaoAddress;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Table of the states of the aircraft, updated with the fields of the parsed messages through the primitive
+ * callbacks of {@link MessageSink}, and storing them in primitive columns indexed by the slot of each aircraft in an
+ * open addressing table. Once an aircraft has been seen, updating its state allocates nothing, so that a headless
+ * pipeline can parse and apply a message without any allocation. The states are updated like by an
+ * {@link AircraftStateAccumulator}, whose rule decoding the positions out of the pairs of position messages is
+ * shared through {@link AircraftStateAccumulator#decodePositionT32}.
+ * <p>
+ * Like the {@link AircraftStateStore}, the table is confined to a single worker thread, only the counter of updates
+ * being readable from other threads, and forgets the aircraft that stop sending messages once their time to live
+ * has elapsed. The expiries are driven by a timing wheel working like an {@link ExpiryWheel}, whose entries are the
+ * slots of the aircraft linked through primitive columns, and the expired aircraft are deleted in place by shifting
+ * back the aircraft that follow them, so that purging the table neither scans all the slots nor allocates.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class AircraftStateTable implements MessageSink {
+
+    // initial number of slots, a power of two
+    private static final int INITIAL_CAPACITY = 1 << 8;
+    // marks a free slot, no address having its strongest bits set
+    private static final int FREE = -1;
+    // marks an unknown call sign, which is not a valid encoded call sign
+    private static final long NO_CALL_SIGN = -1;
+    // timestamp of the position messages that have not been received
+    private static final long NO_TIME_STAMP = Long.MIN_VALUE;
+    // marks the end of a list of slots of the wheel
+    private static final int NO_SLOT = -1;
+    // value of the last processed tick before the first purge
+    private static final long NO_TICK = Long.MIN_VALUE;
+
+    private final long ttlNs;
+    private final long tickNs;
+    // first slot of the aircraft of each tick of the wheel, the others being linked through the columns of the slots
+    private final int[] ticks;
+    private final int tickMask;
+    // last tick whose aircraft have been processed
+    private long processedTick;
+    private final AtomicLong updateCount;
+    private int[] addresses;
+    private long[] lastTimeStamps;
+    private int[] categories;
+    private long[] callSigns;
+    private long[] positions;
+    private double[] altitudes;
+    private double[] velocities;
+    private double[] tracksOrHeadings;
+    // last position message of each parity of each aircraft, at index 2 * slot + parity
+    private double[] cprXs;
+    private double[] cprYs;
+    private long[] cprTimeStamps;
+    // tick of the wheel at which each aircraft may have expired, and its neighbours in the list of that tick
+    private long[] deadlineTicks;
+    private int[] nextSlots;
+    private int[] previousSlots;
+    private int size;
+    private long lastTimeStampNs;
+
+    /**
+     * Instantiates an empty table, forgetting the aircraft after the default time to live of the store.
+     */
+    public AircraftStateTable() {
+        this(AircraftStateStore.DEFAULT_TTL_NS);
+    }
+
+    /**
+     * Instantiates an empty table.
+     *
+     * @param ttlNs time during which the state of an aircraft that stopped sending messages is kept, in nanoseconds
+     * @throws IllegalArgumentException if the time to live is not strictly positive
+     */
+    public AircraftStateTable(long ttlNs) {
+        Preconditions.checkArgument(ttlNs > 0);
+        this.ttlNs = ttlNs;
+        this.tickNs = Math.max(1, ttlNs / ExpiryWheel.DEFAULT_TICKS_PER_TTL);
+        // the ticks cover one more tick than the time to live, so that a scheduled aircraft never lands in the current
+        // tick
+        int tickCount = Integer.highestOneBit((int) (ttlNs / this.tickNs) + 1) << 1;
+        this.ticks = new int[tickCount];
+        Arrays.fill(this.ticks, NO_SLOT);
+        this.tickMask = tickCount - 1;
+        this.processedTick = NO_TICK;
+        this.updateCount = new AtomicLong();
+        this.allocate(INITIAL_CAPACITY);
+    }
+
+    @Override
+    public void identification(long timeStampNs, int icaoAddress, int category, long callSign) {
+        int slot = this.update(timeStampNs, icaoAddress);
+        this.categories[slot] = category;
+        this.callSigns[slot] = callSign;
+    }
+
+    @Override
+    public void airbornePosition(long timeStampNs, int icaoAddress, double altitude, int parity, double x, double y) {
+        int slot = this.update(timeStampNs, icaoAddress);
+        this.altitudes[slot] = altitude;
+
+        int other = 2 * slot + (1 - parity);
+        long otherTimeStampNs = this.cprTimeStamps[other];
+        if (otherTimeStampNs != NO_TIME_STAMP) {
+            long position = AircraftStateAccumulator.decodePositionT32(
+                    timeStampNs, parity, x, y, otherTimeStampNs, this.cprXs[other], this.cprYs[other]);
+            if (position != CprDecoder.NO_POSITION) this.positions[slot] = position;
+        }
+
+        int own = 2 * slot + parity;
+        this.cprXs[own] = x;
+        this.cprYs[own] = y;
+        this.cprTimeStamps[own] = timeStampNs;
+    }
+
+    @Override
+    public void airborneVelocity(long timeStampNs, int icaoAddress, double speed, double trackOrHeading) {
+        int slot = this.update(timeStampNs, icaoAddress);
+        this.velocities[slot] = speed;
+        this.tracksOrHeadings[slot] = trackOrHeading;
+    }
+
+    /**
+     * Forgets the aircraft that did not send any message during the time to live preceding the most recent message
+     * received.
+     *
+     * @return number of aircraft forgotten
+     */
+    public int purge() {
+        return this.purge(this.lastTimeStampNs);
+    }
+
+    /**
+     * Forgets the aircraft that did not send any message during the time to live preceding the given time. Only the
+     * aircraft of the ticks of the wheel elapsed since the last purge are visited, so an aircraft may be forgotten up
+     * to one tick, a 64th of the time to live, after its time to live has elapsed. Nothing is allocated.
+     *
+     * @param nowNs current time, in the time base of the timestamps of the messages
+     * @return number of aircraft forgotten
+     */
+    public int purge(long nowNs) {
+        long nowTick = Math.floorDiv(nowNs, this.tickNs);
+        if (nowTick <= this.processedTick) return 0;
+        // a jump of more than a whole turn visits every tick once
+        long from = (this.processedTick == NO_TICK)
+                ? nowTick - this.tickMask
+                : Math.max(this.processedTick + 1, nowTick - this.tickMask);
+        this.processedTick = nowTick;
+        int expired = 0;
+        for (long tick = from; tick <= nowTick; tick += 1) {
+            int t = (int) tick & this.tickMask;
+            int s = this.ticks[t];
+            while (s != NO_SLOT) {
+                int next = this.nextSlots[s];
+                if (this.deadlineTicks[s] <= nowTick) {
+                    this.unlink(s);
+                    if (nowNs - this.lastTimeStamps[s] >= this.ttlNs) {
+                        this.delete(s);
+                        expired += 1;
+                        // the deletion may have moved the next aircraft of the tick to another slot
+                        next = this.ticks[t];
+                    } else {
+                        // received a message since it was scheduled, the aircraft moves to the tick of its new deadline
+                        this.schedule(s);
+                    }
+                }
+                s = next;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * @return number of aircraft in the table
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return number of messages applied to the table so far. May be called from any thread.
+     */
+    public long updateCount() {
+        return this.updateCount.get();
+    }
+
+    /**
+     * @return timestamp of the most recent message applied to the table, in nanoseconds
+     */
+    public long lastTimeStampNs() {
+        return this.lastTimeStampNs;
+    }
+
+    /**
+     * Gives a copy of the state of the given aircraft.
+     *
+     * @param address address of the aircraft
+     * @return copy of the state of the aircraft, or null if it is not in the table
+     */
+    public AircraftState state(IcaoAddress address) {
+        int slot = this.find(address.value());
+        return (slot < 0) ? null : this.state(slot);
+    }
+
+    /**
+     * Gives a copy of the states of all the aircraft, for example to report them once the messages have been applied.
+     *
+     * @return unmodifiable map of the copies of the states of the aircraft, by address
+     */
+    public Map<IcaoAddress, AircraftState> states() {
+        Map<IcaoAddress, AircraftState> states = new HashMap<>();
+        for (int s = 0; s < this.addresses.length; s += 1) {
+            if (this.addresses[s] != FREE) {
+                AircraftState state = this.state(s);
+                states.put(state.icaoAddress(), state);
+            }
+        }
+        return Collections.unmodifiableMap(states);
+    }
+
+    /**
+     * Records that a message of the given aircraft has been received, adding the aircraft to the table if it is not
+     * in it yet.
+     *
+     * @param timeStampNs timestamp of the message
+     * @param address     address of the aircraft
+     * @return slot of the aircraft
+     */
+    private int update(long timeStampNs, int address) {
+        int slot = this.find(address);
+        boolean added = slot < 0;
+        if (added) {
+            if (2 * (this.size + 1) > this.addresses.length) this.grow();
+            slot = this.insert(address);
+        }
+        // the aircraft already in the wheel only move to the tick of their new deadline once the wheel reaches them
+        this.lastTimeStamps[slot] = timeStampNs;
+        if (added) this.schedule(slot);
+        this.lastTimeStampNs = Math.max(this.lastTimeStampNs, timeStampNs);
+        this.updateCount.lazySet(this.updateCount.get() + 1);
+        return slot;
+    }
+
+    /**
+     * @param address address of an aircraft
+     * @return slot of the aircraft, or -1 if it is not in the table
+     */
+    private int find(int address) {
+        int mask = this.addresses.length - 1;
+        for (int s = hash(address) & mask; ; s = (s + 1) & mask) {
+            int a = this.addresses[s];
+            if (a == address) return s;
+            if (a == FREE) return -1;
+        }
+    }
+
+    /**
+     * Inserts the given aircraft, none of its values being known yet.
+     *
+     * @param address address of an aircraft that is not in the table
+     * @return slot of the aircraft
+     */
+    private int insert(int address) {
+        int mask = this.addresses.length - 1;
+        int s = hash(address) & mask;
+        while (this.addresses[s] != FREE) s = (s + 1) & mask;
+        this.addresses[s] = address;
+        this.categories[s] = 0;
+        this.callSigns[s] = NO_CALL_SIGN;
+        this.positions[s] = CprDecoder.NO_POSITION;
+        this.altitudes[s] = Double.NaN;
+        this.velocities[s] = Double.NaN;
+        this.tracksOrHeadings[s] = 0;
+        this.cprTimeStamps[2 * s] = NO_TIME_STAMP;
+        this.cprTimeStamps[2 * s + 1] = NO_TIME_STAMP;
+        this.size += 1;
+        return s;
+    }
+
+    /**
+     * Deletes the aircraft of the given slot, which must have been unlinked from the wheel, by shifting back the
+     * aircraft that follow it and would not be found anymore behind a free slot.
+     *
+     * @param slot slot of the aircraft
+     */
+    private void delete(int slot) {
+        int mask = this.addresses.length - 1;
+        int free = slot;
+        for (int s = (slot + 1) & mask; this.addresses[s] != FREE; s = (s + 1) & mask) {
+            // an aircraft can fill the free slot if it lies between its home slot and its current one
+            int home = hash(this.addresses[s]) & mask;
+            if (((s - home) & mask) >= ((s - free) & mask)) {
+                this.move(s, free);
+                free = s;
+            }
+        }
+        this.addresses[free] = FREE;
+        this.size -= 1;
+    }
+
+    /**
+     * Moves the aircraft of the given slot, which is linked into the wheel, to the given free slot.
+     *
+     * @param from slot of the aircraft
+     * @param to   free slot
+     */
+    private void move(int from, int to) {
+        this.addresses[to] = this.addresses[from];
+        this.lastTimeStamps[to] = this.lastTimeStamps[from];
+        this.categories[to] = this.categories[from];
+        this.callSigns[to] = this.callSigns[from];
+        this.positions[to] = this.positions[from];
+        this.altitudes[to] = this.altitudes[from];
+        this.velocities[to] = this.velocities[from];
+        this.tracksOrHeadings[to] = this.tracksOrHeadings[from];
+        for (int parity = 0; parity < 2; parity += 1) {
+            this.cprXs[2 * to + parity] = this.cprXs[2 * from + parity];
+            this.cprYs[2 * to + parity] = this.cprYs[2 * from + parity];
+            this.cprTimeStamps[2 * to + parity] = this.cprTimeStamps[2 * from + parity];
+        }
+        this.deadlineTicks[to] = this.deadlineTicks[from];
+        int next = this.nextSlots[from];
+        int previous = this.previousSlots[from];
+        this.nextSlots[to] = next;
+        this.previousSlots[to] = previous;
+        if (previous != NO_SLOT) this.nextSlots[previous] = to;
+        else this.ticks[(int) this.deadlineTicks[to] & this.tickMask] = to;
+        if (next != NO_SLOT) this.previousSlots[next] = to;
+    }
+
+    /**
+     * Links the given slot into the list of the first tick at which its aircraft may have expired, which is never a
+     * tick that has already been processed.
+     *
+     * @param slot slot of an aircraft
+     */
+    private void schedule(int slot) {
+        long deadlineTick = Math.floorDiv(this.lastTimeStamps[slot] + this.ttlNs, this.tickNs);
+        if (this.processedTick != NO_TICK) deadlineTick = Math.max(deadlineTick, this.processedTick + 1);
+        this.deadlineTicks[slot] = deadlineTick;
+        int t = (int) deadlineTick & this.tickMask;
+        int next = this.ticks[t];
+        this.previousSlots[slot] = NO_SLOT;
+        this.nextSlots[slot] = next;
+        if (next != NO_SLOT) this.previousSlots[next] = slot;
+        this.ticks[t] = slot;
+    }
+
+    /**
+     * Unlinks the given slot from the list of its tick.
+     *
+     * @param slot slot of an aircraft
+     */
+    private void unlink(int slot) {
+        int next = this.nextSlots[slot];
+        int previous = this.previousSlots[slot];
+        if (previous != NO_SLOT) this.nextSlots[previous] = next;
+        else this.ticks[(int) this.deadlineTicks[slot] & this.tickMask] = next;
+        if (next != NO_SLOT) this.previousSlots[next] = previous;
+    }
+
+    /**
+     * Rebuilds the table with twice as many slots, which is the only operation allocating, and only happens while
+     * the number of aircraft in view grows. The wheel is rebuilt along, the aircraft being scheduled again.
+     */
+    private void grow() {
+        int[] addresses = this.addresses;
+        long[] lastTimeStamps = this.lastTimeStamps;
+        int[] categories = this.categories;
+        long[] callSigns = this.callSigns;
+        long[] positions = this.positions;
+        double[] altitudes = this.altitudes;
+        double[] velocities = this.velocities;
+        double[] tracksOrHeadings = this.tracksOrHeadings;
+        double[] cprXs = this.cprXs;
+        double[] cprYs = this.cprYs;
+        long[] cprTimeStamps = this.cprTimeStamps;
+
+        this.allocate(2 * addresses.length);
+        Arrays.fill(this.ticks, NO_SLOT);
+        for (int o = 0; o < addresses.length; o += 1) {
+            if (addresses[o] == FREE) continue;
+            int s = this.insert(addresses[o]);
+            this.lastTimeStamps[s] = lastTimeStamps[o];
+            this.categories[s] = categories[o];
+            this.callSigns[s] = callSigns[o];
+            this.positions[s] = positions[o];
+            this.altitudes[s] = altitudes[o];
+            this.velocities[s] = velocities[o];
+            this.tracksOrHeadings[s] = tracksOrHeadings[o];
+            for (int parity = 0; parity < 2; parity += 1) {
+                this.cprXs[2 * s + parity] = cprXs[2 * o + parity];
+                this.cprYs[2 * s + parity] = cprYs[2 * o + parity];
+                this.cprTimeStamps[2 * s + parity] = cprTimeStamps[2 * o + parity];
+            }
+            this.schedule(s);
+        }
+    }
+
+    /**
+     * Replaces the columns by empty ones of the given number of slots.
+     *
+     * @param capacity number of slots, a power of two
+     */
+    private void allocate(int capacity) {
+        this.addresses = new int[capacity];
+        Arrays.fill(this.addresses, FREE);
+        this.lastTimeStamps = new long[capacity];
+        this.categories = new int[capacity];
+        this.callSigns = new long[capacity];
+        this.positions = new long[capacity];
+        this.altitudes = new double[capacity];
+        this.velocities = new double[capacity];
+        this.tracksOrHeadings = new double[capacity];
+        this.cprXs = new double[2 * capacity];
+        this.cprYs = new double[2 * capacity];
+        this.cprTimeStamps = new long[2 * capacity];
+        this.deadlineTicks = new long[capacity];
+        this.nextSlots = new int[capacity];
+        this.previousSlots = new int[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * @param slot slot of an aircraft
+     * @return copy of the state of the aircraft
+     */
+    private AircraftState state(int slot) {
+        AircraftState state = new AircraftState(IcaoAddress.of(this.addresses[slot]));
+        state.setLastMessageTimeStampNs(this.lastTimeStamps[slot]);
+        state.setCategory(this.categories[slot]);
+        if (this.callSigns[slot] != NO_CALL_SIGN) state.setCallSign(CallSign.of(this.callSigns[slot]));
+        long position = this.positions[slot];
+        if (position != CprDecoder.NO_POSITION)
+            state.setPosition(new GeoPos(CprDecoder.longitudeT32(position), CprDecoder.latitudeT32(position)));
+        state.setAltitude(this.altitudes[slot]);
+        state.setVelocity(this.velocities[slot]);
+        state.setTrackOrHeading(this.tracksOrHeadings[slot]);
+        return state;
+    }
+
+    // spreads the allocation blocks of the addresses, which share their high bits, over the whole table
+    private static int hash(int address) {
+        return (address * 0x9E3779B1) ^ (address >>> 16);
+    }
+}
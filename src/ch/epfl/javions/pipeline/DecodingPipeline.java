@@ -0,0 +1,204 @@
+package ch.epfl.javions.pipeline;
+
+import ch.epfl.javions.Preconditions;
+import ch.epfl.javions.adsb.*;
+import ch.epfl.javions.aircraft.IcaoAddress;
+import ch.epfl.javions.demodulation.AdsbDemodulator;
+import ch.epfl.javions.demodulation.SampleSource;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless decoding pipeline, running without any JavaFX dependency. The samples of a source go through two stages,
+ * each of them running on its own thread: the demodulation of the raw messages, and their decoding, which parses them
+ * into an {@link AircraftStateTable} through {@link MessageParser#parse(RawMessage, MessageSink)}, so that no object
+ * is allocated between a raw message and the update of the state of its aircraft. The stages are connected by a
+ * bounded queue of batches of raw messages, so that the cost of the hand-off between the two threads is shared by all
+ * the messages of a batch, and a slow decoding eventually blocks the demodulation instead of letting the queue grow
+ * without bound. The aircraft that stopped sending messages are purged from the table about once per second of
+ * message time, like the graphical interface purges its store.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class DecodingPipeline implements AutoCloseable {
+
+    // Default number of batches the queue can hold
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+    // Default number of messages handed over at once from a stage to the next
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    // Time between two purges of the table, in the time base of the timestamps of the messages
+    private static final long PURGE_INTERVAL_NS = 1_000_000_000L;
+    // Marker put in a queue once the stage feeding it has stopped
+    private static final List<?> END = new ArrayList<>(0);
+
+    private final SampleSource source;
+    private final CrcErrorCorrector corrector;
+    private final int batchSize;
+    private final BlockingQueue<List<RawMessage>> rawMessages;
+    private final List<Thread> threads;
+    private final AircraftStateTable table;
+    private final AtomicLong rawMessageCount;
+    private final AtomicLong messageCount;
+    private volatile IOException failure;
+
+    /**
+     * Instantiates a pipeline decoding the given source with the default queue capacity and batch size, each stage
+     * running on a daemon thread.
+     *
+     * @param source source of the samples
+     */
+    public DecodingPipeline(SampleSource source) {
+        this(source, new CrcErrorCorrector(CrcErrorCorrector.Mode.NONE), DEFAULT_QUEUE_CAPACITY, DEFAULT_BATCH_SIZE,
+                r -> {
+                    Thread t = new Thread(r);
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /**
+     * Instantiates a pipeline decoding the given source. Live sources should use small batches, since a batch is only
+     * handed over to the next stage once it is full or the source has ended.
+     *
+     * @param source        source of the samples
+     * @param corrector     corrector building the raw messages out of the demodulated frames
+     * @param queueCapacity number of batches the queue can hold
+     * @param batchSize     number of messages handed over at once from a stage to the next
+     * @param threadFactory factory creating the threads of the stages
+     * @throws IllegalArgumentException if the queue capacity or the batch size is not strictly positive
+     * @throws NullPointerException     if the source or the corrector is null
+     */
+    public DecodingPipeline(SampleSource source, CrcErrorCorrector corrector, int queueCapacity, int batchSize,
+                            ThreadFactory threadFactory) {
+        Preconditions.checkArgument(queueCapacity > 0 && batchSize > 0);
+        this.source = Objects.requireNonNull(source);
+        this.corrector = Objects.requireNonNull(corrector);
+        this.batchSize = batchSize;
+        this.rawMessages = new ArrayBlockingQueue<>(queueCapacity);
+        this.table = new AircraftStateTable();
+        this.rawMessageCount = new AtomicLong();
+        this.messageCount = new AtomicLong();
+        this.threads = List.of(
+                threadFactory.newThread(this::demodulate),
+                threadFactory.newThread(this::decode));
+    }
+
+    /**
+     * Starts the threads of all the stages.
+     */
+    public void start() {
+        this.threads.forEach(Thread::start);
+    }
+
+    /**
+     * Waits until all the stages have stopped, which happens once the whole source has been decoded.
+     *
+     * @throws IOException          if the demodulation stopped because of an error while reading the source
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void await() throws IOException, InterruptedException {
+        for (Thread t : this.threads) t.join();
+        if (this.failure != null) throw this.failure;
+    }
+
+    /**
+     * @return number of raw messages demodulated so far
+     */
+    public long rawMessageCount() {
+        return this.rawMessageCount.get();
+    }
+
+    /**
+     * @return number of raw messages that could be parsed so far
+     */
+    public long messageCount() {
+        return this.messageCount.get();
+    }
+
+    /**
+     * @return number of messages applied to the state of their aircraft so far
+     */
+    public long updateCount() {
+        return this.table.updateCount();
+    }
+
+    /**
+     * Gives a copy of the states of the aircraft that sent a message during the time to live of the table, by
+     * address. The states are owned by the last stage and must only be read once the pipeline has been awaited.
+     *
+     * @return unmodifiable map of the copies of the states of the aircraft
+     */
+    public Map<IcaoAddress, AircraftState> states() {
+        return this.table.states();
+    }
+
+    /**
+     * Stops all the stages.
+     */
+    @Override
+    public void close() {
+        this.threads.forEach(Thread::interrupt);
+    }
+
+    /**
+     * First stage, demodulating the source until its end.
+     */
+    private void demodulate() {
+        try {
+            try {
+                AdsbDemodulator demodulator = new AdsbDemodulator(this.source, this.corrector);
+                List<RawMessage> batch = new ArrayList<>(this.batchSize);
+                RawMessage m;
+                while ((m = demodulator.nextMessage()) != null) {
+                    batch.add(m);
+                    if (batch.size() == this.batchSize) {
+                        this.rawMessageCount.addAndGet(batch.size());
+                        this.rawMessages.put(batch);
+                        batch = new ArrayList<>(this.batchSize);
+                    }
+                }
+                this.rawMessageCount.addAndGet(batch.size());
+                if (!batch.isEmpty()) this.rawMessages.put(batch);
+            } catch (IOException e) {
+                this.failure = e;
+            }
+            this.rawMessages.put(end());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Last stage, parsing the raw messages straight into the states of the aircraft they come from, and purging the
+     * aircraft that stopped sending messages after each batch once a second of message time has elapsed.
+     */
+    private void decode() {
+        try {
+            long prevPurgeTimeStampNs = 0;
+            List<RawMessage> batch;
+            while ((batch = this.rawMessages.take()) != END) {
+                int parsed = 0;
+                for (RawMessage r : batch) {
+                    if (MessageParser.parse(r, this.table)) parsed += 1;
+                }
+                this.messageCount.addAndGet(parsed);
+                if (this.table.lastTimeStampNs() - prevPurgeTimeStampNs >= PURGE_INTERVAL_NS) {
+                    this.table.purge();
+                    prevPurgeTimeStampNs = this.table.lastTimeStampNs();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> end() {
+        return (List<T>) END;
+    }
+}
@@ -0,0 +1,200 @@
+package ch.epfl.javions.pipeline;
+
+import ch.epfl.javions.Preconditions;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel expiring the keys that have not been touched during a given time to live. Time is divided into
+ * ticks, and every key is linked into the slot of the wheel of the first tick at which it may have expired. Touching a
+ * key only records its timestamp: the key stays in its slot, and is moved further only once the wheel reaches its slot
+ * and finds that it has been touched since. Expiring the keys therefore only visits the slots of the ticks elapsed
+ * since the last call, along with the keys they hold, so that its amortized cost is proportional to the number of
+ * expired keys rather than to the number of keys, each live key being moved about once per time to live.
+ * <p>
+ * Keys expire with the granularity of a tick, at most one tick after their time to live has elapsed. The timestamps
+ * may come from any clock, for example the timestamps of the messages. Instances are not thread safe.
+ *
+ * @param <K> type of the keys
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class ExpiryWheel<K> {
+
+    // Default number of ticks per time to live
+    public static final int DEFAULT_TICKS_PER_TTL = 64;
+    // Value of the last processed tick before the first expiration
+    private static final long NO_TICK = Long.MIN_VALUE;
+
+    private final long ttlNs;
+    private final long tickNs;
+    private final Entry<K>[] slots;
+    private final int mask;
+    private final Map<K, Entry<K>> entries;
+    // last tick whose slot has been processed
+    private long processedTick;
+
+    /**
+     * Instantiates an empty wheel with the given time to live and the default number of ticks per time to live.
+     *
+     * @param ttlNs time to live of the keys, in nanoseconds
+     * @throws IllegalArgumentException if the time to live is not strictly positive
+     */
+    public ExpiryWheel(long ttlNs) {
+        this(ttlNs, Math.max(1, ttlNs / DEFAULT_TICKS_PER_TTL));
+    }
+
+    /**
+     * Instantiates an empty wheel with the given time to live and the given tick duration.
+     *
+     * @param ttlNs  time to live of the keys, in nanoseconds
+     * @param tickNs duration of a tick, in nanoseconds
+     * @throws IllegalArgumentException if the tick duration is not strictly positive, is larger than the time to live,
+     *                                  or divides it into more than 2^20 ticks
+     */
+    @SuppressWarnings("unchecked")
+    public ExpiryWheel(long ttlNs, long tickNs) {
+        Preconditions.checkArgument(0 < tickNs && tickNs <= ttlNs);
+        Preconditions.checkArgument(ttlNs / tickNs < 1 << 20);
+        this.ttlNs = ttlNs;
+        this.tickNs = tickNs;
+        // the slots cover one more tick than the time to live, so that a moved key never lands in the current slot
+        int size = Integer.highestOneBit((int) (ttlNs / tickNs) + 1) << 1;
+        this.slots = (Entry<K>[]) new Entry<?>[size];
+        this.mask = size - 1;
+        this.entries = new HashMap<>();
+        this.processedTick = NO_TICK;
+    }
+
+    /**
+     * Records that the given key was active at the given time, adding it to the wheel if it is not in it yet.
+     *
+     * @param key         key
+     * @param timeStampNs time of the activity, in nanoseconds
+     * @throws NullPointerException if the key is null
+     */
+    public void touch(K key, long timeStampNs) {
+        Entry<K> e = this.entries.get(Objects.requireNonNull(key));
+        if (e == null) {
+            e = new Entry<>(key, timeStampNs);
+            this.entries.put(key, e);
+            this.schedule(e);
+        } else {
+            e.lastTimeStampNs = Math.max(e.lastTimeStampNs, timeStampNs);
+        }
+    }
+
+    /**
+     * Removes the given key from the wheel, if it is in it.
+     *
+     * @param key key
+     * @return true if the key was in the wheel
+     */
+    public boolean remove(K key) {
+        Entry<K> e = this.entries.remove(key);
+        if (e == null) return false;
+        this.unlink(e);
+        return true;
+    }
+
+    /**
+     * Removes the keys whose time to live has elapsed at the given time, passing each of them to the given consumer.
+     * The consumer must not modify the wheel.
+     *
+     * @param nowNs     current time, in nanoseconds
+     * @param onExpired consumer of the expired keys
+     * @return number of expired keys
+     */
+    public int expire(long nowNs, Consumer<? super K> onExpired) {
+        long nowTick = Math.floorDiv(nowNs, this.tickNs);
+        if (nowTick <= this.processedTick) return 0;
+        // a jump of more than a whole turn visits every slot once
+        long from = (this.processedTick == NO_TICK)
+                ? nowTick - this.mask
+                : Math.max(this.processedTick + 1, nowTick - this.mask);
+        this.processedTick = nowTick;
+        int count = 0;
+        for (long tick = from; tick <= nowTick; tick += 1) {
+            Entry<K> e = this.slots[(int) tick & this.mask];
+            while (e != null) {
+                Entry<K> next = e.next;
+                if (e.deadlineTick <= nowTick) {
+                    this.unlink(e);
+                    if (nowNs - e.lastTimeStampNs >= this.ttlNs) {
+                        this.entries.remove(e.key);
+                        onExpired.accept(e.key);
+                        count += 1;
+                    } else {
+                        // touched since it was scheduled, the key moves to the slot of its new deadline
+                        this.schedule(e);
+                    }
+                }
+                e = next;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return number of keys in the wheel
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * @return time to live of the keys, in nanoseconds
+     */
+    public long ttlNs() {
+        return this.ttlNs;
+    }
+
+    /**
+     * Links the given entry into the slot of the first tick at which it may have expired, which is never a tick that
+     * has already been processed.
+     *
+     * @param e entry to link
+     */
+    private void schedule(Entry<K> e) {
+        long deadline = e.lastTimeStampNs + this.ttlNs;
+        long deadlineTick = -Math.floorDiv(-deadline, this.tickNs);
+        if (this.processedTick != NO_TICK) deadlineTick = Math.max(deadlineTick, this.processedTick + 1);
+        e.deadlineTick = deadlineTick;
+        int slot = (int) deadlineTick & this.mask;
+        e.prev = null;
+        e.next = this.slots[slot];
+        if (e.next != null) e.next.prev = e;
+        this.slots[slot] = e;
+    }
+
+    /**
+     * Unlinks the given entry from its slot.
+     *
+     * @param e entry to unlink
+     */
+    private void unlink(Entry<K> e) {
+        if (e.prev != null) e.prev.next = e.next;
+        else this.slots[(int) e.deadlineTick & this.mask] = e.next;
+        if (e.next != null) e.next.prev = e.prev;
+        e.prev = null;
+        e.next = null;
+    }
+
+    /**
+     * Key of the wheel, linked with the other keys of its slot.
+     */
+    private static final class Entry<K> {
+        private final K key;
+        private long lastTimeStampNs;
+        private long deadlineTick;
+        private Entry<K> prev;
+        private Entry<K> next;
+
+        private Entry(K key, long lastTimeStampNs) {
+            this.key = key;
+            this.lastTimeStampNs = lastTimeStampNs;
+        }
+    }
+}
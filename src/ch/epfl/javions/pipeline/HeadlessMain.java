@@ -0,0 +1,75 @@
+package ch.epfl.javions.pipeline;
+
+import ch.epfl.javions.demodulation.AdsbDemodulator;
+import ch.epfl.javions.demodulation.MappedSampleSource;
+import ch.epfl.javions.demodulation.SampleSource;
+import ch.epfl.javions.demodulation.SamplesDecoder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry point decoding messages without any display. The samples are read from the capture file given as argument,
+ * or from the standard input if there is none, and the throughput of the pipeline is reported every second on the
+ * standard error.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class HeadlessMain {
+
+    // conversion factor from ns to s
+    private static final double NS_TO_SECONDS = 1e9;
+
+    /**
+     * Private constructor, no instantiation possible
+     */
+    private HeadlessMain() {
+    }
+
+    /**
+     * Decodes the samples of the given capture file, or of the standard input if there is no argument.
+     *
+     * @param args optional path of the capture file
+     * @throws IOException          whenever the samples cannot be read
+     * @throws InterruptedException if the main thread is interrupted while waiting for the pipeline
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        SampleSource source = (args.length == 0)
+                ? new SamplesDecoder(System.in, AdsbDemodulator.SAMPLES_BATCH_SIZE)
+                : new MappedSampleSource(Path.of(args[0]));
+
+        DecodingPipeline pipeline = new DecodingPipeline(source);
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r);
+            t.setDaemon(true);
+            return t;
+        });
+        long start = System.nanoTime();
+        reporter.scheduleAtFixedRate(() -> report(pipeline, start), 1, 1, TimeUnit.SECONDS);
+
+        pipeline.start();
+        try {
+            pipeline.await();
+        } finally {
+            reporter.shutdownNow();
+        }
+        report(pipeline, start);
+        System.err.printf("%d aircraft%n", pipeline.states().size());
+    }
+
+    /**
+     * Prints the counts of the pipeline and its average throughput since the given instant.
+     *
+     * @param pipeline pipeline whose counts are printed
+     * @param start    instant at which the pipeline was started, in nanoseconds
+     */
+    private static void report(DecodingPipeline pipeline, long start) {
+        double seconds = (System.nanoTime() - start) / NS_TO_SECONDS;
+        long messages = pipeline.updateCount();
+        System.err.printf("%d raw messages, %d messages, %.0f messages/s%n",
+                pipeline.rawMessageCount(), messages, messages / seconds);
+    }
+}
@@ -0,0 +1,155 @@
+package ch.epfl.javions.pipeline;
+
+import ch.epfl.javions.adsb.Message;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Publisher of the messages of a stream to a single subscriber, the messages being read from the stream and handed
+ * over on the given executor, only as far as the subscriber requested them. Since the stream may block while waiting
+ * for the next message, like the messages of a demodulator, the executor should not be shared with computations.
+ * The stream is closed once it has ended, failed or the subscription has been cancelled.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class MessagePublisher implements Flow.Publisher<Message> {
+
+    private final Stream<? extends Message> messages;
+    private final Executor executor;
+    private final AtomicBoolean subscribed;
+
+    /**
+     * Instantiates a publisher of the messages of the given stream.
+     *
+     * @param messages stream of the messages, which is consumed by the subscriber
+     * @param executor executor on which the messages are read and handed over
+     * @throws NullPointerException if the stream or the executor is null
+     */
+    public MessagePublisher(Stream<? extends Message> messages, Executor executor) {
+        this.messages = Objects.requireNonNull(messages);
+        this.executor = Objects.requireNonNull(executor);
+        this.subscribed = new AtomicBoolean();
+    }
+
+    /**
+     * Subscribes the given subscriber to the messages. Since the stream can only be consumed once, any subsequent
+     * subscriber receives an IllegalStateException through its onError method.
+     *
+     * @param subscriber subscriber
+     * @throws NullPointerException if the subscriber is null
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super Message> subscriber) {
+        Objects.requireNonNull(subscriber);
+        if (!this.subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("the messages have already been subscribed to"));
+            return;
+        }
+        subscriber.onSubscribe(new Subscription(subscriber));
+    }
+
+    /**
+     * Subscription of the single subscriber. Requests and cancellations only schedule a drain of the stream on the
+     * executor, a counter of the pending drains ensuring that a single drain runs at a time, even when the subscriber
+     * requests messages from its onNext method.
+     */
+    private final class Subscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super Message> subscriber;
+        // number of messages requested and not handed over yet
+        private final AtomicLong demand;
+        private final AtomicInteger pendingDrains;
+        private volatile boolean cancelled;
+        private volatile IllegalArgumentException invalidRequest;
+        // confined to the drains
+        private Iterator<? extends Message> iterator;
+        private boolean done;
+
+        private Subscription(Flow.Subscriber<? super Message> subscriber) {
+            this.subscriber = subscriber;
+            this.demand = new AtomicLong();
+            this.pendingDrains = new AtomicInteger();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0)
+                this.invalidRequest = new IllegalArgumentException("non-positive request: " + n);
+            else
+                this.demand.accumulateAndGet(n, (d, m) -> (d + m < 0) ? Long.MAX_VALUE : d + m);
+            this.schedule();
+        }
+
+        @Override
+        public void cancel() {
+            this.cancelled = true;
+            this.schedule();
+        }
+
+        private void schedule() {
+            if (this.pendingDrains.getAndIncrement() == 0) executor.execute(this::drain);
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                this.emit();
+                missed = this.pendingDrains.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Hands over as many messages as requested, and signals the end of the stream as soon as it is reached.
+         */
+        private void emit() {
+            if (this.done) return;
+            try {
+                if (this.iterator == null) this.iterator = messages.iterator();
+                while (true) {
+                    if (this.cancelled) {
+                        this.finish();
+                        return;
+                    }
+                    if (this.invalidRequest != null) {
+                        this.finish();
+                        this.subscriber.onError(this.invalidRequest);
+                        return;
+                    }
+                    if (!this.iterator.hasNext()) {
+                        this.finish();
+                        this.subscriber.onComplete();
+                        return;
+                    }
+                    if (this.demand.get() == 0) return;
+                    this.subscriber.onNext(this.iterator.next());
+                    this.demand.decrementAndGet();
+                }
+            } catch (RuntimeException e) {
+                if (this.done) return;
+                this.finish();
+                this.subscriber.onError(e);
+            }
+        }
+
+        private void finish() {
+            this.done = true;
+            messages.close();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package ch.epfl.javions.pipeline;
+
+import ch.epfl.javions.Preconditions;
+import ch.epfl.javions.adsb.Message;
+import ch.epfl.javions.aircraft.IcaoAddress;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Stage restoring the timestamp order of the messages of every aircraft before they are applied to its state, for
+ * example after they have been parsed in parallel or received by several receivers. The messages are held back until
+ * a message at least the maximal delay more recent has been seen, and then handed over in the order of their
+ * timestamps.
+ * <p>
+ * A message arriving later than that is still handed over if no more recent message of its aircraft has been handed
+ * over yet, since the order of the messages of different aircraft does not matter, and is dropped otherwise. The last
+ * timestamp of an aircraft is forgotten once the aircraft has been silent for a minute or so, like its state.
+ * Instances are not thread safe.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class MessageResequencer implements Consumer<Message> {
+
+    private final long maxDelayNs;
+    private final Consumer<? super Message> downstream;
+    private final PriorityQueue<Message> pending;
+    // timestamp of the last message handed over, by aircraft
+    private final Map<IcaoAddress, long[]> lastTimeStamps;
+    // time after which the last timestamp of a silent aircraft is forgotten
+    private final long memoryNs;
+    private long maxTimeStampNs;
+    private long lastSweepNs;
+    private long droppedCount;
+
+    /**
+     * Instantiates a resequencer handing the messages over to the given consumer.
+     *
+     * @param maxDelayNs maximal delay between a message and the more recent messages seen before it, in nanoseconds
+     * @param downstream consumer of the messages, in the timestamp order of each aircraft
+     * @throws IllegalArgumentException if the maximal delay is negative
+     * @throws NullPointerException     if the consumer is null
+     */
+    public MessageResequencer(long maxDelayNs, Consumer<? super Message> downstream) {
+        Preconditions.checkArgument(maxDelayNs >= 0);
+        this.maxDelayNs = maxDelayNs;
+        this.downstream = Objects.requireNonNull(downstream);
+        this.pending = new PriorityQueue<>(Comparator.comparingLong(Message::timeStampNs));
+        this.lastTimeStamps = new HashMap<>();
+        this.memoryNs = Math.max(maxDelayNs, AircraftStateStore.DEFAULT_TTL_NS);
+        this.maxTimeStampNs = Long.MIN_VALUE;
+        this.lastSweepNs = Long.MIN_VALUE;
+    }
+
+    /**
+     * Adds the given message, and hands over all the messages whose maximal delay has elapsed.
+     *
+     * @param message message
+     */
+    @Override
+    public void accept(Message message) {
+        long timeStampNs = message.timeStampNs();
+        long[] last = this.lastTimeStamps.get(message.icaoAddress());
+        if (last != null && timeStampNs < last[0]) {
+            this.droppedCount += 1;
+            return;
+        }
+        this.pending.add(message);
+        this.maxTimeStampNs = Math.max(this.maxTimeStampNs, timeStampNs);
+
+        long watermarkNs = this.maxTimeStampNs - this.maxDelayNs;
+        while (!this.pending.isEmpty() && this.pending.peek().timeStampNs() <= watermarkNs)
+            this.release(this.pending.poll());
+        // the aircraft in view being few, sweeping them once per memory is cheaper than tracking each of them
+        if (watermarkNs - this.lastSweepNs >= this.memoryNs || this.lastSweepNs == Long.MIN_VALUE) {
+            long forgottenNs = watermarkNs - this.memoryNs;
+            this.lastTimeStamps.values().removeIf(t -> t[0] < forgottenNs);
+            this.lastSweepNs = watermarkNs;
+        }
+    }
+
+    /**
+     * Hands over all the messages held back, typically once the source has ended.
+     */
+    public void flush() {
+        while (!this.pending.isEmpty()) this.release(this.pending.poll());
+    }
+
+    /**
+     * @return number of messages held back
+     */
+    public int pendingCount() {
+        return this.pending.size();
+    }
+
+    /**
+     * @return number of messages dropped because a more recent message of their aircraft had been handed over
+     */
+    public long droppedCount() {
+        return this.droppedCount;
+    }
+
+    /**
+     * Hands the given message over, recording its timestamp as the last one of its aircraft.
+     *
+     * @param message message
+     */
+    private void release(Message message) {
+        this.lastTimeStamps.computeIfAbsent(message.icaoAddress(), a -> new long[1])[0] = message.timeStampNs();
+        this.downstream.accept(message);
+    }
+}
@@ -0,0 +1,230 @@
+package ch.epfl.javions.pipeline;
+
+import ch.epfl.javions.Preconditions;
+import ch.epfl.javions.adsb.Message;
+import ch.epfl.javions.adsb.MessageParser;
+import ch.epfl.javions.adsb.RawMessage;
+import ch.epfl.javions.archive.MessageLogReader;
+import ch.epfl.javions.archive.RawMessageFileReader;
+import ch.epfl.javions.archive.RawMessageSource;
+import ch.epfl.javions.demodulation.AdsbDemodulator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Adapters turning the sources of messages into streams, and operators composing the stages of the decoding as
+ * operations on streams: the parsing of the raw messages, possibly in parallel, and the restoration of the timestamp
+ * order of each aircraft. The streams are sequential and lazy, each stage pulling the messages from the previous one,
+ * so that filters and sinks can be composed without any queue between them. Closing a stream closes the source it
+ * was made of.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class MessageStreams {
+
+    /**
+     * Private constructor, no instantiation possible
+     */
+    private MessageStreams() {
+    }
+
+    /**
+     * Gives the raw messages of the given demodulator as a stream, which demodulates them as they are consumed.
+     *
+     * @param demodulator demodulator
+     * @return stream of the raw messages, in the order of their timestamps
+     * @throws UncheckedIOException while the stream is consumed, whenever the samples cannot be read
+     */
+    public static Stream<RawMessage> rawMessages(AdsbDemodulator demodulator) {
+        return ((RawMessageSource) demodulator::nextMessage).stream();
+    }
+
+    /**
+     * Gives the raw messages of the given message log or file of raw records as a stream, which reads them as they
+     * are consumed. The file is closed with the stream.
+     *
+     * @param file path of the message log or of the file of raw records
+     * @return stream of the raw messages, in the order of their timestamps
+     * @throws IOException          whenever the file cannot be opened
+     * @throws UncheckedIOException while the stream is consumed, whenever the file cannot be read
+     */
+    public static Stream<RawMessage> rawMessages(Path file) throws IOException {
+        if (MessageLogReader.isLog(file)) {
+            MessageLogReader log = new MessageLogReader(file);
+            return log.all().stream().onClose(() -> close(log));
+        }
+        RawMessageFileReader records = new RawMessageFileReader(file);
+        return records.stream().onClose(() -> close(records));
+    }
+
+    /**
+     * Parses the raw messages of the given stream, dropping the ones that cannot be parsed.
+     *
+     * @param rawMessages stream of raw messages
+     * @return stream of the parsed messages, in the order of the raw messages
+     */
+    public static Stream<Message> parse(Stream<RawMessage> rawMessages) {
+        return rawMessages.map(MessageParser::parse).filter(Objects::nonNull);
+    }
+
+    /**
+     * Parses the raw messages of the given stream on the given executor, dropping the ones that cannot be parsed. The
+     * raw messages are read in batches by the thread consuming the stream, and the batches, which are independent of
+     * each other, are parsed concurrently. The parsed batches are consumed in the order in which their parsing ended,
+     * so the messages of different batches may be out of order, which {@link #resequence(Stream, long)} can restore
+     * with a maximal delay covering the time spanned by the given number of batches: a batch is only read once all the
+     * batches read more than that number of batches before it have been consumed.
+     * <p>
+     * A batch is only parsed once it is full, so live sources should use small batches, or {@link #parse(Stream)}.
+     *
+     * @param rawMessages        stream of raw messages
+     * @param executor           executor parsing the batches
+     * @param batchSize          number of raw messages per batch
+     * @param maxBatchesInFlight maximal distance between a batch being read and the oldest batch not consumed yet
+     * @return stream of the parsed messages, in the order of the raw messages within each batch
+     * @throws IllegalArgumentException if the batch size or the number of batches is not strictly positive
+     * @throws CancellationException    while the stream is consumed, if the thread is interrupted while waiting for a
+     *                                  batch
+     */
+    public static Stream<Message> parseInBatches(Stream<RawMessage> rawMessages, Executor executor, int batchSize,
+                                                 int maxBatchesInFlight) {
+        Preconditions.checkArgument(batchSize > 0 && maxBatchesInFlight > 0);
+        Spliterator<RawMessage> source = rawMessages.spliterator();
+        CompletionService<ParsedBatch> parsed = new ExecutorCompletionService<>(executor);
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<Message>(
+                Long.MAX_VALUE, Spliterator.NONNULL) {
+            // consumed batches that are not the oldest one, indexed by their sequence number modulo the window
+            private final boolean[] consumed = new boolean[maxBatchesInFlight];
+            private long nextSequence;
+            private long oldestSequence;
+            private int batchesInFlight;
+            private boolean ended;
+            private List<Message> batch = List.of();
+            private int position;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Message> action) {
+                while (this.position == this.batch.size()) {
+                    this.submit();
+                    if (this.batchesInFlight == 0) return false;
+                    this.batch = this.take();
+                    this.position = 0;
+                }
+                action.accept(this.batch.get(this.position++));
+                return true;
+            }
+
+            private void submit() {
+                while (!this.ended && this.nextSequence - this.oldestSequence < maxBatchesInFlight) {
+                    List<RawMessage> rawBatch = new ArrayList<>(batchSize);
+                    while (rawBatch.size() < batchSize) {
+                        if (!source.tryAdvance(rawBatch::add)) break;
+                    }
+                    this.ended = rawBatch.size() < batchSize;
+                    if (!rawBatch.isEmpty()) {
+                        long sequence = this.nextSequence++;
+                        parsed.submit(() -> new ParsedBatch(sequence, parse(rawBatch.stream()).toList()));
+                        this.batchesInFlight += 1;
+                    }
+                }
+            }
+
+            private List<Message> take() {
+                try {
+                    ParsedBatch b = parsed.take().get();
+                    this.batchesInFlight -= 1;
+                    this.consumed[(int) (b.sequence() % maxBatchesInFlight)] = true;
+                    while (this.oldestSequence < this.nextSequence
+                            && this.consumed[(int) (this.oldestSequence % maxBatchesInFlight)]) {
+                        this.consumed[(int) (this.oldestSequence % maxBatchesInFlight)] = false;
+                        this.oldestSequence += 1;
+                    }
+                    return b.messages();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    CancellationException c = new CancellationException("interrupted while waiting for a batch");
+                    c.initCause(e);
+                    throw c;
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException r) throw r;
+                    if (e.getCause() instanceof Error r) throw r;
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        }, false).onClose(rawMessages::close);
+    }
+
+    /**
+     * Restores the timestamp order of the messages of each aircraft, through a {@link MessageResequencer} whose held
+     * back messages are handed over once the given stream has ended.
+     *
+     * @param messages   stream of messages, which may be out of order
+     * @param maxDelayNs maximal delay between a message and the more recent messages preceding it, in nanoseconds
+     * @return stream of the messages, in the timestamp order of each aircraft
+     * @throws IllegalArgumentException if the maximal delay is negative
+     */
+    public static Stream<Message> resequence(Stream<Message> messages, long maxDelayNs) {
+        Spliterator<Message> source = messages.spliterator();
+        Deque<Message> released = new ArrayDeque<>();
+        MessageResequencer resequencer = new MessageResequencer(maxDelayNs, released::add);
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<Message>(
+                Long.MAX_VALUE, Spliterator.NONNULL) {
+            private boolean flushed;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Message> action) {
+                while (released.isEmpty()) {
+                    if (this.flushed) return false;
+                    if (!source.tryAdvance(resequencer)) {
+                        resequencer.flush();
+                        this.flushed = true;
+                    }
+                }
+                action.accept(released.poll());
+                return true;
+            }
+        }, false).onClose(messages::close);
+    }
+
+    /**
+     * Gives a publisher of the messages of the given stream, see {@link MessagePublisher}.
+     *
+     * @param messages stream of messages, which is consumed by the single subscriber of the publisher
+     * @param executor executor on which the messages are read and handed over
+     * @return publisher of the messages
+     */
+    public static Flow.Publisher<Message> publisher(Stream<? extends Message> messages, Executor executor) {
+        return new MessagePublisher(messages, executor);
+    }
+
+    /**
+     * Batch of parsed messages.
+     *
+     * @param sequence sequence number of the batch, in the order in which the batches were read
+     * @param messages parsed messages of the batch
+     */
+    private record ParsedBatch(long sequence, List<Message> messages) {
+    }
+
+    /**
+     * Closes the given file, as the close handler of a stream.
+     *
+     * @param file file
+     * @throws UncheckedIOException whenever the file cannot be closed
+     */
+    private static void close(Closeable file) {
+        try {
+            file.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
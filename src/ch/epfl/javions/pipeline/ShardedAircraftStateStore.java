@@ -0,0 +1,222 @@
+package ch.epfl.javions.pipeline;
+
+import ch.epfl.javions.Preconditions;
+import ch.epfl.javions.adsb.AircraftState;
+import ch.epfl.javions.adsb.Message;
+import ch.epfl.javions.aircraft.IcaoAddress;
+
+import java.util.*;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Store of the plain states of the aircraft split into shards, each of them owning the states of a subset of the
+ * aircraft and applying their messages on its own thread. A message is routed to a shard according to the address of
+ * the aircraft that sent it, so that all the messages of an aircraft are applied by the same thread, in the order they
+ * were given, while the messages of different aircraft are applied in parallel.
+ * <p>
+ * The messages are given by a single producer thread, each shard being fed through its own {@link SpscQueue}, and
+ * the shards publish the states that changed like an {@link AircraftStateStore}. Each shard also purges the aircraft
+ * that stopped sending messages about once per second of message time, the time being the one of the most recent
+ * message given to the store, so that the shards whose aircraft all left forget them as well.
+ * <p>
+ * A shard closes its queue whenever its thread stops, whether the store has been closed or the thread died, so that
+ * the producer drops the messages of the shard instead of waiting forever for room in its queue.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class ShardedAircraftStateStore implements AutoCloseable {
+
+    // Default number of messages each shard queue can hold
+    public static final int DEFAULT_QUEUE_CAPACITY = 1 << 14;
+    // Maximal number of messages a shard applies between two publications
+    private static final int MESSAGES_PER_PUBLICATION = 256;
+    // Time a shard sleeps whenever its queue is empty
+    private static final long IDLE_PARK_NS = TimeUnit.MICROSECONDS.toNanos(100);
+    // Time between two purges of a shard, in the time base of the timestamps of the messages
+    private static final long PURGE_INTERVAL_NS = 1_000_000_000L;
+
+    private final Shard[] shards;
+    // timestamp of the most recent message given by the producer, read by the shards to purge their aircraft
+    private final AtomicLong lastTimeStampNs;
+    // set by the producer once it has given its last message
+    private volatile boolean ended;
+    private volatile boolean closed;
+
+    /**
+     * Instantiates a store with the given number of shards and the default queue capacity, each shard running on a
+     * daemon thread.
+     *
+     * @param shardCount number of shards
+     * @throws IllegalArgumentException if the number of shards is not strictly positive
+     */
+    public ShardedAircraftStateStore(int shardCount) {
+        this(shardCount, DEFAULT_QUEUE_CAPACITY, r -> {
+            Thread t = new Thread(r);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Instantiates a store with the given number of shards.
+     *
+     * @param shardCount    number of shards
+     * @param queueCapacity number of messages the queue of each shard can hold
+     * @param threadFactory factory creating the threads of the shards
+     * @throws IllegalArgumentException if the number of shards or the capacity is not strictly positive
+     */
+    public ShardedAircraftStateStore(int shardCount, int queueCapacity, ThreadFactory threadFactory) {
+        Preconditions.checkArgument(shardCount > 0 && queueCapacity > 0);
+        this.lastTimeStampNs = new AtomicLong();
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i += 1) this.shards[i] = new Shard(queueCapacity, threadFactory);
+    }
+
+    /**
+     * Starts the threads of all the shards.
+     */
+    public void start() {
+        for (Shard s : this.shards) s.thread.start();
+    }
+
+    /**
+     * Gives the given message to the shard owning the aircraft that sent it, waiting for room in its queue if it is
+     * full. Must only be called by the producer thread.
+     *
+     * @param message message sent by an aircraft
+     * @return false if the message has been dropped because the store has been closed or the shard has stopped, true
+     * otherwise
+     * @throws InterruptedException if the producer is interrupted while waiting for room
+     */
+    public boolean update(Message message) throws InterruptedException {
+        if (this.closed) return false;
+        if (message.timeStampNs() > this.lastTimeStampNs.get()) this.lastTimeStampNs.setRelease(message.timeStampNs());
+        return this.shards[this.shardIndex(message.icaoAddress())].queue.put(message);
+    }
+
+    /**
+     * Signals that no more message will be given and waits until every shard has applied and published the messages
+     * of its queue. Must only be called by the producer thread.
+     *
+     * @throws InterruptedException if the producer is interrupted while waiting
+     */
+    public void finish() throws InterruptedException {
+        this.ended = true;
+        for (Shard s : this.shards) {
+            LockSupport.unpark(s.thread);
+            s.thread.join();
+        }
+    }
+
+    /**
+     * Takes the copies published by all the shards since the last call. May be called from any thread.
+     *
+     * @return the latest published copy of every aircraft that changed, by address
+     */
+    public Map<IcaoAddress, AircraftState> takePublished() {
+        Map<IcaoAddress, AircraftState> taken = new HashMap<>();
+        for (Shard s : this.shards) taken.putAll(s.store.takePublished());
+        return taken;
+    }
+
+    /**
+     * Gives the states of all the aircraft, by address. Must only be called once the store has been finished.
+     *
+     * @return unmodifiable map of the states of the aircraft
+     */
+    public Map<IcaoAddress, AircraftState> states() {
+        Map<IcaoAddress, AircraftState> states = new HashMap<>();
+        for (Shard s : this.shards) states.putAll(s.store.states());
+        return Collections.unmodifiableMap(states);
+    }
+
+    /**
+     * @return number of messages applied by all the shards so far. May be called from any thread.
+     */
+    public long updateCount() {
+        long count = 0;
+        for (Shard s : this.shards) count += s.store.updateCount();
+        return count;
+    }
+
+    /**
+     * @return number of shards
+     */
+    public int shardCount() {
+        return this.shards.length;
+    }
+
+    /**
+     * Stops all the shards, dropping the messages they have not applied yet. A producer waiting for room in a queue
+     * then drops its message, and a producer waiting in {@link #finish()} returns once the shards have stopped.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        for (Shard s : this.shards) {
+            s.queue.close();
+            s.thread.interrupt();
+        }
+    }
+
+    /**
+     * Computes the index of the shard owning the aircraft with the given address. Since addresses are allocated to
+     * countries by contiguous blocks, they are scrambled before being reduced to the number of shards.
+     *
+     * @param address address of an aircraft
+     * @return index of the shard owning the aircraft
+     */
+    int shardIndex(IcaoAddress address) {
+        long scrambled = Integer.toUnsignedLong(address.hashCode() * 0x9E3779B1);
+        return (int) ((scrambled * this.shards.length) >>> Integer.SIZE);
+    }
+
+    /**
+     * Loop run by the thread of the given shard, applying the messages of its queue until the producer has finished
+     * and the queue is empty, or until the store is closed. The aircraft of the shard are purged once per second of
+     * message time, and the queue is closed whenever the loop stops.
+     *
+     * @param shard shard whose messages are applied
+     */
+    private void run(Shard shard) {
+        try {
+            long prevPurgeTimeStampNs = 0;
+            while (!this.closed && !Thread.currentThread().isInterrupted()) {
+                // the time is read before the queue, so that once the queue has been emptied, all the messages given
+                // before that time have been applied and none of their aircraft is purged too early
+                long nowNs = this.lastTimeStampNs.get();
+                int applied = shard.queue.drainTo(shard.store::update, MESSAGES_PER_PUBLICATION);
+                shard.store.publish();
+                if (applied < MESSAGES_PER_PUBLICATION && nowNs - prevPurgeTimeStampNs >= PURGE_INTERVAL_NS) {
+                    shard.store.purge(nowNs);
+                    prevPurgeTimeStampNs = nowNs;
+                }
+                if (applied == 0) {
+                    // the end is read before the queue, so that no message put before the end can be missed
+                    if (this.ended && shard.queue.isEmpty()) return;
+                    LockSupport.parkNanos(this, IDLE_PARK_NS);
+                }
+            }
+        } finally {
+            shard.queue.close();
+        }
+    }
+
+    /**
+     * Queue, store and thread of a shard.
+     */
+    private final class Shard {
+        private final SpscQueue<Message> queue;
+        private final AircraftStateStore store;
+        private final Thread thread;
+
+        private Shard(int queueCapacity, ThreadFactory threadFactory) {
+            this.queue = new SpscQueue<>(queueCapacity, SpscQueue.OverflowPolicy.BLOCK);
+            this.store = new AircraftStateStore();
+            this.thread = threadFactory.newThread(() -> run(this));
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package ch.epfl.javions.pipeline;
+
+import ch.epfl.javions.Preconditions;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, array backed queue connecting a single producer thread to a single consumer thread without any lock. The
+ * elements are stored in a ring whose capacity is a power of two, between the index of the next element to take (the
+ * head) and the index of the next free slot (the tail), both growing forever. What happens when an element is put in
+ * a full queue is given by the overflow policy of the queue.
+ * <p>
+ * Under the {@link OverflowPolicy#DROP_OLDEST} policy the producer also advances the head, so both threads move it
+ * with a compare-and-set, and the consumer only keeps the element it has read if the head was not moved under it.
+ * <p>
+ * A consumer that stops taking elements closes the queue, so that a producer never waits for room that will not come:
+ * the elements put once the queue is closed are dropped.
+ *
+ * @param <E> type of the elements
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class SpscQueue<E> {
+
+    /**
+     * Policies applied when an element is put in a full queue.
+     */
+    public enum OverflowPolicy {
+        // the producer waits until the consumer has taken an element
+        BLOCK,
+        // the oldest element of the queue is dropped to make room for the new one
+        DROP_OLDEST,
+        // the new element is dropped
+        DROP_NEWEST
+    }
+
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
+    // Number of times a blocked producer spins before parking
+    private static final int SPINS = 100;
+    private static final long PARK_NS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    static {
+        try {
+            MethodHandles.Lookup l = MethodHandles.lookup();
+            HEAD = l.findVarHandle(SpscQueue.class, "head", long.class);
+            TAIL = l.findVarHandle(SpscQueue.class, "tail", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Object[] slots;
+    private final int mask;
+    private final OverflowPolicy policy;
+    private final AtomicLong droppedCount;
+    // index of the next element to take, accessed through HEAD
+    private volatile long head;
+    // index of the next free slot, only written by the producer, accessed through TAIL
+    private volatile long tail;
+    // set once the consumer has stopped taking elements
+    private volatile boolean closed;
+
+    /**
+     * Instantiates an empty queue.
+     *
+     * @param capacity minimal number of elements the queue can hold, rounded up to a power of two
+     * @param policy   policy applied when an element is put in the full queue
+     * @throws IllegalArgumentException if the capacity is not between 1 and 2^30
+     * @throws NullPointerException     if the policy is null
+     */
+    public SpscQueue(int capacity, OverflowPolicy policy) {
+        Preconditions.checkArgument(0 < capacity && capacity <= 1 << 30);
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+        this.slots = new Object[size];
+        this.mask = size - 1;
+        this.policy = Objects.requireNonNull(policy);
+        this.droppedCount = new AtomicLong();
+    }
+
+    /**
+     * Puts the given element at the end of the queue, applying the overflow policy if the queue is full, or drops it
+     * if the queue is closed. Must only be called by the producer thread.
+     *
+     * @param e element to put
+     * @return false if the element has been dropped, true otherwise
+     * @throws InterruptedException if the producer is interrupted while waiting for room, under the blocking policy
+     * @throws NullPointerException if the element is null
+     */
+    public boolean put(E e) throws InterruptedException {
+        Objects.requireNonNull(e);
+        if (this.closed) return this.drop();
+        long t = this.tail;
+        int spins = 0;
+        long h;
+        while (t - (h = (long) HEAD.getAcquire(this)) == this.slots.length) {
+            switch (this.policy) {
+                case DROP_NEWEST -> {
+                    return this.drop();
+                }
+                case DROP_OLDEST -> {
+                    // if the compare-and-set fails, the consumer has just taken the oldest element and made room
+                    if (HEAD.compareAndSet(this, h, h + 1)) this.droppedCount.incrementAndGet();
+                }
+                case BLOCK -> {
+                    // the consumer of a closed queue will never make room
+                    if (this.closed) return this.drop();
+                    if (Thread.interrupted()) throw new InterruptedException();
+                    if (spins < SPINS) {
+                        spins += 1;
+                        Thread.onSpinWait();
+                    } else {
+                        LockSupport.parkNanos(this, PARK_NS);
+                    }
+                }
+            }
+        }
+        SLOT.setRelease(this.slots, (int) t & this.mask, e);
+        TAIL.setRelease(this, t + 1);
+        return true;
+    }
+
+    /**
+     * Counts an element dropped by the producer.
+     *
+     * @return false, the element not being put
+     */
+    private boolean drop() {
+        this.droppedCount.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Takes the first element of the queue. Must only be called by the consumer thread.
+     *
+     * @return the first element, or null if the queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        while (true) {
+            long h = (long) HEAD.getAcquire(this);
+            if (h == (long) TAIL.getAcquire(this)) return null;
+            int i = (int) h & this.mask;
+            Object e = SLOT.getAcquire(this.slots, i);
+            if (this.policy != OverflowPolicy.DROP_OLDEST) {
+                // only the consumer moves the head, so the slot can be cleared before it is handed back
+                SLOT.setRelease(this.slots, i, null);
+                HEAD.setRelease(this, h + 1);
+                return (E) e;
+            }
+            // the slot is not cleared, since the producer may already be reusing it, and is overwritten later on
+            if (HEAD.compareAndSet(this, h, h + 1)) return (E) e;
+        }
+    }
+
+    /**
+     * Takes at most the given number of elements from the queue, in order, and passes them to the given consumer.
+     * Must only be called by the consumer thread.
+     *
+     * @param consumer consumer of the elements
+     * @param max      maximal number of elements taken
+     * @return number of elements taken
+     */
+    public int drainTo(Consumer<? super E> consumer, int max) {
+        int count = 0;
+        E e;
+        while (count < max && (e = this.poll()) != null) {
+            consumer.accept(e);
+            count += 1;
+        }
+        return count;
+    }
+
+    /**
+     * Closes the queue, signalling that the consumer has stopped taking elements. A producer waiting for room drops its
+     * element instead of waiting forever. May be called from any thread.
+     */
+    public void close() {
+        this.closed = true;
+    }
+
+    /**
+     * @return true if the queue has been closed
+     */
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    /**
+     * @return number of elements in the queue, which may already be outdated when it is returned
+     */
+    public int size() {
+        long t = (long) TAIL.getAcquire(this);
+        long h = (long) HEAD.getAcquire(this);
+        return (int) Math.max(0, Math.min(t - h, this.slots.length));
+    }
+
+    /**
+     * @return true if the queue holds no element
+     */
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    /**
+     * @return number of elements the queue can hold
+     */
+    public int capacity() {
+        return this.slots.length;
+    }
+
+    /**
+     * @return overflow policy of the queue
+     */
+    public OverflowPolicy policy() {
+        return this.policy;
+    }
+
+    /**
+     * @return number of elements dropped because the queue was full
+     */
+    public long droppedCount() {
+        return this.droppedCount.get();
+    }
+}
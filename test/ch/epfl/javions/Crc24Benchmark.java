@@ -0,0 +1,82 @@
+package ch.epfl.javions;
+
+import java.util.Random;
+
+/**
+ * Computes the crc of one million random messages of the length of ADS-B messages with the slicing-by-8 method of
+ * Crc24 and with the previous method, which processed the messages one byte at a time through a single table, and
+ * prints the throughput of each of them. The messages are generated in memory beforehand, so that only the crc
+ * computation is measured.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class Crc24Benchmark {
+
+    // number of times the messages are processed by each method, the first runs warming up the JIT
+    private static final int RUNS = 10;
+    private static final int MESSAGES_COUNT = 1_000_000;
+
+    public static void main(String[] args) {
+        Crc24 crc24 = new Crc24(Crc24.GENERATOR);
+        ByteTableCrc24 byteTableCrc24 = new ByteTableCrc24(crc24);
+
+        Random random = new Random(2023);
+        byte[][] messages = new byte[MESSAGES_COUNT][Crc24.CORRECTABLE_MESSAGE_LENGTH];
+        for (byte[] message : messages) random.nextBytes(message);
+
+        long best = Long.MAX_VALUE;
+        long checksum = 0;
+        for (int run = 0; run < RUNS; run += 1) {
+            long start = System.nanoTime();
+            for (byte[] message : messages) checksum += crc24.crc(message);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        print("slicing-by-8", best, checksum);
+
+        best = Long.MAX_VALUE;
+        checksum = 0;
+        for (int run = 0; run < RUNS; run += 1) {
+            long start = System.nanoTime();
+            for (byte[] message : messages) checksum += byteTableCrc24.crc(message);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        print("byte table", best, checksum);
+    }
+
+    private static void print(String name, long best, long checksum) {
+        System.out.printf("%s: %.1f ms, %.1f M messages/s (checksum %d)%n",
+                name, best / 1e6, MESSAGES_COUNT / (best / 1e3), checksum);
+    }
+
+    /**
+     * Crc computation as it was before the slicing tables, kept here as the reference of the benchmark.
+     */
+    private static final class ByteTableCrc24 {
+
+        private final int[] builtTable;
+
+        private ByteTableCrc24(Crc24 crc24) {
+            // the crc of a single byte is its entry of the table
+            this.builtTable = new int[Crc24.MAIN_TABLE_SIZE];
+            for (int i = 0; i < Crc24.MAIN_TABLE_SIZE; i++) builtTable[i] = crc24.crc(new byte[]{(byte) i});
+        }
+
+        private int crc(byte[] bytes) {
+            int crc = 0;
+            int o;
+
+            for (byte aByte : bytes) {
+                o = Bits.extractUInt((aByte >= 0) ? aByte : aByte + Crc24.MAIN_TABLE_SIZE, 0, Byte.SIZE);
+                crc = ((crc << Byte.SIZE) | o)
+                        ^ builtTable[Bits.extractUInt(crc, Crc24.BITS_TO_EXTRACT - Byte.SIZE, Byte.SIZE)];
+            }
+
+            for (int k = 0; k < Crc24.BITS_TO_EXTRACT / Byte.SIZE; k++) {
+                crc = (crc << Byte.SIZE)
+                        ^ builtTable[Bits.extractUInt(crc, Crc24.BITS_TO_EXTRACT - Byte.SIZE, Byte.SIZE)];
+            }
+
+            return Bits.extractUInt(crc, 0, Crc24.BITS_TO_EXTRACT);
+        }
+    }
+}
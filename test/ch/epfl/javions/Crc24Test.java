@@ -2,8 +2,10 @@ package ch.epfl.javions;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.HexFormat;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -76,4 +78,87 @@ class Crc24Test {
             assertEquals(0, crc24.crc(m));
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void crc24CorrectRepairsSingleBitErrors() {
+        var crc24 = new Crc24(Crc24.GENERATOR);
+        for (var m : ADSB_MESSAGES) {
+            var expected = HEX_FORMAT.parseHex(m);
+            for (int bit = 0; bit < 112; bit += 1) {
+                var corrupted = expected.clone();
+                corrupted[bit / 8] ^= (byte) (1 << (7 - bit % 8));
+                assertEquals(1, crc24.correct(corrupted, 1));
+                assertArrayEquals(expected, corrupted);
+            }
+        }
+    }
+
+    @Test
+    void crc24CorrectRepairsTwoBitErrorsOnlyWhenAllowed() {
+        var crc24 = new Crc24(Crc24.GENERATOR);
+        var expected = HEX_FORMAT.parseHex(ADSB_MESSAGES.get(0));
+        for (int bit1 = 0; bit1 < 112; bit1 += 1) {
+            for (int bit2 = bit1 + 1; bit2 < 112; bit2 += 1) {
+                var corrupted = expected.clone();
+                corrupted[bit1 / 8] ^= (byte) (1 << (7 - bit1 % 8));
+                corrupted[bit2 / 8] ^= (byte) (1 << (7 - bit2 % 8));
+                var unchanged = corrupted.clone();
+                assertEquals(-1, crc24.correct(corrupted, 1));
+                assertArrayEquals(unchanged, corrupted);
+                assertEquals(2, crc24.correct(corrupted, 2));
+                assertArrayEquals(expected, corrupted);
+            }
+        }
+    }
+
+    @Test
+    void crc24CorrectLeavesValidMessagesUntouched() {
+        var crc24 = new Crc24(Crc24.GENERATOR);
+        var m = HEX_FORMAT.parseHex(ADSB_MESSAGES.get(1));
+        assertEquals(0, crc24.correct(m, 2));
+        assertArrayEquals(HEX_FORMAT.parseHex(ADSB_MESSAGES.get(1)), m);
+        assertThrows(IllegalArgumentException.class, () -> crc24.correct(m, 3));
+    }
+
+    private static int bitwiseCrc(byte[] bytes) {
+        var crc = 0;
+        for (int i = 0; i < bytes.length * 8 + 24; i += 1) {
+            var bit = i < bytes.length * 8 ? (bytes[i / 8] >> (7 - i % 8)) & 1 : 0;
+            var top = (crc >> 23) & 1;
+            crc = ((crc << 1) | bit) & 0xFFFFFF;
+            if (top == 1) crc ^= Crc24.GENERATOR;
+        }
+        return crc;
+    }
+
+    @Test
+    void crc24CrcWorksOnSlices() {
+        var crc24 = new Crc24(Crc24.GENERATOR);
+        var rng = new Random(24);
+        var bytes = new byte[64];
+        rng.nextBytes(bytes);
+        for (int offset = 0; offset < 20; offset += 1) {
+            for (int length = 0; offset + length <= bytes.length; length += 1) {
+                var slice = Arrays.copyOfRange(bytes, offset, offset + length);
+                assertEquals(bitwiseCrc(slice), crc24.crc(bytes, offset, length));
+                assertEquals(bitwiseCrc(slice), crc24.crc(slice));
+            }
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> crc24.crc(bytes, 60, 5));
+        assertThrows(IndexOutOfBoundsException.class, () -> crc24.crc(bytes, -1, 5));
+    }
+
+    @Test
+    void crc24CrcWorksOnPackedMessages() {
+        var crc24 = new Crc24(Crc24.GENERATOR);
+        for (var m : ADSB_MESSAGES) {
+            var high = HexFormat.fromHexDigitsToLong(m.substring(0, 16));
+            var low = HexFormat.fromHexDigitsToLong(m.substring(16));
+            assertEquals(0, crc24.crc(high, low));
+
+            var corrupted = HEX_FORMAT.parseHex(m);
+            corrupted[11] ^= 0x10;
+            assertEquals(crc24.crc(corrupted), crc24.crc(high, low ^ (0x10L << 16)));
+        }
+    }
+}
@@ -145,4 +145,25 @@ class AirbornePositionMessageTest {
             assertNull(airbornePositionMessage);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void airbornePositionMessageAltitudeIsValidForAllAltitudeFields() {
+        var foot = 0.3048;
+        var validGrayCount = 0;
+        for (int field = 0; field < 1 << 12; field += 1) {
+            var altitude = AirbornePositionMessage.altitude((long) field << 36);
+            if ((field & 0b1_0000) != 0) {
+                var feet = -1000 + (((field >> 5) << 4) | (field & 0b1111)) * 25;
+                if (feet < 0)
+                    assertTrue(Double.isNaN(altitude));
+                else
+                    assertEquals(feet * foot, altitude, 1e-9);
+            } else if (!Double.isNaN(altitude)) {
+                validGrayCount += 1;
+                assertTrue(altitude >= 0);
+                assertEquals(0, Math.rint(altitude / foot) % 100);
+            }
+        }
+        assertTrue(validGrayCount > 0);
+    }
+}
@@ -0,0 +1,53 @@
+package ch.epfl.javions.adsb;
+
+import ch.epfl.javions.GeoPos;
+import ch.epfl.javions.aircraft.IcaoAddress;
+import org.junit.jupiter.api.Test;
+
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AircraftStateTest {
+
+    @Test
+    void aircraftStateConstructorThrowsWithNullAddress() {
+        assertThrows(NullPointerException.class, () -> new AircraftState((IcaoAddress) null));
+    }
+
+    @Test
+    void aircraftStateIsInitiallyUnknown() {
+        var state = new AircraftState(new IcaoAddress("4B17E5"));
+        assertEquals(new IcaoAddress("4B17E5"), state.icaoAddress());
+        assertNull(state.callSign());
+        assertNull(state.position());
+        assertTrue(Double.isNaN(state.altitude()));
+        assertTrue(Double.isNaN(state.velocity()));
+    }
+
+    @Test
+    void aircraftStateIsUpdatedByAccumulator() {
+        var state = new AircraftState(new IcaoAddress("440953"));
+        var accumulator = new AircraftStateAccumulator<>(state);
+        var message = MessageParser.parse(RawMessage.of(100, HexFormat.of().parseHex("8D44095358BF06C19B95072CF116")));
+        assertNotNull(message);
+        accumulator.update(message);
+        assertEquals(100, state.lastMessageTimeStampNs());
+        assertFalse(Double.isNaN(state.altitude()));
+
+        state.setPosition(new GeoPos(1, 2));
+        assertEquals(new GeoPos(1, 2), state.position());
+    }
+
+    @Test
+    void aircraftStateCopyIsIndependent() {
+        var state = new AircraftState(new IcaoAddress("440953"));
+        state.setAltitude(1000);
+        state.setPosition(new GeoPos(1, 2));
+        var copy = new AircraftState(state);
+        state.setAltitude(2000);
+        assertEquals(state.icaoAddress(), copy.icaoAddress());
+        assertEquals(new GeoPos(1, 2), copy.position());
+        assertEquals(1000, copy.altitude());
+    }
+}
@@ -42,4 +42,15 @@ class CallSignTest {
             new CallSign("AFR39BR");
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void callSignOfDecodesEncodedCallSign() {
+        // "AFR39BR " as 6 bit characters, the last one being a space
+        long encoded = 0;
+        for (char c : "AFR39BR ".toCharArray())
+            encoded = (encoded << 6) | (Character.isLetter(c) ? c - 'A' + 1 : c);
+        assertEquals(new CallSign("AFR39BR"), CallSign.of(encoded));
+        assertEquals(new CallSign(""), CallSign.of(0x820820820820L));
+        assertThrows(IllegalArgumentException.class, () -> CallSign.of(0));
+    }
+}
@@ -3,6 +3,8 @@ package ch.epfl.javions.adsb;
 import ch.epfl.javions.adsb.CprDecoder;
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+
 import static java.lang.Math.scalb;
 import static java.lang.Math.toDegrees;
 import static org.junit.jupiter.api.Assertions.*;
@@ -93,4 +95,24 @@ class CprDecoderTest {
             assertNull(CprDecoder.decodePosition(x0, y0, x1, y1, 1));
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void cprDecoderDecodePositionT32AgreesWithDecodePosition() {
+        var rng = new Random(2023);
+        for (int i = 0; i < 10_000; i += 1) {
+            var x0 = cpr(rng.nextInt(1 << 17));
+            var y0 = cpr(rng.nextInt(1 << 17));
+            var x1 = cpr(rng.nextInt(1 << 17));
+            var y1 = cpr(rng.nextInt(1 << 17));
+            var mostRecent = rng.nextInt(2);
+            var position = CprDecoder.decodePosition(x0, y0, x1, y1, mostRecent);
+            var packed = CprDecoder.decodePositionT32(x0, y0, x1, y1, mostRecent);
+            if (position == null) {
+                assertEquals(CprDecoder.NO_POSITION, packed);
+            } else {
+                assertEquals(position.longitudeT32(), CprDecoder.longitudeT32(packed));
+                assertEquals(position.latitudeT32(), CprDecoder.latitudeT32(packed));
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ch.epfl.javions.adsb;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrcErrorCorrectorTest {
+    private static final String MESSAGE = "8D4B17E5F8210002004BB8B1F1AC";
+
+    private static byte[] corrupted(int... bits) {
+        var bytes = HexFormat.of().parseHex(MESSAGE);
+        for (var bit : bits)
+            bytes[bit / 8] ^= (byte) (1 << (7 - bit % 8));
+        return bytes;
+    }
+
+    @Test
+    void crcErrorCorrectorReturnsValidMessagesWithoutCounting() {
+        var corrector = new CrcErrorCorrector(CrcErrorCorrector.Mode.TWO_BITS);
+        var m = corrector.of(100, corrupted());
+        assertNotNull(m);
+        assertEquals(MESSAGE, m.bytes().toString());
+        assertEquals(0, corrector.repairedCount());
+        assertEquals(0, corrector.droppedCount());
+    }
+
+    @Test
+    void crcErrorCorrectorDropsCorruptedMessagesWithoutCorrection() {
+        var corrector = new CrcErrorCorrector(CrcErrorCorrector.Mode.NONE);
+        assertNull(corrector.of(100, corrupted(40)));
+        assertEquals(0, corrector.repairedCount());
+        assertEquals(1, corrector.droppedCount());
+    }
+
+    @Test
+    void crcErrorCorrectorRepairsAccordingToMode() {
+        var singleBit = new CrcErrorCorrector(CrcErrorCorrector.Mode.SINGLE_BIT);
+        var twoBits = new CrcErrorCorrector(CrcErrorCorrector.Mode.TWO_BITS);
+
+        assertEquals(MESSAGE, singleBit.of(100, corrupted(60)).bytes().toString());
+        assertNull(singleBit.of(100, corrupted(60, 100)));
+        assertEquals(MESSAGE, twoBits.of(100, corrupted(60, 100)).bytes().toString());
+
+        assertEquals(1, singleBit.repairedCount());
+        assertEquals(1, singleBit.droppedCount());
+        assertEquals(1, twoBits.repairedCount());
+        assertEquals(0, twoBits.droppedCount());
+    }
+}
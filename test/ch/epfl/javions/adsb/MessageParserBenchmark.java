@@ -0,0 +1,124 @@
+package ch.epfl.javions.adsb;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses the raw messages of a recorded message file, as read by the graphical interface, at maximal speed, and prints
+ * the cost per message of the parsing into records and into a sink, for each kind of message and for all of them. The
+ * raw messages are read beforehand, so that only their parsing is measured.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class MessageParserBenchmark {
+
+    // number of times the messages are parsed by each parser, the first runs warming up the JIT
+    private static final int RUNS = 10;
+
+    // sum of the fields of the parsed messages, so that the JIT cannot drop the parsing
+    private static double checksum;
+
+    public static void main(String[] args) throws IOException {
+        List<RawMessage> all = readRawMessages(args[0]);
+        List<RawMessage> identifications = new ArrayList<>();
+        List<RawMessage> positions = new ArrayList<>();
+        List<RawMessage> velocities = new ArrayList<>();
+        for (RawMessage r : all) {
+            switch (MessageParser.parse(r)) {
+                case AircraftIdentificationMessage m -> identifications.add(r);
+                case AirbornePositionMessage m -> positions.add(r);
+                case AirborneVelocityMessage m -> velocities.add(r);
+                case null, default -> {
+                }
+            }
+        }
+
+        System.out.printf("%d raw messages%n", all.size());
+        System.out.printf("%-16s %10s %16s %16s%n", "messages", "count", "records (ns)", "sink (ns)");
+        benchmark("identification", identifications);
+        benchmark("position", positions);
+        benchmark("velocity", velocities);
+        benchmark("all", all);
+        System.out.printf("(checksum %s)%n", checksum);
+    }
+
+    private static void benchmark(String name, List<RawMessage> rawMessages) {
+        if (rawMessages.isEmpty()) return;
+        RawMessage[] array = rawMessages.toArray(new RawMessage[0]);
+        long bestRecords = Long.MAX_VALUE;
+        long bestSink = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run += 1) {
+            long start = System.nanoTime();
+            parseRecords(array);
+            bestRecords = Math.min(bestRecords, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            parseSink(array);
+            bestSink = Math.min(bestSink, System.nanoTime() - start);
+        }
+        System.out.printf("%-16s %10d %16.1f %16.1f%n", name, array.length,
+                bestRecords / (double) array.length, bestSink / (double) array.length);
+    }
+
+    private static void parseRecords(RawMessage[] rawMessages) {
+        double sum = 0;
+        for (RawMessage r : rawMessages) {
+            switch (MessageParser.parse(r)) {
+                case AircraftIdentificationMessage m -> sum += m.callSign().string().length() + m.category();
+                case AirbornePositionMessage m -> sum += m.altitude() + m.x();
+                case AirborneVelocityMessage m -> sum += m.speed();
+                case null, default -> {
+                }
+            }
+        }
+        checksum += sum;
+    }
+
+    private static void parseSink(RawMessage[] rawMessages) {
+        SummingSink sink = new SummingSink();
+        for (RawMessage r : rawMessages) MessageParser.parse(r, sink);
+        checksum += sink.sum;
+    }
+
+    private static List<RawMessage> readRawMessages(String fileName) throws IOException {
+        List<RawMessage> rawMessages = new ArrayList<>();
+        try (DataInputStream s = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName)))) {
+            byte[] bytes = new byte[RawMessage.LENGTH];
+            while (true) {
+                long timeStampNs;
+                try {
+                    timeStampNs = s.readLong();
+                } catch (EOFException e) {
+                    return rawMessages;
+                }
+                s.readFully(bytes);
+                RawMessage rm = RawMessage.of(timeStampNs, bytes);
+                if (rm != null) rawMessages.add(rm);
+            }
+        }
+    }
+
+    /**
+     * Sink summing the fields of the messages it receives.
+     */
+    private static final class SummingSink implements MessageSink {
+        private double sum;
+
+        @Override
+        public void identification(long timeStampNs, int icaoAddress, int category, long callSign) {
+            this.sum += callSign + category;
+        }
+
+        @Override
+        public void airbornePosition(long timeStampNs, int icaoAddress, double altitude, int parity, double x,
+                                     double y) {
+            this.sum += altitude + x;
+        }
+
+        @Override
+        public void airborneVelocity(long timeStampNs, int icaoAddress, double speed, double trackOrHeading) {
+            this.sum += speed;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package ch.epfl.javions.adsb;
 
 import ch.epfl.javions.ByteString;
 import ch.epfl.javions.Crc24;
+import ch.epfl.javions.aircraft.IcaoAddress;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -13,6 +14,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HexFormat;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -162,5 +164,55 @@ class MessageParserTest {
             assertNull(message);
         }
     }
-}
 
+    @Test
+    void messageParserSinkReceivesSameFieldsAsParsedMessages() {
+        var rng = new Random(2023);
+        var crc24 = new Crc24(Crc24.GENERATOR);
+        var handedOver = new ArrayList<Message>();
+        var sink = new MessageSink() {
+            @Override
+            public void identification(long timeStampNs, int icaoAddress, int category, long callSign) {
+                handedOver.add(new AircraftIdentificationMessage(timeStampNs, IcaoAddress.of(icaoAddress), category,
+                        CallSign.of(callSign)));
+            }
+
+            @Override
+            public void airbornePosition(long timeStampNs, int icaoAddress, double altitude, int parity, double x,
+                                         double y) {
+                handedOver.add(new AirbornePositionMessage(timeStampNs, IcaoAddress.of(icaoAddress), altitude,
+                        parity, x, y));
+            }
+
+            @Override
+            public void airborneVelocity(long timeStampNs, int icaoAddress, double speed, double trackOrHeading) {
+                handedOver.add(new AirborneVelocityMessage(timeStampNs, IcaoAddress.of(icaoAddress), speed,
+                        trackOrHeading));
+            }
+        };
+
+        var parsedCount = 0;
+        for (int i = 0; i < 100_000; i += 1) {
+            var bytes = new byte[RawMessage.LENGTH];
+            rng.nextBytes(bytes);
+            bytes[0] = (byte) 0x8D;
+            int crc = crc24.crc(bytes, 0, 11);
+            bytes[11] = (byte) (crc >> 16);
+            bytes[12] = (byte) (crc >> 8);
+            bytes[13] = (byte) crc;
+            var rawMessage = RawMessage.of(i, bytes);
+            assertNotNull(rawMessage);
+
+            var message = MessageParser.parse(rawMessage);
+            handedOver.clear();
+            assertEquals(message != null, MessageParser.parse(rawMessage, sink));
+            if (message != null) {
+                parsedCount += 1;
+                assertEquals(List.of(message), handedOver);
+            } else {
+                assertTrue(handedOver.isEmpty());
+            }
+        }
+        assertTrue(parsedCount > 10_000);
+    }
+}
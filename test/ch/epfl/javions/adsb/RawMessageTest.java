@@ -468,4 +468,23 @@ class RawMessageTest {
         assertEquals(0b01011, rm2.typeCode());
         assertEquals(0b10011, rm3.typeCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    void packedFrameMatchesBytes() {
+        var bytes = HexFormat.of().parseHex("8D392AE499107FB5C00439035DB8");
+        var m = RawMessage.of(100, bytes);
+        assertNotNull(m);
+        assertEquals(0x8D392AE499107FB5L, m.high());
+        assertEquals(0xC00439035DB8L, m.low());
+        assertEquals(0x392AE4, m.icaoAddressValue());
+        assertEquals(new ByteString(bytes), m.bytes());
+    }
+
+    @Test
+    void ofPackedFrameChecksCrc() {
+        var m = RawMessage.of(100, 0x8D392AE499107FB5L, 0xC00439035DB8L);
+        assertNotNull(m);
+        assertEquals(new RawMessage(100, ByteString.ofHexadecimalString("8D392AE499107FB5C00439035DB8")), m);
+        assertNull(RawMessage.of(100, 0x8D392AE499107FB5L, 0xC00439035DB9L));
+    }
+}
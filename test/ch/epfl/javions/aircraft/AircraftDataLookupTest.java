@@ -0,0 +1,97 @@
+package ch.epfl.javions.aircraft;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AircraftDataLookupTest {
+    private static final AircraftData DATA = new AircraftData(
+            new AircraftRegistration("HB-JCN"),
+            new AircraftTypeDesignator("BCS3"),
+            "AIRBUS A220-300",
+            new AircraftDescription("L2J"),
+            WakeTurbulenceCategory.MEDIUM);
+    private static final IcaoAddress KNOWN = new IcaoAddress("4B1805");
+
+    private static final class CountingSource implements AircraftDataSource {
+        private final List<IcaoAddress> reads = new ArrayList<>();
+        private boolean failing;
+
+        @Override
+        public AircraftData get(IcaoAddress address) throws IOException {
+            reads.add(address);
+            if (failing) throw new IOException();
+            return address.equals(KNOWN) ? DATA : null;
+        }
+    }
+
+    @Test
+    void aircraftDataLookupReadsSourceOnlyOnce() {
+        var source = new CountingSource();
+        var lookup = new AircraftDataLookup(source, 4, Runnable::run);
+        assertEquals(DATA, lookup.lookup(KNOWN).join());
+        assertEquals(DATA, lookup.lookup(KNOWN).join());
+        assertEquals(1, source.reads.size());
+        assertEquals(1, lookup.hitCount());
+        assertEquals(1, lookup.missCount());
+    }
+
+    @Test
+    void aircraftDataLookupCachesUnknownAddresses() {
+        var source = new CountingSource();
+        var lookup = new AircraftDataLookup(source, 4, Runnable::run);
+        var unknown = new IcaoAddress("123456");
+        assertNull(lookup.lookup(unknown).join());
+        assertNull(lookup.lookup(unknown).join());
+        assertEquals(1, source.reads.size());
+    }
+
+    @Test
+    void aircraftDataLookupRetriesFailedLookups() {
+        var source = new CountingSource();
+        var lookup = new AircraftDataLookup(source, 4, Runnable::run);
+        source.failing = true;
+        assertThrows(CompletionException.class, () -> lookup.lookup(KNOWN).join());
+        assertEquals(1, lookup.failureCount());
+        source.failing = false;
+        assertEquals(DATA, lookup.lookup(KNOWN).join());
+        assertEquals(2, source.reads.size());
+    }
+
+    @Test
+    void aircraftDataLookupEvictsLeastRecentlyUsedAddress() {
+        var source = new CountingSource();
+        var lookup = new AircraftDataLookup(source, 2, Runnable::run);
+        var a = IcaoAddress.of(1);
+        var b = IcaoAddress.of(2);
+        var c = IcaoAddress.of(3);
+        lookup.lookup(a);
+        lookup.lookup(b);
+        lookup.lookup(a);
+        lookup.lookup(c);
+        // b was the least recently used address when c was added
+        lookup.lookup(a);
+        lookup.lookup(b);
+        assertEquals(List.of(a, b, c, b), source.reads);
+    }
+
+    @Test
+    void aircraftDataLookupCompletesOnItsOwnThread() throws Exception {
+        var source = new CountingSource();
+        try (var lookup = new AircraftDataLookup(source)) {
+            assertEquals(DATA, lookup.lookup(KNOWN).get(1, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void aircraftDataLookupConstructorThrowsWithInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new AircraftDataLookup(new CountingSource(), 0, Runnable::run));
+    }
+}
@@ -2,6 +2,8 @@ package ch.epfl.javions.aircraft;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class IcaoAddressTest {
@@ -44,4 +46,43 @@ class IcaoAddressTest {
             new IcaoAddress("ABCDEF");
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void icaoAddressOfFormatsIntAddress() {
+        assertEquals(new IcaoAddress("076ABF"), IcaoAddress.of(0x076ABF));
+        assertEquals(new IcaoAddress("000000"), IcaoAddress.of(0));
+        assertThrows(IllegalArgumentException.class, () -> IcaoAddress.of(1 << 24));
+        assertThrows(IllegalArgumentException.class, () -> IcaoAddress.of(-1));
+    }
+
+    @Test
+    void icaoAddressOfReturnsCanonicalInstance() {
+        assertSame(IcaoAddress.of(0x4B1A5F), IcaoAddress.of(0x4B1A5F));
+        assertEquals(0x4B1A5F, IcaoAddress.of(0x4B1A5F).value());
+        assertEquals("4B1A5F", IcaoAddress.of(0x4B1A5F).string());
+    }
+
+    @Test
+    void icaoAddressOfKeepsAircraftInViewCanonical() {
+        // aircraft in view, sending messages among those of aircraft that left and of corrupted addresses
+        var rng = new Random(1);
+        var inView = new int[300];
+        for (int i = 0; i < inView.length; i += 1) inView[i] = rng.nextInt(1 << 24);
+        var canonical = new IcaoAddress[inView.length];
+        for (int i = 0; i < inView.length; i += 1) canonical[i] = IcaoAddress.of(inView[i]);
+        for (int round = 0; round < 10; round += 1) {
+            for (int i = 0; i < 1_000; i += 1) IcaoAddress.of(rng.nextInt(1 << 24));
+            for (int i = 0; i < inView.length; i += 1) assertSame(canonical[i], IcaoAddress.of(inView[i]));
+        }
+    }
+
+    @Test
+    void icaoAddressEqualityDependsOnlyOnValue() {
+        var parsed = new IcaoAddress("4B1A5F");
+        var built = IcaoAddress.of(0x4B1A5F);
+        assertEquals(parsed, built);
+        assertEquals(parsed.hashCode(), built.hashCode());
+        assertNotEquals(parsed, IcaoAddress.of(0x4B1A60));
+        assertEquals("IcaoAddress[string=4B1A5F]", built.toString());
+    }
+}
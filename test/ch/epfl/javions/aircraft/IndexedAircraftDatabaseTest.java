@@ -0,0 +1,74 @@
+package ch.epfl.javions.aircraft;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedAircraftDatabaseTest {
+
+    private static IndexedAircraftDatabase writeDatabase(Path directory) throws IOException {
+        Path zip = directory.resolve("aircraft.zip");
+        try (OutputStream o = Files.newOutputStream(zip);
+             ZipOutputStream z = new ZipOutputStream(o)) {
+            z.putNextEntry(new ZipEntry("05.csv"));
+            z.write(("4B1805,HB-JCN,BCS3,AIRBUS A220-300,L2J,M\n"
+                    + "0ABC05,N123,,,,\n").getBytes(UTF_8));
+            z.closeEntry();
+            z.putNextEntry(new ZipEntry("AB.csv"));
+            z.write(("0086AB,ZS-CNA,B738,BOEING 737-800,L2J,M\n"
+                    + "E808AB,CC-DAW,BCS3,AIRBUS A220-300,L2J,M\n").getBytes(UTF_8));
+            z.closeEntry();
+        }
+        return new IndexedAircraftDatabase(zip.toString());
+    }
+
+    @Test
+    void indexedAircraftDatabaseLoadsAllFiles(@TempDir Path directory) throws IOException {
+        assertEquals(4, writeDatabase(directory).size());
+    }
+
+    @Test
+    void indexedAircraftDatabaseGetReturnsCorrectData(@TempDir Path directory) throws IOException {
+        var aircraftData = writeDatabase(directory).get(new IcaoAddress("4B1805"));
+        assertNotNull(aircraftData);
+        assertEquals(new AircraftRegistration("HB-JCN"), aircraftData.registration());
+        assertEquals(new AircraftTypeDesignator("BCS3"), aircraftData.typeDesignator());
+        assertEquals("AIRBUS A220-300", aircraftData.model());
+        assertEquals(new AircraftDescription("L2J"), aircraftData.description());
+        assertEquals(WakeTurbulenceCategory.MEDIUM, aircraftData.wakeTurbulenceCategory());
+    }
+
+    @Test
+    void indexedAircraftDatabaseGetWorksWithFirstAndLastAddresses(@TempDir Path directory) throws IOException {
+        var database = writeDatabase(directory);
+        assertEquals(new AircraftRegistration("ZS-CNA"), database.get(IcaoAddress.of(0x0086AB)).registration());
+        assertEquals(new AircraftRegistration("CC-DAW"), database.get(IcaoAddress.of(0xE808AB)).registration());
+    }
+
+    @Test
+    void indexedAircraftDatabaseGetWorksWithEmptyColumns(@TempDir Path directory) throws IOException {
+        var aircraftData = writeDatabase(directory).get(new IcaoAddress("0ABC05"));
+        assertNotNull(aircraftData);
+        assertEquals(new AircraftTypeDesignator(""), aircraftData.typeDesignator());
+        assertEquals("", aircraftData.model());
+        assertEquals(new AircraftDescription(""), aircraftData.description());
+        assertEquals(WakeTurbulenceCategory.UNKNOWN, aircraftData.wakeTurbulenceCategory());
+    }
+
+    @Test
+    void indexedAircraftDatabaseGetReturnsNullWhenAddressDoesNotExist(@TempDir Path directory) throws IOException {
+        var database = writeDatabase(directory);
+        assertNull(database.get(new IcaoAddress("123456")));
+        assertNull(database.get(new IcaoAddress("FFFF01")));
+        assertNull(database.get(new IcaoAddress("000000")));
+    }
+}
@@ -0,0 +1,101 @@
+package ch.epfl.javions.aircraft;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedAircraftDatabaseTest {
+
+    private static MappedAircraftDatabase writeDatabase(Path directory) throws IOException {
+        Path zip = directory.resolve("aircraft.zip");
+        try (OutputStream o = Files.newOutputStream(zip);
+             ZipOutputStream z = new ZipOutputStream(o)) {
+            z.putNextEntry(new ZipEntry("05.csv"));
+            z.write(("4B1805,HB-JCN,BCS3,AIRBUS A220-300,L2J,M\n"
+                    + "0ABC05,N123,,,,\n").getBytes(UTF_8));
+            z.closeEntry();
+            z.putNextEntry(new ZipEntry("AB.csv"));
+            z.write(("0086AB,ZS-CNA,B738,BOEING 737-800,L2J,M\n"
+                    + "E808AB,CC-DAW,A388,AIRBUS A380-800,L4J,H\n").getBytes(UTF_8));
+            z.closeEntry();
+        }
+        Path binary = directory.resolve("aircraft.bin");
+        AircraftDatabaseConverter.convert(zip.toString(), binary);
+        return new MappedAircraftDatabase(binary);
+    }
+
+    @Test
+    void mappedAircraftDatabaseContainsAllAircraft(@TempDir Path directory) throws IOException {
+        assertEquals(4, writeDatabase(directory).size());
+    }
+
+    @Test
+    void mappedAircraftDatabaseGetReturnsCorrectData(@TempDir Path directory) throws IOException {
+        var database = writeDatabase(directory);
+        assertEquals(new AircraftData(
+                        new AircraftRegistration("HB-JCN"),
+                        new AircraftTypeDesignator("BCS3"),
+                        "AIRBUS A220-300",
+                        new AircraftDescription("L2J"),
+                        WakeTurbulenceCategory.MEDIUM),
+                database.get(new IcaoAddress("4B1805")));
+        assertEquals(new AircraftData(
+                        new AircraftRegistration("CC-DAW"),
+                        new AircraftTypeDesignator("A388"),
+                        "AIRBUS A380-800",
+                        new AircraftDescription("L4J"),
+                        WakeTurbulenceCategory.HEAVY),
+                database.get(new IcaoAddress("E808AB")));
+        assertEquals(new AircraftRegistration("ZS-CNA"), database.get(new IcaoAddress("0086AB")).registration());
+    }
+
+    @Test
+    void mappedAircraftDatabaseGetWorksWithEmptyColumns(@TempDir Path directory) throws IOException {
+        var aircraftData = writeDatabase(directory).get(new IcaoAddress("0ABC05"));
+        assertNotNull(aircraftData);
+        assertEquals("", aircraftData.model());
+        assertEquals(new AircraftDescription(""), aircraftData.description());
+        assertEquals(WakeTurbulenceCategory.UNKNOWN, aircraftData.wakeTurbulenceCategory());
+    }
+
+    @Test
+    void mappedAircraftDatabaseGetReturnsNullWhenAddressDoesNotExist(@TempDir Path directory) throws IOException {
+        var database = writeDatabase(directory);
+        assertNull(database.get(new IcaoAddress("000000")));
+        assertNull(database.get(new IcaoAddress("123456")));
+        assertNull(database.get(new IcaoAddress("FFFFFF")));
+    }
+
+    @Test
+    void mappedAircraftDatabaseRejectsOtherFiles(@TempDir Path directory) throws IOException {
+        Path other = directory.resolve("other.bin");
+        Files.write(other, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13});
+        assertThrows(IOException.class, () -> new MappedAircraftDatabase(other));
+        Files.write(other, new byte[0]);
+        assertThrows(IOException.class, () -> new MappedAircraftDatabase(other));
+    }
+
+    @Test
+    void mappedAircraftDatabaseRejectsCorruptedSizes(@TempDir Path directory) throws IOException {
+        Path corrupted = directory.resolve("corrupted.bin");
+        // the last size makes the end of the records overflow an int and wrap to 16, within the file
+        for (int size : new int[]{-1, 1, 0x0CCCCCCD}) {
+            ByteBuffer header = ByteBuffer.allocate(2 * MappedAircraftDatabase.HEADER_SIZE)
+                    .putInt(MappedAircraftDatabase.MAGIC)
+                    .putInt(MappedAircraftDatabase.VERSION)
+                    .putInt(size);
+            Files.write(corrupted, header.array());
+            assertThrows(IOException.class, () -> new MappedAircraftDatabase(corrupted));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package ch.epfl.javions.archive;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IcaoBloomFilterTest {
+
+    @Test
+    void icaoBloomFilterConstructorThrowsOnInvalidBitCount() {
+        assertThrows(IllegalArgumentException.class, () -> new IcaoBloomFilter(32));
+        assertThrows(IllegalArgumentException.class, () -> new IcaoBloomFilter(100));
+        assertDoesNotThrow(() -> new IcaoBloomFilter(64));
+    }
+
+    @Test
+    void icaoBloomFilterHasNoFalseNegatives() {
+        var rng = new Random(2023);
+        var filter = new IcaoBloomFilter(1 << 11);
+        int[] addresses = new int[200];
+        for (int i = 0; i < addresses.length; i += 1) {
+            addresses[i] = rng.nextInt(1 << 24);
+            filter.add(addresses[i]);
+        }
+        for (int a : addresses) assertTrue(filter.mightContain(a));
+    }
+
+    @Test
+    void icaoBloomFilterHasFewFalsePositives() {
+        var rng = new Random(2023);
+        var filter = new IcaoBloomFilter(1 << 11);
+        for (int i = 0; i < 200; i += 1) filter.add(rng.nextInt(1 << 23));
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i += 1) {
+            if (filter.mightContain((1 << 23) | rng.nextInt(1 << 23))) falsePositives += 1;
+        }
+        // about 2.5% for 3 hashes and 10 bits per address
+        assertTrue(falsePositives < 5_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void icaoBloomFilterIsWrittenAndReadBack() {
+        var filter = new IcaoBloomFilter(1 << 8);
+        filter.add(0x440953);
+        filter.add(0x392AE4);
+        ByteBuffer buffer = ByteBuffer.allocate(filter.byteCount());
+        filter.write(buffer);
+        buffer.flip();
+        var read = IcaoBloomFilter.read(buffer, 1 << 8);
+        assertTrue(read.mightContain(0x440953));
+        assertTrue(read.mightContain(0x392AE4));
+        for (int a = 0; a < 1000; a += 1) assertEquals(filter.mightContain(a), read.mightContain(a));
+    }
+
+    @Test
+    void icaoBloomFilterClearAndFullWork() {
+        var filter = new IcaoBloomFilter(64);
+        filter.add(0x440953);
+        filter.clear();
+        assertFalse(filter.mightContain(0x440953));
+        var full = IcaoBloomFilter.full(64);
+        for (int a = 0; a < 1000; a += 1) assertTrue(full.mightContain(a));
+    }
+}
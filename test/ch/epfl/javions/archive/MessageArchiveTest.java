@@ -0,0 +1,123 @@
+package ch.epfl.javions.archive;
+
+import ch.epfl.javions.adsb.RawMessage;
+import ch.epfl.javions.aircraft.IcaoAddress;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static ch.epfl.javions.archive.MessageLogWriterTest.message;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageArchiveTest {
+
+    private static final long DAY_NS = 86_400_000_000_000L;
+    private static final long ORIGIN_NS = 1_679_097_600_000_000_000L;
+    private static final IcaoAddress FIRST_AIRCRAFT = new IcaoAddress("440953");
+
+    // writes a segment of the given origin, whose messages are spread over a day, and returns them in absolute time
+    private static List<RawMessage> writeSegment(Path file, long originNs, int count, long seed) throws Exception {
+        var rng = new Random(seed);
+        var messages = new ArrayList<RawMessage>();
+        long t = 0;
+        try (var writer = new MessageLogWriter(file, originNs, 64, 2)) {
+            for (int i = 0; i < count; i += 1) {
+                t += rng.nextLong(DAY_NS / count);
+                RawMessage m = message(t, rng.nextInt(3));
+                writer.write(m);
+                messages.add(m.withTimeStampNs(t + originNs));
+            }
+        }
+        return messages;
+    }
+
+    private static List<RawMessage> expected(List<RawMessage> all, long from, long to, IcaoAddress address) {
+        return all.stream()
+                .filter(m -> m.timeStampNs() >= from && m.timeStampNs() < to)
+                .filter(m -> address == null || m.icaoAddress().equals(address))
+                .toList();
+    }
+
+    @Test
+    void messageArchiveOpensOnlyLogs(@TempDir Path dir) throws Exception {
+        writeSegment(dir.resolve("day-1.log"), ORIGIN_NS, 100, 1);
+        writeSegment(dir.resolve("day-0.log"), ORIGIN_NS - DAY_NS, 100, 2);
+        Files.writeString(dir.resolve("notes.txt"), "not a log");
+        Files.createDirectory(dir.resolve("old"));
+        try (var archive = new MessageArchive(dir)) {
+            assertEquals(2, archive.segmentCount());
+            assertEquals(200, archive.messageCount());
+        }
+    }
+
+    @Test
+    void messageArchiveQueriesTimeRangesAndAircraft(@TempDir Path dir) throws Exception {
+        var all = new ArrayList<RawMessage>();
+        for (int d = 0; d < 7; d += 1)
+            all.addAll(writeSegment(dir.resolve("day-" + d + ".log"), ORIGIN_NS + d * DAY_NS, 2_000, d));
+
+        var rng = new Random(2023);
+        try (var archive = new MessageArchive(dir)) {
+            assertEquals(all, archive.rawMessages(Long.MIN_VALUE, Long.MAX_VALUE, null).toList());
+            for (int i = 0; i < 50; i += 1) {
+                long from = ORIGIN_NS - DAY_NS + rng.nextLong(9 * DAY_NS);
+                long to = from + rng.nextLong(2 * DAY_NS);
+                IcaoAddress address = (i % 2 == 0) ? null : FIRST_AIRCRAFT;
+                assertEquals(expected(all, from, to, address), archive.rawMessages(from, to, address).toList());
+            }
+        }
+    }
+
+    @Test
+    void messageArchiveMergesOverlappingSegments(@TempDir Path dir) throws Exception {
+        var all = new ArrayList<RawMessage>();
+        all.addAll(writeSegment(dir.resolve("a.log"), ORIGIN_NS, 3_000, 1));
+        all.addAll(writeSegment(dir.resolve("b.log"), ORIGIN_NS + DAY_NS / 3, 3_000, 2));
+        all.sort(Comparator.comparingLong(RawMessage::timeStampNs));
+
+        try (var archive = new MessageArchive(dir)) {
+            var merged = archive.rawMessages(Long.MIN_VALUE, Long.MAX_VALUE, null).toList();
+            assertEquals(all.size(), merged.size());
+            for (int i = 1; i < merged.size(); i += 1)
+                assertTrue(merged.get(i - 1).timeStampNs() <= merged.get(i).timeStampNs());
+            long from = ORIGIN_NS + DAY_NS / 2, to = from + DAY_NS / 4;
+            assertEquals(expected(all, from, to, FIRST_AIRCRAFT).size(),
+                    archive.rawMessages(from, to, FIRST_AIRCRAFT).count());
+        }
+    }
+
+    @Test
+    void messageArchiveSkipsSegmentsWithoutAircraft(@TempDir Path dir) throws Exception {
+        writeSegment(dir.resolve("day-0.log"), ORIGIN_NS, 1_000, 1);
+        try (var archive = new MessageArchive(dir)) {
+            assertEquals(0, archive.rawMessages(Long.MIN_VALUE, Long.MAX_VALUE, new IcaoAddress("ABCDEF")).count());
+            assertEquals(0, archive.rawMessages(ORIGIN_NS + 2 * DAY_NS, Long.MAX_VALUE, null).count());
+        }
+    }
+
+    @Test
+    void messageArchiveMessagesAreParsed(@TempDir Path dir) throws Exception {
+        var all = writeSegment(dir.resolve("day-0.log"), ORIGIN_NS, 1_000, 1);
+        try (var archive = new MessageArchive(dir)) {
+            var messages = archive.messages(Long.MIN_VALUE, Long.MAX_VALUE, FIRST_AIRCRAFT).toList();
+            assertEquals(expected(all, Long.MIN_VALUE, Long.MAX_VALUE, FIRST_AIRCRAFT).size(), messages.size());
+            for (var m : messages) {
+                assertEquals(FIRST_AIRCRAFT, m.icaoAddress());
+                assertTrue(m.timeStampNs() >= ORIGIN_NS);
+            }
+        }
+    }
+
+    @Test
+    void messageArchiveQueryThrowsOnInvalidRange(@TempDir Path dir) throws Exception {
+        try (var archive = new MessageArchive(dir)) {
+            assertThrows(IllegalArgumentException.class, () -> archive.query(2, 1, null));
+        }
+    }
+}
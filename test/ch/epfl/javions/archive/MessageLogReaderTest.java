@@ -0,0 +1,110 @@
+package ch.epfl.javions.archive;
+
+import ch.epfl.javions.adsb.RawMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static ch.epfl.javions.archive.MessageLogWriterTest.message;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageLogReaderTest {
+
+    private static List<RawMessage> write(Path file, int count, int blockSize) throws Exception {
+        var rng = new Random(2023);
+        var messages = new ArrayList<RawMessage>();
+        long t = 0;
+        try (var writer = new MessageLogWriter(file, blockSize, 2)) {
+            for (int i = 0; i < count; i += 1) {
+                // gaps of up to a few seconds, so that the differences need several bytes
+                t += rng.nextInt(1 << rng.nextInt(31));
+                RawMessage m = message(t, rng.nextInt(3));
+                messages.add(m);
+                writer.write(m);
+            }
+        }
+        return messages;
+    }
+
+    private static List<RawMessage> readAll(RawMessageSource source) throws IOException {
+        var messages = new ArrayList<RawMessage>();
+        RawMessage m;
+        while ((m = source.next()) != null) messages.add(m);
+        return messages;
+    }
+
+    @Test
+    void messageLogReaderReadsAllMessages(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("log");
+        var expected = write(file, 10_000, 256);
+        try (var reader = new MessageLogReader(file)) {
+            assertEquals(40, reader.blockCount());
+            assertEquals(expected.size(), reader.messageCount());
+            assertEquals(expected.get(0).timeStampNs(), reader.firstTimeStampNs());
+            assertEquals(expected.get(expected.size() - 1).timeStampNs(), reader.lastTimeStampNs());
+            assertEquals(expected, readAll(reader.all()));
+        }
+    }
+
+    @Test
+    void messageLogReaderReadsTimeRanges(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("log");
+        var messages = write(file, 10_000, 100);
+        var rng = new Random(7);
+        try (var reader = new MessageLogReader(file)) {
+            for (int i = 0; i < 50; i += 1) {
+                long a = messages.get(rng.nextInt(messages.size())).timeStampNs() + rng.nextInt(3) - 1;
+                long b = messages.get(rng.nextInt(messages.size())).timeStampNs() + rng.nextInt(3) - 1;
+                long from = Math.min(a, b);
+                long to = Math.max(a, b);
+                var expected = messages.stream()
+                        .filter(m -> from <= m.timeStampNs() && m.timeStampNs() < to)
+                        .toList();
+                assertEquals(expected, readAll(reader.range(from, to)));
+            }
+            assertThrows(IllegalArgumentException.class, () -> reader.range(2, 1));
+        }
+    }
+
+    @Test
+    void messageLogReaderWorksOnEmptyLog(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("log");
+        write(file, 0, 100);
+        try (var reader = new MessageLogReader(file)) {
+            assertEquals(0, reader.blockCount());
+            assertNull(reader.all().next());
+        }
+    }
+
+    @Test
+    void messageLogReaderRecoversLogWithoutIndex(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("log");
+        var messages = write(file, 1_000, 100);
+        // drops the index and part of the last block, as if the recording had been killed
+        long size = Files.size(file);
+        try (var c = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            c.truncate(size - MessageLogReader.TRAILER_SIZE - MessageLogReader.SEGMENT_FILTER_SIZE
+                    - 10L * MessageLogReader.INDEX_ENTRY_SIZE - 5);
+        }
+        try (var reader = new MessageLogReader(file)) {
+            assertEquals(9, reader.blockCount());
+            assertEquals(messages.subList(0, 900), readAll(reader.all()));
+        }
+    }
+
+    @Test
+    void messageLogReaderThrowsOnOtherFiles(@TempDir Path dir) throws Exception {
+        String[] frames = {RawMessageFileReaderTest.FRAMES[0]};
+        Path file = RawMessageFileReaderTest.write(dir, new long[]{1}, frames, 0);
+        assertFalse(MessageLogReader.isLog(file));
+        assertThrows(IOException.class, () -> new MessageLogReader(file));
+    }
+}
@@ -0,0 +1,57 @@
+package ch.epfl.javions.archive;
+
+import ch.epfl.javions.adsb.RawMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageLogWriterTest {
+
+    static RawMessage message(long timeStampNs, int frame) {
+        String[] frames = RawMessageFileReaderTest.FRAMES;
+        return RawMessage.of(timeStampNs, HexFormat.of().parseHex(frames[frame % frames.length]));
+    }
+
+    @Test
+    void messageLogWriterConstructorThrowsOnInvalidArguments(@TempDir Path dir) {
+        assertThrows(IllegalArgumentException.class, () -> new MessageLogWriter(dir.resolve("a"), 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new MessageLogWriter(dir.resolve("a"), 1, 0));
+    }
+
+    @Test
+    void messageLogWriterThrowsOnDecreasingTimeStamps(@TempDir Path dir) throws Exception {
+        try (var writer = new MessageLogWriter(dir.resolve("log"))) {
+            writer.write(message(100, 0));
+            writer.write(message(100, 1));
+            assertThrows(IllegalArgumentException.class, () -> writer.write(message(99, 2)));
+        }
+    }
+
+    @Test
+    void messageLogWriterThrowsOnceClosed(@TempDir Path dir) throws Exception {
+        var writer = new MessageLogWriter(dir.resolve("log"));
+        writer.close();
+        writer.close();
+        assertThrows(IOException.class, () -> writer.write(message(100, 0)));
+    }
+
+    @Test
+    void messageLogWriterCompressesMessages(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("log");
+        int count = 100_000;
+        try (var writer = new MessageLogWriter(file, 1_000, 2)) {
+            for (int i = 0; i < count; i += 1) writer.write(message(1_000L * i, i));
+            assertEquals(count / 1_000, writer.blockCount());
+        }
+        assertTrue(Files.size(file) < count * RawMessageFileReader.RECORD_BYTES / 4);
+        try (var reader = new MessageLogReader(file)) {
+            assertEquals(count, reader.messageCount());
+        }
+    }
+}
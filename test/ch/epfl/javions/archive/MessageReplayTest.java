@@ -0,0 +1,49 @@
+package ch.epfl.javions.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageReplayTest {
+    private static final long MILLION = 1_000_000;
+
+    @Test
+    void messageReplayConstructorThrowsOnInvalidSpeed(@TempDir Path dir) throws IOException {
+        Path file = RawMessageFileReaderTest.write(dir, new long[]{10, 20, 30}, RawMessageFileReaderTest.FRAMES, 0);
+        assertThrows(IllegalArgumentException.class, () -> new MessageReplay(file, 0));
+        assertThrows(IllegalArgumentException.class, () -> new MessageReplay(file, -1));
+    }
+
+    @Test
+    void messageReplayAsFastAsPossibleGivesAllMessagesInOrder(@TempDir Path dir)
+            throws IOException, InterruptedException {
+        long[] timeStamps = {MILLION, 1_000 * MILLION, 3_600_000 * MILLION};
+        Path file = RawMessageFileReaderTest.write(dir, timeStamps, RawMessageFileReaderTest.FRAMES, 0);
+        long start = System.nanoTime();
+        try (var replay = new MessageReplay(file, MessageReplay.AS_FAST_AS_POSSIBLE)) {
+            for (long t : timeStamps) assertEquals(t, replay.next().timeStampNs());
+            assertNull(replay.next());
+            assertEquals(3, replay.messageCount());
+        }
+        assertTrue(System.nanoTime() - start < 1_000 * MILLION);
+    }
+
+    @Test
+    void messageReplayReproducesAcceleratedTiming(@TempDir Path dir) throws IOException, InterruptedException {
+        long[] timeStamps = {5_000 * MILLION, 5_100 * MILLION, 5_400 * MILLION};
+        Path file = RawMessageFileReaderTest.write(dir, timeStamps, RawMessageFileReaderTest.FRAMES, 0);
+        try (var replay = new MessageReplay(file, 2)) {
+            replay.next();
+            long start = System.nanoTime();
+            replay.next();
+            replay.next();
+            long elapsed = System.nanoTime() - start;
+            assertTrue(elapsed >= 190 * MILLION, "elapsed " + elapsed);
+            assertTrue(elapsed < 1_000 * MILLION, "elapsed " + elapsed);
+        }
+    }
+}
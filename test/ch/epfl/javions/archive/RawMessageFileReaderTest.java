@@ -0,0 +1,68 @@
+package ch.epfl.javions.archive;
+
+import ch.epfl.javions.adsb.RawMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RawMessageFileReaderTest {
+    static final String[] FRAMES = {
+            "8D44095358BF06C19B95072CF116",
+            "8D392AE499107FB5C00439035DB8",
+            "8D4D2228234994B7284820323B81"
+    };
+
+    static Path write(Path dir, long[] timeStamps, String[] frames, int trailingBytes) throws IOException {
+        Path file = dir.resolve("messages.bin");
+        try (var s = new DataOutputStream(Files.newOutputStream(file))) {
+            for (int i = 0; i < frames.length; i += 1) {
+                s.writeLong(timeStamps[i]);
+                s.write(HexFormat.of().parseHex(frames[i]));
+            }
+            s.write(new byte[trailingBytes]);
+        }
+        return file;
+    }
+
+    @Test
+    void rawMessageFileReaderReadsAllRecords(@TempDir Path dir) throws IOException {
+        Path file = write(dir, new long[]{10, 20, 30}, FRAMES, 0);
+        try (var reader = new RawMessageFileReader(file)) {
+            assertEquals(3, reader.recordCount());
+            for (int i = 0; i < FRAMES.length; i += 1) {
+                RawMessage expected = RawMessage.of(10L * (i + 1), HexFormat.of().parseHex(FRAMES[i]));
+                assertEquals(expected, reader.next());
+            }
+            assertNull(reader.next());
+            assertEquals(3, reader.rawMessageCount());
+        }
+    }
+
+    @Test
+    void rawMessageFileReaderSkipsInvalidAndTruncatedRecords(@TempDir Path dir) throws IOException {
+        String[] frames = {FRAMES[0], "8D44095358BF06C19B95072CF117", FRAMES[1]};
+        Path file = write(dir, new long[]{10, 20, 30}, frames, 5);
+        try (var reader = new RawMessageFileReader(file)) {
+            assertEquals(3, reader.recordCount());
+            assertEquals(10, reader.next().timeStampNs());
+            assertEquals(30, reader.next().timeStampNs());
+            assertNull(reader.next());
+            assertEquals(1, reader.invalidCount());
+        }
+    }
+
+    @Test
+    void rawMessageFileReaderWorksOnEmptyFile(@TempDir Path dir) throws IOException {
+        Path file = write(dir, new long[0], new String[0], 0);
+        try (var reader = new RawMessageFileReader(file)) {
+            assertNull(reader.next());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ch.epfl.javions.demodulation;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Demodulates a capture at maximal speed and prints the throughput of the demodulator in millions of samples per
+ * second. The capture is the recorded samples file given as argument, such as samples.bin, or a synthetic capture
+ * holding a frame every 2000 powers when no argument is given. It is read in memory beforehand, so that only the
+ * demodulation is measured.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class AdsbDemodulatorBenchmark {
+
+    // number of times the capture is demodulated, the first runs warming up the JIT
+    private static final int RUNS = 10;
+    // number of powers of the synthetic capture, about ten seconds of samples
+    private static final int SYNTHETIC_POWERS_COUNT = 10_000_000;
+
+    public static void main(String[] args) throws IOException {
+        Path capture = (args.length > 0)
+                ? Path.of(args[0])
+                : SyntheticCapture.write(SYNTHETIC_POWERS_COUNT, 1000, 2000, 2023);
+        byte[] bytes = Files.readAllBytes(capture);
+        long samplesCount = bytes.length / Short.BYTES;
+        System.out.printf("%d samples%n", samplesCount);
+
+        long best = Long.MAX_VALUE;
+        long checksum = 0;
+        for (int run = 0; run < RUNS; run += 1) {
+            long start = System.nanoTime();
+            var demodulator = new AdsbDemodulator(new ByteArrayInputStream(bytes));
+            while (demodulator.nextMessage() != null) checksum += 1;
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%.1f ms, %.1f MS/s (%d messages in all runs)%n",
+                best / 1e6, samplesCount / (best / 1e3), checksum);
+    }
+}
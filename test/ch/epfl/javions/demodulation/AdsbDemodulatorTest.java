@@ -1,5 +1,6 @@
 package ch.epfl.javions.demodulation;
 
+import ch.epfl.javions.adsb.RawMessage;
 import ch.epfl.test.TestRandomizer;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -566,4 +567,21 @@ class AdsbDemodulatorTest {
             assertNull(demodulator.nextMessage());
         }
     }
+
+    @Test
+    void adsbDemodulatorNextMessageFindsMessageStartingOneWindowAfterPrevious() throws IOException {
+        // consecutive frames, each one starting around the end of the window of the previous one
+        var capture = SyntheticCapture.write(30_000, 1000, 1200, 1);
+        try (var source = new MappedSampleSource(capture)) {
+            var demodulator = new AdsbDemodulator(source);
+            var previousTimeStampNs = -1L;
+            var adjacentCount = 0;
+            RawMessage message;
+            while ((message = demodulator.nextMessage()) != null) {
+                if (message.timeStampNs() - previousTimeStampNs == 120_000) adjacentCount += 1;
+                previousTimeStampNs = message.timeStampNs();
+            }
+            assertTrue(adjacentCount > 0);
+        }
+    }
 }
@@ -0,0 +1,73 @@
+package ch.epfl.javions.demodulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedSampleSourceTest {
+    private static final int SAMPLES_COUNT = 1 << 12;
+    private static final int BIAS = 1 << 11;
+
+    private static Path getSampleFile() throws IOException {
+        var sampleBytes = new byte[SAMPLES_COUNT * Short.BYTES];
+        var sampleBytesBuffer = ByteBuffer.wrap(sampleBytes)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asShortBuffer();
+
+        for (int i = 0; i < SAMPLES_COUNT; i += 1)
+            sampleBytesBuffer.put((short) i);
+        var file = Files.createTempFile("samples", ".bin");
+        file.toFile().deleteOnExit();
+        return Files.write(file, sampleBytes);
+    }
+
+    @Test
+    void mappedSampleSourceConstructorThrowsWithInvalidRange() throws IOException {
+        var file = getSampleFile();
+        assertThrows(IllegalArgumentException.class, () -> new MappedSampleSource(file, -1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new MappedSampleSource(file, 10, 9));
+    }
+
+    @Test
+    void mappedSampleSourceReadsSameSamplesAsSamplesDecoder() throws IOException {
+        var file = getSampleFile();
+        try (var source = new MappedSampleSource(file);
+             var stream = Files.newInputStream(file)) {
+            var decoder = new SamplesDecoder(stream, SAMPLES_COUNT);
+            var expectedSamples = new short[SAMPLES_COUNT];
+            var actualSamples = new short[SAMPLES_COUNT];
+            assertEquals(SAMPLES_COUNT, decoder.readBatch(expectedSamples));
+            assertEquals(SAMPLES_COUNT, source.readBatch(actualSamples));
+            assertArrayEquals(expectedSamples, actualSamples);
+        }
+    }
+
+    @Test
+    void mappedSampleSourceReadsOnlyGivenRange() throws IOException {
+        try (var source = new MappedSampleSource(getSampleFile(), 100, 200)) {
+            var batch = new short[64];
+            assertEquals(64, source.readBatch(batch));
+            for (int i = 0; i < batch.length; i += 1)
+                assertEquals(100 + i - BIAS, batch[i]);
+            assertEquals(36, source.readBatch(batch));
+            assertEquals(164 + 35 - BIAS, batch[35]);
+            assertEquals(0, batch[36]);
+            assertEquals(0, source.readBatch(batch));
+        }
+    }
+
+    @Test
+    void mappedSampleSourceClampsRangeToFileSize() throws IOException {
+        var file = getSampleFile();
+        assertEquals(SAMPLES_COUNT, MappedSampleSource.sampleCount(file));
+        try (var source = new MappedSampleSource(file, SAMPLES_COUNT - 10, Long.MAX_VALUE)) {
+            assertEquals(10, source.readBatch(new short[SAMPLES_COUNT]));
+        }
+    }
+}
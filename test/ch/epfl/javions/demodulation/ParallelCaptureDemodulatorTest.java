@@ -0,0 +1,47 @@
+package ch.epfl.javions.demodulation;
+
+import ch.epfl.javions.adsb.RawMessage;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelCaptureDemodulatorTest {
+    private static final int POWERS_COUNT = 200_000;
+
+    private static List<RawMessage> demodulateSequentially(Path capture) throws IOException {
+        var messages = new ArrayList<RawMessage>();
+        try (var source = new MappedSampleSource(capture)) {
+            var demodulator = new AdsbDemodulator(source);
+            RawMessage m;
+            while ((m = demodulator.nextMessage()) != null)
+                messages.add(m);
+        }
+        return messages;
+    }
+
+    @Test
+    void parallelCaptureDemodulatorConstructorThrowsWithInvalidChunkSize() {
+        assertThrows(IllegalArgumentException.class, () -> new ParallelCaptureDemodulator(Path.of("x"), 0));
+    }
+
+    @Test
+    void parallelCaptureDemodulatorFindsSameMessagesAsSequentialDemodulator() throws IOException {
+        var capture = SyntheticCapture.write(POWERS_COUNT, 1000, 2000, 2023);
+        var expected = demodulateSequentially(capture);
+        assertEquals(99, expected.size());
+        for (var chunkSize : new int[]{5_000, 7_919, 65_536, POWERS_COUNT}) {
+            var pool = new ForkJoinPool(4);
+            try {
+                assertEquals(expected, new ParallelCaptureDemodulator(capture, chunkSize).demodulate(pool));
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+}
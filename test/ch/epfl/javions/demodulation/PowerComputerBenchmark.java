@@ -0,0 +1,121 @@
+package ch.epfl.javions.demodulation;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Computes the powers of one batch of 65536 random samples with the ring buffer of the power computer and with the
+ * previous implementation, which kept the last samples in a list of boxed shorts and squared through Math.pow, and
+ * prints the time each of them takes. The samples are generated in memory beforehand, so that only their decoding and
+ * the power computation are measured.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class PowerComputerBenchmark {
+
+    // number of times the batch is computed by each implementation, the first runs warming up the JIT
+    private static final int RUNS = 10;
+    private static final int SAMPLES_COUNT = 1 << 16;
+    // each power is computed from two samples
+    private static final int BATCH_SIZE = SAMPLES_COUNT / 2;
+
+    public static void main(String[] args) throws IOException {
+        byte[] bytes = randomSamples(new Random(2023));
+        System.out.printf("%d samples%n", SAMPLES_COUNT);
+
+        long best = Long.MAX_VALUE;
+        long checksum = 0;
+        for (int run = 0; run < RUNS; run += 1) {
+            var computer = new PowerComputer(new ByteArrayInputStream(bytes), BATCH_SIZE);
+            int[] batch = new int[BATCH_SIZE];
+            long start = System.nanoTime();
+            computer.readBatch(batch);
+            best = Math.min(best, System.nanoTime() - start);
+            checksum += sum(batch);
+        }
+        print("ring buffer", best, checksum);
+
+        best = Long.MAX_VALUE;
+        checksum = 0;
+        for (int run = 0; run < RUNS; run += 1) {
+            var computer = new ListPowerComputer(new ByteArrayInputStream(bytes), BATCH_SIZE);
+            int[] batch = new int[BATCH_SIZE];
+            long start = System.nanoTime();
+            computer.readBatch(batch);
+            best = Math.min(best, System.nanoTime() - start);
+            checksum += sum(batch);
+        }
+        print("list", best, checksum);
+    }
+
+    private static byte[] randomSamples(Random random) {
+        byte[] bytes = new byte[Short.BYTES * SAMPLES_COUNT];
+        for (int i = 0; i < SAMPLES_COUNT; i += 1) {
+            // 12 bits unsigned samples, stored in little endian
+            int sample = random.nextInt(1 << 12);
+            bytes[2 * i] = (byte) sample;
+            bytes[2 * i + 1] = (byte) (sample >>> Byte.SIZE);
+        }
+        return bytes;
+    }
+
+    private static long sum(int[] batch) {
+        long sum = 0;
+        for (int power : batch) sum += power;
+        return sum;
+    }
+
+    private static void print(String name, long best, long checksum) {
+        System.out.printf("%s: %.3f ms, %.0f MS/s (checksum %d)%n",
+                name, best / 1e6, SAMPLES_COUNT / (best / 1e3), checksum);
+    }
+
+    /**
+     * Power computer as it was before the ring buffer, kept here as the reference of the benchmark.
+     */
+    private static final class ListPowerComputer {
+
+        private final short[] buffer;
+        private final List<Short> powerMemoryDeque;
+        private final SamplesDecoder decoder;
+        private final int batchSize;
+
+        private ListPowerComputer(InputStream stream, int batchSize) {
+            this.batchSize = batchSize;
+            this.buffer = new short[Short.BYTES * batchSize];
+            this.decoder = new SamplesDecoder(stream, this.buffer.length);
+            this.powerMemoryDeque = new ArrayList<>(Byte.SIZE);
+            this.powerMemoryDeque.addAll(Collections.nCopies(Byte.SIZE, (short) 0));
+        }
+
+        private int readBatch(int[] batch) throws IOException {
+            int count = this.decoder.readBatch(this.buffer);
+            for (int i = 0; i < batchSize; i += 1) {
+                this.addToList(this.buffer[2 * i]);
+                this.addToList(this.buffer[2 * i + 1]);
+                batch[i] = this.computeSignalPower();
+            }
+            return count / 2;
+        }
+
+        private int computeSignalPower() {
+            return (int) (
+                    Math.pow(this.powerMemoryDeque.get(7) - this.powerMemoryDeque.get(5)
+                            + this.powerMemoryDeque.get(3) - this.powerMemoryDeque.get(1), 2)
+                            + Math.pow(this.powerMemoryDeque.get(6) - this.powerMemoryDeque.get(4)
+                            + this.powerMemoryDeque.get(2) - this.powerMemoryDeque.get(0), 2)
+            );
+        }
+
+        private void addToList(short s) {
+            if (this.powerMemoryDeque.size() == Byte.SIZE)
+                this.powerMemoryDeque.remove(0);
+            this.powerMemoryDeque.add(s);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package ch.epfl.javions.demodulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReceiverPoolTest {
+
+    @Test
+    void receiverPoolConstructorThrowsWithoutSources() {
+        assertThrows(IllegalArgumentException.class, () -> new ReceiverPool(List.of()));
+    }
+
+    @Test
+    void receiverPoolMergesMessagesOfAllReceiversInTimestampOrder() throws IOException, InterruptedException {
+        var sources = new ArrayList<MappedSampleSource>();
+        sources.add(new MappedSampleSource(SyntheticCapture.write(100_000, 1000, 2000, 1)));
+        sources.add(new MappedSampleSource(SyntheticCapture.write(100_000, 1500, 3000, 2)));
+        sources.add(new MappedSampleSource(SyntheticCapture.write(100_000, 1700, 5000, 3)));
+
+        var counts = new int[sources.size()];
+        var previousTimeStampNs = -1L;
+        try (var pool = new ReceiverPool(sources)) {
+            pool.start();
+            ReceivedMessage m;
+            while ((m = pool.next()) != null) {
+                assertTrue(previousTimeStampNs <= m.message().timeStampNs());
+                previousTimeStampNs = m.message().timeStampNs();
+                counts[m.receiverId()] += 1;
+            }
+        } finally {
+            for (var source : sources) source.close();
+        }
+        assertArrayEquals(new int[]{49, 32, 19}, counts);
+    }
+
+    /**
+     * Source of a live receiver whose antenna is quiet, giving silent samples until it is closed.
+     */
+    private static final class QuietSource implements SampleSource, Closeable {
+        private volatile boolean closed;
+
+        @Override
+        public int readBatch(short[] batch) throws IOException {
+            if (this.closed) throw new IOException("closed");
+            Arrays.fill(batch, (short) 0);
+            return batch.length;
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+        }
+    }
+
+    /**
+     * Stream of a receiver whose samples stopped coming, blocking until it is closed.
+     */
+    private static final class BlockedStream extends InputStream {
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public int read() throws IOException {
+            try {
+                this.closed.await();
+            } catch (InterruptedException e) {
+                // a blocked read of a device is not unblocked by an interruption either
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("closed");
+        }
+
+        @Override
+        public void close() {
+            this.closed.countDown();
+        }
+    }
+
+    private static int messageCount(MappedSampleSource source) throws IOException {
+        var demodulator = new AdsbDemodulator(source);
+        var count = 0;
+        while (demodulator.nextMessage() != null) count += 1;
+        return count;
+    }
+
+    @Test
+    void receiverPoolIsNotHeldBackByQuietReceiver() throws IOException, InterruptedException {
+        var capture = SyntheticCapture.write(100_000, 1000, 2000, 1);
+        int expected;
+        try (var source = new MappedSampleSource(capture)) {
+            expected = messageCount(source);
+        }
+
+        var quiet = new QuietSource();
+        var threads = new CopyOnWriteArrayList<Thread>();
+        try (var source = new MappedSampleSource(capture);
+             var pool = new ReceiverPool(List.of(source, quiet), r -> {
+                 var t = new Thread(r);
+                 threads.add(t);
+                 return t;
+             }, Long.MAX_VALUE)) {
+            pool.start();
+            var previousTimeStampNs = -1L;
+            for (int i = 0; i < expected; i += 1) {
+                var m = pool.next();
+                assertEquals(0, m.receiverId());
+                assertTrue(previousTimeStampNs <= m.message().timeStampNs());
+                previousTimeStampNs = m.message().timeStampNs();
+            }
+        }
+        for (var t : threads) {
+            t.join(10_000);
+            assertFalse(t.isAlive());
+        }
+    }
+
+    @Test
+    void receiverPoolHandsMessagesOverAfterMaximalLagAndCloseUnblocksSources()
+            throws IOException, InterruptedException {
+        var capture = SyntheticCapture.write(100_000, 1000, 2000, 1);
+        int expected;
+        try (var source = new MappedSampleSource(capture)) {
+            expected = messageCount(source);
+        }
+
+        var threads = new CopyOnWriteArrayList<Thread>();
+        try (var source = new MappedSampleSource(capture);
+             var pool = new ReceiverPool(List.of(source, new SamplesDecoder(new BlockedStream(), 1 << 17)), r -> {
+                 var t = new Thread(r);
+                 threads.add(t);
+                 return t;
+             }, 1_000_000)) {
+            pool.start();
+            for (int i = 0; i < expected; i += 1) assertEquals(0, pool.next().receiverId());
+        }
+        for (var t : threads) {
+            t.join(10_000);
+            assertFalse(t.isAlive());
+        }
+    }
+}
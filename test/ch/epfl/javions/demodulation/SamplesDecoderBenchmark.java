@@ -0,0 +1,49 @@
+package ch.epfl.javions.demodulation;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Decodes a recorded samples file, such as samples.bin, at maximal speed in every decoding mode available, and prints
+ * the throughput of each of them in millions of samples per second. The file is read in memory beforehand, so that
+ * only the decoding is measured. The vector mode is only available when the JVM is started with
+ * --add-modules jdk.incubator.vector and the classes of the vector source root are on the class path.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class SamplesDecoderBenchmark {
+
+    // number of times the file is decoded in each mode, the first runs warming up the JIT
+    private static final int RUNS = 10;
+    // number of samples decoded at once, those of a batch of the demodulator
+    private static final int BATCH_SIZE = 1 << 17;
+
+    public static void main(String[] args) throws IOException {
+        byte[] bytes = Files.readAllBytes(Path.of(args[0]));
+        long samplesCount = bytes.length / Short.BYTES;
+        System.out.printf("%d samples, default mode %s%n", samplesCount, SamplesDecoder.DEFAULT_MODE);
+        for (SamplesDecoder.Mode mode : SamplesDecoder.Mode.values()) {
+            if (!SamplesDecoder.isAvailable(mode)) {
+                System.out.printf("%s: not available%n", mode);
+                continue;
+            }
+            long best = Long.MAX_VALUE;
+            long checksum = 0;
+            for (int run = 0; run < RUNS; run += 1) {
+                var decoder = new SamplesDecoder(new ByteArrayInputStream(bytes), BATCH_SIZE, mode);
+                short[] batch = new short[BATCH_SIZE];
+                long start = System.nanoTime();
+                int count;
+                do {
+                    count = decoder.readBatch(batch);
+                    checksum += batch[0];
+                } while (count == batch.length);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf("%s: %.1f ms, %.0f MS/s (checksum %d)%n",
+                    mode, best / 1e6, samplesCount / (best / 1e3), checksum);
+        }
+    }
+}
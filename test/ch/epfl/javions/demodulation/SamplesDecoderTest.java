@@ -89,6 +89,36 @@ class SamplesDecoderTest {
             }
         }
     }
-}
 
+    @Test
+    void samplesDecoderWorksInAllAvailableModes() throws IOException {
+        var expectedSamples = new short[SAMPLES_COUNT];
+        for (int i = 0; i < SAMPLES_COUNT; i += 1)
+            expectedSamples[i] = (short) (i - BIAS);
 
+        assertTrue(SamplesDecoder.isAvailable(SamplesDecoder.Mode.SCALAR));
+        assertTrue(SamplesDecoder.isAvailable(SamplesDecoder.DEFAULT_MODE));
+        for (var mode : SamplesDecoder.Mode.values()) {
+            if (!SamplesDecoder.isAvailable(mode)) {
+                var stream = new ByteArrayInputStream(new byte[0]);
+                assertThrows(IllegalArgumentException.class, () -> new SamplesDecoder(stream, 1, mode));
+                continue;
+            }
+            // batch sizes that are not multiples of the length of the vectors
+            for (var batchSize : new int[]{1, 7, 100, SAMPLES_COUNT}) {
+                try (var byteStream = new ByteArrayInputStream(getSampleBytes())) {
+                    var samplesDecoder = new SamplesDecoder(byteStream, batchSize, mode);
+                    var actualSamples = new short[SAMPLES_COUNT];
+                    var batch = new short[batchSize];
+                    for (var i = 0; i < SAMPLES_COUNT / batchSize; i += 1) {
+                        assertEquals(batchSize, samplesDecoder.readBatch(batch));
+                        System.arraycopy(batch, 0, actualSamples, i * batchSize, batchSize);
+                    }
+                    var decoded = SAMPLES_COUNT / batchSize * batchSize;
+                    for (var i = 0; i < decoded; i += 1)
+                        assertEquals(expectedSamples[i], actualSamples[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package ch.epfl.javions.demodulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds capture files containing known frames, modulated on a carrier at a quarter of the sampling frequency.
+ */
+public final class SyntheticCapture {
+    public static final List<String> FRAMES = List.of(
+            "8D4B17E5F8210002004BB8B1F1AC",
+            "8D49529958B302E6E15FA352306B",
+            "8D39D300990CE72C70089058AD77",
+            "8D4241A9601B32DA4367C4C3965E",
+            "8D4B1A00EA0DC89E8F7C0857D5F5");
+
+    private SyntheticCapture() {
+    }
+
+    /**
+     * Writes a capture of the given number of powers, with one of the frames every spacing powers, the first one
+     * starting at power firstFrame.
+     */
+    public static Path write(int powersCount, int firstFrame, int spacing, long seed) throws IOException {
+        var amplitude = new int[powersCount];
+        var frameCount = 0;
+        for (int start = firstFrame; start + spacing <= powersCount; start += spacing, frameCount += 1) {
+            var frame = HexFormat.of().parseHex(FRAMES.get(frameCount % FRAMES.size()));
+            for (int pulse : new int[]{0, 10, 35, 45})
+                for (int i = 0; i < 5; i += 1) amplitude[start + pulse + i] = 100;
+            for (int bit = 0; bit < 112; bit += 1) {
+                var one = ((frame[bit / 8] >> (7 - bit % 8)) & 1) == 1;
+                for (int i = 0; i < 5; i += 1) amplitude[start + 80 + 10 * bit + (one ? 0 : 5) + i] = 100;
+            }
+        }
+
+        var rng = new Random(seed);
+        var carrier = new int[]{1, 1, -1, -1};
+        var bytes = ByteBuffer.allocate(powersCount * 2 * Short.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < 2 * powersCount; i += 1)
+            bytes.putShort((short) (2048 + amplitude[i / 2] * carrier[i % 4] + rng.nextInt(5) - 2));
+        var file = Files.createTempFile("capture", ".bin");
+        file.toFile().deleteOnExit();
+        return Files.write(file, bytes.array());
+    }
+}
@@ -0,0 +1,70 @@
+package ch.epfl.javions.pipeline;
+
+import ch.epfl.javions.adsb.Message;
+import ch.epfl.javions.adsb.MessageParser;
+import ch.epfl.javions.adsb.RawMessage;
+import ch.epfl.javions.aircraft.IcaoAddress;
+import org.junit.jupiter.api.Test;
+
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AircraftStateStoreTest {
+    private static final long MINUTE_NS = 60_000_000_000L;
+
+    private static Message message(long timeStampNs, String hex) {
+        return MessageParser.parse(RawMessage.of(timeStampNs, HexFormat.of().parseHex(hex)));
+    }
+
+    @Test
+    void aircraftStateStorePublishesLatestCopyOfEachAircraft() {
+        var store = new AircraftStateStore();
+        store.update(message(100, "8D44095358BF06C19B95072CF116"));
+        store.publish();
+        store.update(message(200, "8D44095358BF06C19B95072CF116"));
+        store.update(message(300, "8D392AE499107FB5C00439035DB8"));
+        store.publish();
+
+        var published = store.takePublished();
+        assertEquals(2, published.size());
+        assertEquals(200, published.get(new IcaoAddress("440953")).lastMessageTimeStampNs());
+        assertEquals(300, published.get(new IcaoAddress("392AE4")).lastMessageTimeStampNs());
+        assertTrue(store.takePublished().isEmpty());
+        assertEquals(3, store.updateCount());
+    }
+
+    @Test
+    void aircraftStateStorePublishedCopiesAreNotUpdated() {
+        var store = new AircraftStateStore();
+        store.update(message(100, "8D44095358BF06C19B95072CF116"));
+        store.publish();
+        var copy = store.takePublished().get(new IcaoAddress("440953"));
+        store.update(message(200, "8D44095358BF06C19B95072CF116"));
+        assertEquals(100, copy.lastMessageTimeStampNs());
+        assertEquals(200, store.states().get(new IcaoAddress("440953")).lastMessageTimeStampNs());
+    }
+
+    @Test
+    void aircraftStateStorePurgesSilentAircraft() {
+        var store = new AircraftStateStore();
+        store.update(message(100, "8D44095358BF06C19B95072CF116"));
+        store.update(message(100 + 2 * MINUTE_NS, "8D392AE499107FB5C00439035DB8"));
+        assertEquals(1, store.purge());
+        assertEquals(1, store.states().size());
+        assertFalse(store.states().containsKey(new IcaoAddress("440953")));
+    }
+
+    @Test
+    void aircraftStateStorePurgesWithGivenTimeToLiveAndTime() {
+        var store = new AircraftStateStore(1_000);
+        store.update(message(100, "8D44095358BF06C19B95072CF116"));
+        store.update(message(600, "8D392AE499107FB5C00439035DB8"));
+        assertEquals(0, store.purge());
+        assertEquals(1, store.purge(1_200));
+        assertEquals(1, store.purge(10_000));
+        assertTrue(store.states().isEmpty());
+        store.update(message(20_000, "8D44095358BF06C19B95072CF116"));
+        assertEquals(1, store.states().size());
+    }
+}
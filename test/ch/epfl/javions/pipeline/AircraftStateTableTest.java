@@ -0,0 +1,196 @@
+package ch.epfl.javions.pipeline;
+
+import ch.epfl.javions.Crc24;
+import ch.epfl.javions.adsb.AircraftState;
+import ch.epfl.javions.adsb.Message;
+import ch.epfl.javions.adsb.MessageParser;
+import ch.epfl.javions.adsb.RawMessage;
+import ch.epfl.javions.aircraft.IcaoAddress;
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class AircraftStateTableTest {
+    private static final long MINUTE_NS = 60_000_000_000L;
+    // bytes a round of parsing may allocate, for example when the JIT compiler deoptimizes the loop of the test
+    private static final long ALLOCATION_TOLERANCE = 1024;
+
+    /**
+     * Random raw messages of the given number of aircraft, one every 10 ms, the type codes being restricted to the
+     * ones of the identification, position and velocity messages.
+     */
+    private static List<RawMessage> rawMessages(int count, int aircraftCount, long seed) {
+        var rng = new Random(seed);
+        var crc24 = new Crc24(Crc24.GENERATOR);
+        var addresses = new int[aircraftCount];
+        for (int i = 0; i < aircraftCount; i += 1) addresses[i] = 0x400000 + rng.nextInt(1 << 20);
+        int[] typeCodes = {1, 2, 3, 4, 9, 11, 18, 19, 20, 22};
+
+        List<RawMessage> rawMessages = new ArrayList<>(count);
+        for (int i = 0; i < count; i += 1) {
+            var bytes = new byte[RawMessage.LENGTH];
+            rng.nextBytes(bytes);
+            int address = addresses[rng.nextInt(aircraftCount)];
+            bytes[0] = (byte) 0x8D;
+            bytes[1] = (byte) (address >> 16);
+            bytes[2] = (byte) (address >> 8);
+            bytes[3] = (byte) address;
+            bytes[4] = (byte) ((typeCodes[rng.nextInt(typeCodes.length)] << 3) | (bytes[4] & 0b111));
+            int crc = crc24.crc(bytes, 0, 11);
+            bytes[11] = (byte) (crc >> 16);
+            bytes[12] = (byte) (crc >> 8);
+            bytes[13] = (byte) crc;
+            rawMessages.add(RawMessage.of(i * 10_000_000L, bytes));
+        }
+        return rawMessages;
+    }
+
+    private static void assertSameState(AircraftState expected, AircraftState actual) {
+        assertEquals(expected.icaoAddress(), actual.icaoAddress());
+        assertEquals(expected.lastMessageTimeStampNs(), actual.lastMessageTimeStampNs());
+        assertEquals(expected.category(), actual.category());
+        assertEquals(expected.callSign(), actual.callSign());
+        assertEquals(expected.position(), actual.position());
+        assertEquals(expected.altitude(), actual.altitude());
+        assertEquals(expected.velocity(), actual.velocity());
+        assertEquals(expected.trackOrHeading(), actual.trackOrHeading());
+    }
+
+    @Test
+    void aircraftStateTableConstructorThrowsWithInvalidTimeToLive() {
+        assertThrows(IllegalArgumentException.class, () -> new AircraftStateTable(0));
+    }
+
+    @Test
+    void aircraftStateTableUpdatesLikeStore() {
+        var store = new AircraftStateStore();
+        var table = new AircraftStateTable();
+        var updateCount = 0;
+        // enough aircraft for the table to grow several times
+        for (var r : rawMessages(200_000, 1_000, 1)) {
+            Message m = MessageParser.parse(r);
+            if (m != null) {
+                store.update(m);
+                updateCount += 1;
+            }
+            assertEquals(m != null, MessageParser.parse(r, table));
+        }
+
+        assertEquals(updateCount, table.updateCount());
+        assertEquals(store.lastTimeStampNs(), table.lastTimeStampNs());
+        assertEquals(store.states().size(), table.size());
+        assertEquals(store.states().keySet(), table.states().keySet());
+        var positionCount = 0;
+        for (var expected : store.states().values()) {
+            assertSameState(expected, table.state(expected.icaoAddress()));
+            if (expected.position() != null) positionCount += 1;
+        }
+        assertTrue(positionCount > 0);
+    }
+
+    @Test
+    void aircraftStateTableDecodesPositionOfRealMessages() {
+        var table = new AircraftStateTable();
+        var hex = HexFormat.of();
+        MessageParser.parse(RawMessage.of(100, hex.parseHex("8D4402F2587563156B9880D4D855")), table);
+        MessageParser.parse(RawMessage.of(200, hex.parseHex("8D4402F25887D6AFD7A1A3769B45")), table);
+
+        var expected = new AircraftStateStore();
+        expected.update(MessageParser.parse(RawMessage.of(100, hex.parseHex("8D4402F2587563156B9880D4D855"))));
+        expected.update(MessageParser.parse(RawMessage.of(200, hex.parseHex("8D4402F25887D6AFD7A1A3769B45"))));
+        var address = new IcaoAddress("4402F2");
+        assertNotNull(table.state(address).position());
+        assertSameState(expected.states().get(address), table.state(address));
+        assertNull(table.state(new IcaoAddress("ABCDEF")));
+    }
+
+    @Test
+    void aircraftStateTablePurgesSilentAircraft() {
+        var table = new AircraftStateTable();
+        var hex = HexFormat.of();
+        MessageParser.parse(RawMessage.of(100, hex.parseHex("8D44095358BF06C19B95072CF116")), table);
+        MessageParser.parse(RawMessage.of(100 + 2 * MINUTE_NS, hex.parseHex("8D392AE499107FB5C00439035DB8")), table);
+        assertEquals(1, table.purge());
+        assertEquals(1, table.size());
+        assertNull(table.state(new IcaoAddress("440953")));
+        assertNotNull(table.state(new IcaoAddress("392AE4")));
+        assertEquals(0, table.purge());
+        assertEquals(1, table.purge(100 + 3 * MINUTE_NS));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    void aircraftStateTablePurgesAircraftInPlace() {
+        // 1000 aircraft sending a message every 10 seconds on average, so that many expire between two messages
+        long ttlNs = 6_400_000_000L;
+        long tickNs = ttlNs / ExpiryWheel.DEFAULT_TICKS_PER_TTL;
+        var table = new AircraftStateTable(ttlNs);
+        var lastTimeStamps = new HashMap<Integer, Long>();
+        var expiredCount = 0;
+        var rawMessages = rawMessages(100_000, 1_000, 3);
+        for (int i = 0; i < rawMessages.size(); i += 1) {
+            var r = rawMessages.get(i);
+            if (MessageParser.parse(r, table)) lastTimeStamps.put(r.icaoAddress().value(), r.timeStampNs());
+            if (i % 100 != 99) continue;
+
+            expiredCount += table.purge();
+            long nowNs = table.lastTimeStampNs();
+            var size = 0;
+            for (var e : lastTimeStamps.entrySet()) {
+                var state = table.state(IcaoAddress.of(e.getKey()));
+                if (state != null) {
+                    size += 1;
+                    assertEquals(e.getValue(), state.lastMessageTimeStampNs());
+                    assertTrue(nowNs - e.getValue() < ttlNs + tickNs);
+                } else {
+                    assertTrue(nowNs - e.getValue() >= ttlNs);
+                }
+            }
+            assertEquals(size, table.size());
+        }
+        assertTrue(expiredCount > 1_000);
+    }
+
+    /**
+     * Parses one second of the given raw messages into the given table, one every 10 ms, and purges it.
+     *
+     * @return number of aircraft purged
+     */
+    private static int parseAndPurgeSecond(RawMessage[] rawMessages, int second, AircraftStateTable table) {
+        for (int i = 100 * second; i < 100 * (second + 1); i += 1) MessageParser.parse(rawMessages[i], table);
+        return table.purge();
+    }
+
+    @Test
+    void aircraftStateTableParsesAndPurgesWithoutAllocating() {
+        var threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        // 50 aircraft sending a message every half second on average, so that some of them expire after a second
+        var rawMessages = rawMessages(300_000, 50, 2).toArray(new RawMessage[0]);
+        var table = new AircraftStateTable(1_000_000_000L);
+        var second = 0;
+        for (; second < 2_000; second += 1) parseAndPurgeSecond(rawMessages, second, table);
+
+        // the least allocating of several rounds of 200 seconds, the compilation of the test itself possibly allocating
+        var expiredCount = 0;
+        var allocated = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round += 1) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < 200; i += 1, second += 1)
+                expiredCount += parseAndPurgeSecond(rawMessages, second, table);
+            allocated = Math.min(allocated, threads.getCurrentThreadAllocatedBytes() - before);
+        }
+        assertTrue(table.updateCount() > 0);
+        assertTrue(expiredCount > 0);
+        assertTrue(allocated <= ALLOCATION_TOLERANCE, allocated + " bytes allocated");
+    }
+}
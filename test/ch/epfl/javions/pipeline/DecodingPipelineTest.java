@@ -0,0 +1,65 @@
+package ch.epfl.javions.pipeline;
+
+import ch.epfl.javions.adsb.CrcErrorCorrector;
+import ch.epfl.javions.adsb.Message;
+import ch.epfl.javions.adsb.MessageParser;
+import ch.epfl.javions.aircraft.IcaoAddress;
+import ch.epfl.javions.demodulation.AdsbDemodulator;
+import ch.epfl.javions.demodulation.MappedSampleSource;
+import ch.epfl.javions.demodulation.SyntheticCapture;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecodingPipelineTest {
+
+    @Test
+    void decodingPipelineConstructorThrowsWithInvalidSizes() throws IOException {
+        var capture = SyntheticCapture.write(10_000, 1000, 2000, 1);
+        try (var source = new MappedSampleSource(capture)) {
+            var corrector = new CrcErrorCorrector(CrcErrorCorrector.Mode.NONE);
+            assertThrows(IllegalArgumentException.class,
+                    () -> new DecodingPipeline(source, corrector, 0, 1, Thread::new));
+            assertThrows(IllegalArgumentException.class,
+                    () -> new DecodingPipeline(source, corrector, 1, 0, Thread::new));
+        }
+    }
+
+    @Test
+    void decodingPipelineDecodesLikeSequentialDecoding() throws IOException, InterruptedException {
+        Path capture = SyntheticCapture.write(200_000, 1000, 2000, 1);
+
+        var rawCount = 0;
+        var messageCount = 0;
+        Set<IcaoAddress> addresses = new HashSet<>();
+        try (var source = new MappedSampleSource(capture)) {
+            var demodulator = new AdsbDemodulator(source);
+            for (var r = demodulator.nextMessage(); r != null; r = demodulator.nextMessage()) {
+                rawCount += 1;
+                Message m = MessageParser.parse(r);
+                if (m != null) {
+                    messageCount += 1;
+                    addresses.add(m.icaoAddress());
+                }
+            }
+        }
+
+        try (var source = new MappedSampleSource(capture);
+             var pipeline = new DecodingPipeline(
+                     source, new CrcErrorCorrector(CrcErrorCorrector.Mode.NONE), 2, 7, Thread::new)) {
+            pipeline.start();
+            pipeline.await();
+            assertEquals(rawCount, pipeline.rawMessageCount());
+            assertEquals(messageCount, pipeline.messageCount());
+            assertEquals(messageCount, pipeline.updateCount());
+            assertEquals(addresses, pipeline.states().keySet());
+            for (var state : pipeline.states().values())
+                assertTrue(state.lastMessageTimeStampNs() > 0);
+        }
+    }
+}
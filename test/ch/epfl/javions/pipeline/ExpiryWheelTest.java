@@ -0,0 +1,79 @@
+package ch.epfl.javions.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiryWheelTest {
+
+    @Test
+    void expiryWheelConstructorThrowsOnInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ExpiryWheel<String>(0));
+        assertThrows(IllegalArgumentException.class, () -> new ExpiryWheel<String>(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ExpiryWheel<String>(100, 101));
+        assertThrows(IllegalArgumentException.class, () -> new ExpiryWheel<String>(1 << 21, 1));
+    }
+
+    @Test
+    void expiryWheelExpiresUntouchedKeysAfterTheirTimeToLive() {
+        var wheel = new ExpiryWheel<String>(100, 10);
+        wheel.touch("a", 0);
+        wheel.touch("b", 50);
+        var expired = new ArrayList<String>();
+        assertEquals(0, wheel.expire(99, expired::add));
+        assertEquals(1, wheel.expire(100, expired::add));
+        assertEquals(List.of("a"), expired);
+        assertEquals(1, wheel.expire(150, expired::add));
+        assertEquals(List.of("a", "b"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void expiryWheelKeepsTouchedKeys() {
+        var wheel = new ExpiryWheel<String>(100, 10);
+        wheel.touch("a", 0);
+        for (long t = 10; t <= 1_000; t += 10) {
+            wheel.touch("a", t);
+            assertEquals(0, wheel.expire(t, k -> fail()));
+        }
+        assertEquals(1, wheel.expire(1_100, k -> assertEquals("a", k)));
+    }
+
+    @Test
+    void expiryWheelRemovesKeys() {
+        var wheel = new ExpiryWheel<String>(100, 10);
+        wheel.touch("a", 0);
+        wheel.touch("b", 0);
+        assertTrue(wheel.remove("a"));
+        assertFalse(wheel.remove("a"));
+        assertEquals(1, wheel.expire(1_000, k -> assertEquals("b", k)));
+    }
+
+    @Test
+    void expiryWheelWorksOnRandomActivity() {
+        var rng = new Random(2023);
+        long ttl = 1_000;
+        var wheel = new ExpiryWheel<Integer>(ttl, 30);
+        var last = new HashMap<Integer, Long>();
+        long now = 0;
+        for (int i = 0; i < 100_000; i += 1) {
+            now += rng.nextInt(20);
+            int key = rng.nextInt(200);
+            wheel.touch(key, now);
+            last.put(key, now);
+            if (rng.nextInt(50) == 0) {
+                long t = now + rng.nextInt(3_000);
+                wheel.expire(t, k -> {
+                    long age = t - last.remove(k);
+                    assertTrue(ttl <= age);
+                });
+                // nothing older than the time to live and one tick survives
+                for (long l : last.values()) assertTrue(t - l < ttl + 30);
+                now = Math.max(now, t);
+            }
+        }
+        assertEquals(last.size(), wheel.size());
+    }
+}
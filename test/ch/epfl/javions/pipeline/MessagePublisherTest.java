@@ -0,0 +1,158 @@
+package ch.epfl.javions.pipeline;
+
+import ch.epfl.javions.adsb.Message;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static ch.epfl.javions.pipeline.MessageResequencerTest.message;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessagePublisherTest {
+
+    private static List<Message> messages(int count) {
+        return IntStream.range(0, count).mapToObj(i -> message(i, i % 3)).toList();
+    }
+
+    // subscriber requesting the messages one at a time, from its onNext method
+    private static final class OneByOne implements Flow.Subscriber<Message> {
+        final List<Message> received = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        final int cancelAfter;
+        Flow.Subscription subscription;
+        Throwable error;
+        boolean completed;
+
+        OneByOne(int cancelAfter) {
+            this.cancelAfter = cancelAfter;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(Message item) {
+            this.received.add(item);
+            if (this.received.size() == this.cancelAfter) {
+                this.subscription.cancel();
+                this.done.countDown();
+            } else {
+                this.subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            this.error = throwable;
+            this.done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed = true;
+            this.done.countDown();
+        }
+    }
+
+    @Test
+    void messagePublisherHandsOverAllMessagesOnDemand() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            var closed = new AtomicBoolean();
+            var expected = messages(1_000);
+            var publisher = new MessagePublisher(expected.stream().onClose(() -> closed.set(true)), executor);
+            var subscriber = new OneByOne(-1);
+            publisher.subscribe(subscriber);
+            assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+            assertEquals(expected, subscriber.received);
+            assertTrue(subscriber.completed);
+            assertNull(subscriber.error);
+            assertTrue(closed.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void messagePublisherStopsOnCancel() throws Exception {
+        var closed = new AtomicBoolean();
+        var publisher = new MessagePublisher(messages(100).stream().onClose(() -> closed.set(true)), Runnable::run);
+        var subscriber = new OneByOne(10);
+        publisher.subscribe(subscriber);
+        assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+        assertEquals(10, subscriber.received.size());
+        assertFalse(subscriber.completed);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void messagePublisherSignalsInvalidRequestsAndSecondSubscribers() {
+        var publisher = new MessagePublisher(messages(10).stream(), Runnable::run);
+        var errors = new ArrayList<Throwable>();
+        var subscriber = new Flow.Subscriber<Message>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(0);
+            }
+
+            @Override
+            public void onNext(Message item) {
+                fail();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                errors.add(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                fail();
+            }
+        };
+        publisher.subscribe(subscriber);
+        publisher.subscribe(subscriber);
+        assertEquals(2, errors.size());
+        assertInstanceOf(IllegalArgumentException.class, errors.get(0));
+        assertInstanceOf(IllegalStateException.class, errors.get(1));
+    }
+
+    @Test
+    void messagePublisherSignalsEndOfEmptyStreamWithoutDemand() {
+        var completed = new AtomicBoolean();
+        new MessagePublisher(Stream.empty(), Runnable::run).subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(Message item) {
+                fail();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                fail(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                completed.set(true);
+            }
+        });
+        assertTrue(completed.get());
+    }
+}
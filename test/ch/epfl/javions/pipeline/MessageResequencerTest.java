@@ -0,0 +1,85 @@
+package ch.epfl.javions.pipeline;
+
+import ch.epfl.javions.adsb.Message;
+import ch.epfl.javions.adsb.MessageParser;
+import ch.epfl.javions.adsb.RawMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageResequencerTest {
+    static final String[] FRAMES = {
+            "8D44095358BF06C19B95072CF116",
+            "8D392AE499107FB5C00439035DB8",
+            "8D4D2228234994B7284820323B81"
+    };
+
+    static Message message(long timeStampNs, int frame) {
+        return MessageParser.parse(RawMessage.of(timeStampNs, HexFormat.of().parseHex(FRAMES[frame])));
+    }
+
+    private static void assertInOrderPerAircraft(List<Message> messages) {
+        var last = new HashMap<Object, Long>();
+        for (Message m : messages) {
+            Long previous = last.put(m.icaoAddress(), m.timeStampNs());
+            assertTrue(previous == null || previous <= m.timeStampNs());
+        }
+    }
+
+    @Test
+    void messageResequencerConstructorThrowsOnNegativeDelay() {
+        assertThrows(IllegalArgumentException.class, () -> new MessageResequencer(-1, m -> {}));
+    }
+
+    @Test
+    void messageResequencerHoldsMessagesBackForTheMaximalDelay() {
+        var released = new ArrayList<Message>();
+        var resequencer = new MessageResequencer(100, released::add);
+        resequencer.accept(message(1_000, 0));
+        resequencer.accept(message(1_050, 1));
+        assertTrue(released.isEmpty());
+        assertEquals(2, resequencer.pendingCount());
+        resequencer.accept(message(1_100, 2));
+        assertEquals(List.of(1_000L), released.stream().map(Message::timeStampNs).toList());
+        resequencer.flush();
+        assertEquals(List.of(1_000L, 1_050L, 1_100L), released.stream().map(Message::timeStampNs).toList());
+        assertEquals(0, resequencer.pendingCount());
+    }
+
+    @Test
+    void messageResequencerRestoresOrderOfShuffledMessages() {
+        var rng = new Random(2023);
+        var messages = new ArrayList<Message>();
+        for (int i = 0; i < 10_000; i += 1) messages.add(message(1_000L * i, rng.nextInt(FRAMES.length)));
+        // shuffles the messages within windows of 50, so that no message is delayed by more than 50 us
+        for (int i = 0; i < messages.size(); i += 50) Collections.shuffle(messages.subList(i, i + 50), rng);
+
+        var released = new ArrayList<Message>();
+        var resequencer = new MessageResequencer(100_000, released::add);
+        messages.forEach(resequencer);
+        resequencer.flush();
+        assertEquals(messages.size(), released.size());
+        assertEquals(0, resequencer.droppedCount());
+        for (int i = 1; i < released.size(); i += 1)
+            assertTrue(released.get(i - 1).timeStampNs() <= released.get(i).timeStampNs());
+    }
+
+    @Test
+    void messageResequencerOnlyDropsMessagesLateForTheirAircraft() {
+        var released = new ArrayList<Message>();
+        var resequencer = new MessageResequencer(10, released::add);
+        resequencer.accept(message(100, 0));
+        resequencer.accept(message(200, 1));
+        // late, but no more recent message of its aircraft has been handed over
+        resequencer.accept(message(50, 2));
+        // late, and a more recent message of its aircraft has been handed over
+        resequencer.accept(message(50, 0));
+        resequencer.flush();
+
+        assertEquals(List.of(100L, 50L, 200L), released.stream().map(Message::timeStampNs).toList());
+        assertEquals(1, resequencer.droppedCount());
+        assertInOrderPerAircraft(released);
+    }
+}
@@ -0,0 +1,110 @@
+package ch.epfl.javions.pipeline;
+
+import ch.epfl.javions.Crc24;
+import ch.epfl.javions.adsb.Message;
+import ch.epfl.javions.adsb.MessageParser;
+import ch.epfl.javions.adsb.RawMessage;
+import ch.epfl.javions.archive.MessageLogWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static ch.epfl.javions.pipeline.MessageResequencerTest.FRAMES;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageStreamsTest {
+
+    private static List<RawMessage> rawMessages(int count) {
+        var rng = new Random(2023);
+        var messages = new ArrayList<RawMessage>();
+        for (int i = 0; i < count; i += 1) {
+            messages.add(RawMessage.of(1_000L * i, HexFormat.of().parseHex(FRAMES[rng.nextInt(FRAMES.length)])));
+        }
+        return messages;
+    }
+
+    private static Comparator<Message> byTimeStamp() {
+        return Comparator.comparingLong(Message::timeStampNs);
+    }
+
+    @Test
+    void messageStreamsReadsMessageLogs(@TempDir Path dir) throws Exception {
+        var expected = rawMessages(1_000);
+        Path file = dir.resolve("log");
+        try (var writer = new MessageLogWriter(file)) {
+            for (RawMessage m : expected) writer.write(m);
+        }
+        try (Stream<RawMessage> s = MessageStreams.rawMessages(file)) {
+            assertEquals(expected, s.toList());
+        }
+    }
+
+    @Test
+    void messageStreamsParseDropsInvalidMessages() {
+        var raw = new ArrayList<>(rawMessages(100));
+        // identification message of type code 28, which is not parsed
+        byte[] bytes = HexFormat.of().parseHex("8D440953E0000000000000000000");
+        int crc = new Crc24(Crc24.GENERATOR).crc(bytes, 0, 11);
+        bytes[11] = (byte) (crc >> 16);
+        bytes[12] = (byte) (crc >> 8);
+        bytes[13] = (byte) crc;
+        raw.add(RawMessage.of(1_000_000, bytes));
+        var parsed = MessageStreams.parse(raw.stream()).toList();
+        assertEquals(100, parsed.size());
+        for (int i = 0; i < parsed.size(); i += 1)
+            assertEquals(MessageParser.parse(raw.get(i)), parsed.get(i));
+    }
+
+    @Test
+    void messageStreamsParseInBatchesParsesAllMessages() {
+        var raw = rawMessages(10_000);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            var parsed = new ArrayList<>(MessageStreams.parseInBatches(raw.stream(), executor, 64, 8).toList());
+            parsed.sort(byTimeStamp());
+            assertEquals(MessageStreams.parse(raw.stream()).toList(), parsed);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void messageStreamsParseInBatchesHandlesPartialBatches() {
+        var raw = rawMessages(1_001);
+        var parsed = MessageStreams.parseInBatches(raw.stream(), Runnable::run, 100, 1).toList();
+        assertEquals(MessageStreams.parse(raw.stream()).toList(), parsed);
+        assertEquals(0, MessageStreams.parseInBatches(Stream.empty(), Runnable::run, 100, 1).count());
+        assertThrows(IllegalArgumentException.class,
+                () -> MessageStreams.parseInBatches(raw.stream(), Runnable::run, 0, 1));
+    }
+
+    @Test
+    void messageStreamsResequenceRestoresOrderAfterParallelParse() {
+        var raw = rawMessages(20_000);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            // at most 8 batches of 64 messages, spaced by 1 us, may be parsed concurrently
+            var messages = MessageStreams.resequence(
+                    MessageStreams.parseInBatches(raw.stream(), executor, 64, 8), 8 * 64 * 1_000L).toList();
+            assertEquals(MessageStreams.parse(raw.stream()).toList(), messages);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void messageStreamsOperatorsCloseTheirSource() {
+        var closed = new AtomicBoolean();
+        Stream<RawMessage> raw = rawMessages(10).stream().onClose(() -> closed.set(true));
+        try (var s = MessageStreams.resequence(MessageStreams.parseInBatches(raw, Runnable::run, 4, 2), 0)) {
+            assertEquals(10, s.count());
+        }
+        assertTrue(closed.get());
+    }
+}
@@ -0,0 +1,60 @@
+package ch.epfl.javions.pipeline;
+
+import ch.epfl.javions.adsb.Message;
+import ch.epfl.javions.adsb.MessageParser;
+import ch.epfl.javions.adsb.RawMessage;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replays a recorded message file, as read by the graphical interface, at maximal speed against stores of 1, 2, 4 and
+ * 8 shards, and prints the throughput of each of them. The messages are parsed beforehand, so that only their routing
+ * and their application to the states are measured.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+public final class ShardedAircraftStateStoreBenchmark {
+
+    private static final int[] SHARD_COUNTS = {1, 2, 4, 8};
+    // number of times the file is replayed for each shard count, the first replays warming up the JIT
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<Message> messages = readMessages(args[0]);
+        System.out.printf("%d messages%n", messages.size());
+        for (int shardCount : SHARD_COUNTS) {
+            long best = Long.MAX_VALUE;
+            for (int run = 0; run < RUNS; run += 1) {
+                var store = new ShardedAircraftStateStore(shardCount);
+                store.start();
+                long start = System.nanoTime();
+                for (Message m : messages) store.update(m);
+                store.finish();
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf("%d shard(s): %.1f ms, %.0f messages/s%n",
+                    shardCount, best / 1e6, messages.size() / (best / 1e9));
+        }
+    }
+
+    private static List<Message> readMessages(String fileName) throws IOException {
+        List<Message> messages = new ArrayList<>();
+        try (DataInputStream s = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName)))) {
+            byte[] bytes = new byte[RawMessage.LENGTH];
+            while (true) {
+                long timeStampNs;
+                try {
+                    timeStampNs = s.readLong();
+                } catch (EOFException e) {
+                    return messages;
+                }
+                s.readFully(bytes);
+                RawMessage rm = RawMessage.of(timeStampNs, bytes);
+                Message m = (rm == null) ? null : MessageParser.parse(rm);
+                if (m != null) messages.add(m);
+            }
+        }
+    }
+}
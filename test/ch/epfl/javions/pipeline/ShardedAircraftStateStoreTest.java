@@ -0,0 +1,98 @@
+package ch.epfl.javions.pipeline;
+
+import ch.epfl.javions.adsb.Message;
+import ch.epfl.javions.adsb.MessageParser;
+import ch.epfl.javions.adsb.RawMessage;
+import ch.epfl.javions.aircraft.IcaoAddress;
+import org.junit.jupiter.api.Test;
+
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedAircraftStateStoreTest {
+
+    private static Message message(long timeStampNs, String hex) {
+        return MessageParser.parse(RawMessage.of(timeStampNs, HexFormat.of().parseHex(hex)));
+    }
+
+    @Test
+    void shardedAircraftStateStoreConstructorThrowsOnInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardedAircraftStateStore(0));
+        assertThrows(IllegalArgumentException.class, () -> new ShardedAircraftStateStore(2, 0, Thread::new));
+    }
+
+    @Test
+    void shardedAircraftStateStoreShardIndexIsInRange() {
+        for (int n = 1; n <= 8; n += 1) {
+            var store = new ShardedAircraftStateStore(n);
+            var used = new boolean[n];
+            for (int a = 0; a < 1 << 12; a += 1) {
+                int i = store.shardIndex(IcaoAddress.of(0x440000 + a));
+                assertTrue(0 <= i && i < n);
+                used[i] = true;
+            }
+            for (boolean u : used) assertTrue(u);
+        }
+    }
+
+    @Test
+    void shardedAircraftStateStoreAppliesMessagesOfEachAircraftInOrder() throws InterruptedException {
+        var store = new ShardedAircraftStateStore(4);
+        store.start();
+        int count = 10_000;
+        for (int i = 1; i <= count; i += 1) {
+            store.update(message(i, "8D44095358BF06C19B95072CF116"));
+            store.update(message(i, "8D392AE499107FB5C00439035DB8"));
+        }
+        store.finish();
+
+        assertEquals(2L * count, store.updateCount());
+        var states = store.states();
+        assertEquals(2, states.size());
+        assertEquals(count, states.get(new IcaoAddress("440953")).lastMessageTimeStampNs());
+        assertEquals(count, states.get(new IcaoAddress("392AE4")).lastMessageTimeStampNs());
+
+        var published = store.takePublished();
+        assertEquals(count, published.get(new IcaoAddress("440953")).lastMessageTimeStampNs());
+        assertTrue(store.takePublished().isEmpty());
+    }
+
+    @Test
+    void shardedAircraftStateStoreCloseUnblocksProducer() throws InterruptedException {
+        // the shards are not started, so the producer blocks as soon as the queue of its shard is full
+        var store = new ShardedAircraftStateStore(1, 4, Thread::new);
+        var dropped = new int[]{0};
+        var producer = new Thread(() -> {
+            try {
+                for (int i = 1; i <= 100; i += 1) {
+                    if (!store.update(message(i, "8D44095358BF06C19B95072CF116"))) dropped[0] += 1;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        while (producer.getState() != Thread.State.TIMED_WAITING) Thread.onSpinWait();
+        store.close();
+        producer.join(10_000);
+        assertFalse(producer.isAlive());
+        assertEquals(100 - 4, dropped[0]);
+        assertFalse(store.update(message(101, "8D44095358BF06C19B95072CF116")));
+        store.finish();
+    }
+
+    @Test
+    void shardedAircraftStateStorePurgesStaleAircraft() throws InterruptedException {
+        var store = new ShardedAircraftStateStore(4);
+        store.start();
+        store.update(message(100, "8D44095358BF06C19B95072CF116"));
+        store.update(message(100 + 2 * AircraftStateStore.DEFAULT_TTL_NS, "8D392AE499107FB5C00439035DB8"));
+        store.finish();
+
+        assertEquals(2, store.updateCount());
+        var states = store.states();
+        assertNull(states.get(new IcaoAddress("440953")));
+        assertNotNull(states.get(new IcaoAddress("392AE4")));
+    }
+}
@@ -0,0 +1,139 @@
+package ch.epfl.javions.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static ch.epfl.javions.pipeline.SpscQueue.OverflowPolicy.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpscQueueTest {
+
+    @Test
+    void spscQueueConstructorThrowsWithInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new SpscQueue<Integer>(0, BLOCK));
+        assertThrows(IllegalArgumentException.class, () -> new SpscQueue<Integer>(-1, BLOCK));
+        assertThrows(NullPointerException.class, () -> new SpscQueue<Integer>(4, null));
+    }
+
+    @Test
+    void spscQueueCapacityIsRoundedToPowerOfTwo() {
+        assertEquals(1, new SpscQueue<Integer>(1, BLOCK).capacity());
+        assertEquals(8, new SpscQueue<Integer>(5, BLOCK).capacity());
+        assertEquals(8, new SpscQueue<Integer>(8, BLOCK).capacity());
+    }
+
+    @Test
+    void spscQueueIsFirstInFirstOut() throws InterruptedException {
+        var queue = new SpscQueue<Integer>(4, BLOCK);
+        assertNull(queue.poll());
+        for (int round = 0; round < 3; round += 1) {
+            for (int i = 0; i < 4; i += 1) assertTrue(queue.put(i));
+            assertEquals(4, queue.size());
+            for (int i = 0; i < 4; i += 1) assertEquals(i, queue.poll());
+            assertTrue(queue.isEmpty());
+        }
+    }
+
+    @Test
+    void spscQueueDropNewestKeepsFirstElements() throws InterruptedException {
+        var queue = new SpscQueue<Integer>(4, DROP_NEWEST);
+        for (int i = 0; i < 10; i += 1) assertEquals(i < 4, queue.put(i));
+        assertEquals(6, queue.droppedCount());
+        var taken = new ArrayList<Integer>();
+        queue.drainTo(taken::add, Integer.MAX_VALUE);
+        assertEquals(List.of(0, 1, 2, 3), taken);
+    }
+
+    @Test
+    void spscQueueDropOldestKeepsLastElements() throws InterruptedException {
+        var queue = new SpscQueue<Integer>(4, DROP_OLDEST);
+        for (int i = 0; i < 10; i += 1) assertTrue(queue.put(i));
+        assertEquals(6, queue.droppedCount());
+        var taken = new ArrayList<Integer>();
+        queue.drainTo(taken::add, Integer.MAX_VALUE);
+        assertEquals(List.of(6, 7, 8, 9), taken);
+    }
+
+    @Test
+    void spscQueueDrainToTakesAtMostMaxElements() throws InterruptedException {
+        var queue = new SpscQueue<Integer>(8, BLOCK);
+        for (int i = 0; i < 5; i += 1) queue.put(i);
+        var taken = new ArrayList<Integer>();
+        assertEquals(3, queue.drainTo(taken::add, 3));
+        assertEquals(List.of(0, 1, 2), taken);
+        assertEquals(2, queue.drainTo(taken::add, 3));
+        assertEquals(0, queue.drainTo(taken::add, 3));
+    }
+
+    @Test
+    void spscQueueBlockingProducerLosesNothing() throws InterruptedException {
+        var queue = new SpscQueue<Integer>(16, BLOCK);
+        var count = 200_000;
+        var producer = new Thread(() -> {
+            try {
+                for (int i = 0; i < count; i += 1) queue.put(i);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        var expected = new int[]{0};
+        while (expected[0] < count) {
+            queue.drainTo(e -> assertEquals(expected[0]++, e), 64);
+        }
+        producer.join();
+        assertEquals(0, queue.droppedCount());
+    }
+
+    @Test
+    void spscQueueCloseUnblocksBlockedProducer() throws InterruptedException {
+        var queue = new SpscQueue<Integer>(4, BLOCK);
+        var count = 100;
+        var put = new int[]{0};
+        var producer = new Thread(() -> {
+            try {
+                for (int i = 0; i < count; i += 1) {
+                    if (queue.put(i)) put[0] += 1;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        while (queue.size() < queue.capacity()) Thread.onSpinWait();
+        queue.close();
+        producer.join(10_000);
+        assertFalse(producer.isAlive());
+        assertTrue(queue.isClosed());
+        assertEquals(queue.capacity(), put[0]);
+        assertEquals(count - queue.capacity(), queue.droppedCount());
+    }
+
+    @Test
+    void spscQueueDropOldestKeepsOrderUnderContention() throws InterruptedException {
+        var queue = new SpscQueue<Integer>(8, DROP_OLDEST);
+        var count = 200_000;
+        var producer = new Thread(() -> {
+            try {
+                for (int i = 0; i < count; i += 1) queue.put(i);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        var last = new int[]{-1};
+        var taken = new long[]{0};
+        while (producer.isAlive() || !queue.isEmpty()) {
+            queue.drainTo(e -> {
+                assertTrue(e > last[0]);
+                last[0] = e;
+                taken[0] += 1;
+            }, 64);
+        }
+        producer.join();
+        assertEquals(count - 1, last[0]);
+        assertEquals(count, taken[0] + queue.droppedCount());
+    }
+}
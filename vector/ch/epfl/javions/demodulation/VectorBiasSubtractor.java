@@ -0,0 +1,28 @@
+package ch.epfl.javions.demodulation;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Subtraction of the bias of the samples with the vector API, as many samples at once as the preferred vectors of
+ * the platform hold. Lives in the vector source root, the only one compiled with the jdk.incubator.vector module, and
+ * is only loaded by {@link SamplesDecoder} once the module is known to be present, so that the decoder still works
+ * without it.
+ *
+ * @author Theo Le Fur (SCIPER: 363294)
+ */
+final class VectorBiasSubtractor implements BiasSubtractor {
+
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+
+    @Override
+    public void subtract(short[] samples, int count, short bias) {
+        int i = 0;
+        for (int upperBound = SPECIES.loopBound(count); i < upperBound; i += SPECIES.length()) {
+            ShortVector.fromArray(SPECIES, samples, i).sub(bias).intoArray(samples, i);
+        }
+        for (; i < count; i++) {
+            samples[i] -= bias;
+        }
+    }
+}